@@ -0,0 +1,63 @@
+package com.perpustakaan.api_gateway.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Menerima hint invalidasi dari backend (fanout, satu queue anonim per instance gateway).
+ * Payload: {"resource": "buku", "ids": ["..."]}. Detail per id dan semua halaman list
+ * resource tersebut dihapus dari cache.
+ */
+@Component
+public class CacheInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationListener.class);
+
+    private final ResponseCacheStore store;
+    private final ObjectMapper objectMapper;
+
+    public CacheInvalidationListener(ResponseCacheStore store, ObjectMapper objectMapper) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+    }
+
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(exclusive = "true", autoDelete = "true"),
+            exchange = @Exchange(value = "${perpustakaan.gateway.cache.invalidation-exchange}", type = ExchangeTypes.FANOUT)))
+    public void onHint(Message message) {
+        JsonNode hint;
+        try {
+            hint = objectMapper.readTree(message.getBody());
+        } catch (IOException e) {
+            logger.warn("RabbitMQ Listener: Hint invalidasi tidak valid, dilewati: {}", e.getMessage());
+            return;
+        }
+
+        String resource = hint.path("resource").asText("");
+        if (resource.isEmpty()) {
+            return;
+        }
+        String base = "/api/" + resource;
+        List<String> paths = new ArrayList<>();
+        paths.add(base);
+        // Hasil pencarian bisa berubah oleh buku mana pun
+        paths.add(base + "/search");
+        hint.path("ids").forEach(id -> paths.add(base + "/" + id.asText()));
+
+        logger.debug("RabbitMQ Listener: Invalidasi cache {} ({} id)", resource, paths.size() - 1);
+        store.invalidatePaths(paths);
+    }
+}
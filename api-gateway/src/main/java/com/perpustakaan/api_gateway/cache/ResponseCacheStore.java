@@ -0,0 +1,115 @@
+package com.perpustakaan.api_gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Penyimpanan response GET di gateway. Dibatasi total byte body (bukan jumlah entry),
+ * TTL per entry mengikuti konfigurasi route masing-masing.
+ */
+@Component
+public class ResponseCacheStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheStore.class);
+
+    private final Cache<String, CachedResponse> cache;
+
+    // Naik setiap ada invalidasi; response yang mulai di-fetch sebelum invalidasi tidak disimpan.
+    private final AtomicLong generation = new AtomicLong();
+
+    public ResponseCacheStore(MeterRegistry meterRegistry,
+                              @Value("${perpustakaan.gateway.cache.max-bytes:67108864}") long maxBytes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedResponse value) -> key.length() + value.body().length)
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                        return value.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return value.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.response");
+    }
+
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(String key, CachedResponse response, long fetchedAtGeneration) {
+        if (generation.get() != fetchedAtGeneration) {
+            logger.debug("CACHE SKIP: {} di-invalidate selama fetch", key);
+            return;
+        }
+        cache.put(key, response);
+    }
+
+    /** Menghapus semua entry untuk path tersebut, dengan query string apa pun. */
+    public void invalidatePaths(Collection<String> paths) {
+        generation.incrementAndGet();
+        int before = cache.asMap().size();
+        cache.asMap().keySet().removeIf(key -> paths.stream().anyMatch(path -> matches(key, path)));
+        logger.debug("CACHE INVALIDATE: {} -> {} entry dihapus", paths, before - cache.asMap().size());
+    }
+
+    private static boolean matches(String key, String path) {
+        if (!key.startsWith(path)) {
+            return false;
+        }
+        if (key.length() == path.length()) {
+            return true;
+        }
+        return key.charAt(path.length()) == '?';
+    }
+
+    public record CachedResponse(int status, HttpHeaders headers, byte[] body, String etag, Duration ttl) {
+
+        // Header hop-by-hop / per-koneksi (Content-Length, Transfer-Encoding, Date) tidak ikut disimpan
+        private static final List<String> STORED_HEADERS = List.of(
+                HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LANGUAGE, HttpHeaders.LAST_MODIFIED);
+
+        public static CachedResponse of(int status, HttpHeaders headers, byte[] body, Duration ttl) {
+            HttpHeaders copy = new HttpHeaders();
+            STORED_HEADERS.forEach(name -> {
+                List<String> values = headers.get(name);
+                if (values != null) {
+                    copy.put(name, values);
+                }
+            });
+            String etag = headers.getETag() != null
+                    ? headers.getETag()
+                    : "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+            copy.setETag(etag);
+            return new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(copy), body, etag, ttl);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.perpustakaan.benchmarks;
+
+import com.perpustakaan.service_buku.cqrs.command.CreateBukuCommand;
+import com.perpustakaan.service_buku.cqrs.handler.BukuCommandHandler;
+import com.perpustakaan.service_buku.entity.command.BukuWriteModel;
+import com.perpustakaan.service_buku.event.OutboxWriter;
+import com.perpustakaan.service_buku.repository.command.BukuCommandRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BukuCommandHandler.handle(CreateBukuCommand) terhadap H2 in-memory: insert buku (keunikan
+ * dijaga unique constraint) dan insert baris outbox dalam satu transaksi. Tabel terus bertambah selama
+ * trial, sama seperti di produksi.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BukuCommandHandlerBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private BukuCommandHandler handler;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(CommandContext.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:buku_bench;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false")
+                .run();
+        handler = context.getBean(BukuCommandHandler.class);
+    }
+
+    @Benchmark
+    public BukuWriteModel createBuku() {
+        long n = ++sequence;
+        return handler.handle(new CreateBukuCommand(
+                "BK-" + n, "Pemrograman Java Lanjut Jilid " + n, "Pengarang " + n, "Penerbit Informatika", 2024));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // Hanya sisi command (JPA + outbox): tanpa MongoDB, RabbitMQ, maupun Eureka.
+    @Configuration
+    @ImportAutoConfiguration({
+            DataSourceAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class,
+            JacksonAutoConfiguration.class})
+    @EntityScan(basePackageClasses = BukuWriteModel.class)
+    @EnableJpaRepositories(basePackageClasses = BukuCommandRepository.class)
+    @Import({BukuCommandHandler.class, OutboxWriter.class})
+    static class CommandContext {
+    }
+}
@@ -0,0 +1,52 @@
+package com.perpustakaan.benchmarks;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Proses mongod lokal (flapdoodle) sebagai pengganti MongoDB read model.
+ * Binary diunduh sekali ke ~/.embedmongo, lalu dipakai ulang oleh setiap fork JMH.
+ * Jika -Dbenchmarks.mongo.uri diisi, MongoDB tersebut yang dipakai dan tidak ada proses yang dijalankan.
+ */
+final class EmbeddedMongo implements AutoCloseable {
+
+    static final String URI_PROPERTY = "benchmarks.mongo.uri";
+
+    private final TransitionWalker.ReachedState<RunningMongodProcess> process;
+    private final MongoClient client;
+
+    private EmbeddedMongo(TransitionWalker.ReachedState<RunningMongodProcess> process, String uri) {
+        this.process = process;
+        this.client = MongoClients.create(uri);
+    }
+
+    static EmbeddedMongo start() {
+        String uri = System.getProperty(URI_PROPERTY);
+        if (uri != null && !uri.isBlank()) {
+            return new EmbeddedMongo(null, uri);
+        }
+        TransitionWalker.ReachedState<RunningMongodProcess> process = Mongod.instance().start(Version.Main.V7_0);
+        ServerAddress address = process.current().getServerAddress();
+        return new EmbeddedMongo(process, "mongodb://" + address.getHost() + ":" + address.getPort());
+    }
+
+    /** Database baru (di-drop dulu) supaya setiap trial mulai dari koleksi kosong. */
+    MongoTemplate template(String database) {
+        client.getDatabase(database).drop();
+        return new MongoTemplate(client, database);
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        if (process != null) {
+            process.close();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.perpustakaan.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.perpustakaan.service_anggota.event.AnggotaEventListener;
+import com.perpustakaan.service_buku.cache.BukuReadCache;
+import com.perpustakaan.service_buku.event.BukuEventListener;
+import com.perpustakaan.service_peminjaman.event.PeminjamanEventListener;
+import com.perpustakaan.service_pengembalian.event.PengembalianEventListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Satu panggilan handleBatch per invocation: batchSize event Updated untuk batchSize dokumen
+ * berbeda, dengan versi yang selalu naik sehingga setiap batch benar-benar menulis ke MongoDB.
+ * Created di-seed sekali di setup; untuk peminjaman, Updated menguji jalur update parsial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EventListenerBenchmark {
+
+    @Param({"buku", "anggota", "peminjaman", "pengembalian"})
+    public String service;
+
+    @Param({"1", "100"})
+    public int batchSize;
+
+    private EmbeddedMongo mongo;
+    private AnnotationConfigApplicationContext context;
+    private ObjectMapper objectMapper;
+    private Consumer<List<Message>> listener;
+    private String eventPrefix;
+    private long version;
+    private List<Message> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mongo = EmbeddedMongo.start();
+        objectMapper = SampleEvents.objectMapper();
+        MongoTemplate mongoTemplate = mongo.template(service + "_bench");
+
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean("mongoTemplate", MongoTemplate.class, () -> mongoTemplate);
+        context.registerBean(MessageConverter.class, () -> new Jackson2JsonMessageConverter());
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.registerBean(RabbitTemplate.class, NoOpRabbitTemplate::new);
+        switch (service) {
+            case "buku" -> {
+                context.register(BukuReadCache.class, com.perpustakaan.service_buku.event.CacheInvalidationPublisher.class,
+                        com.perpustakaan.service_buku.event.ProjectionProgress.class, BukuEventListener.class);
+                eventPrefix = "Buku";
+            }
+            case "anggota" -> {
+                context.register(com.perpustakaan.service_anggota.event.CacheInvalidationPublisher.class,
+                        com.perpustakaan.service_anggota.event.ProjectionProgress.class, AnggotaEventListener.class);
+                eventPrefix = "Anggota";
+            }
+            case "peminjaman" -> {
+                context.register(com.perpustakaan.service_peminjaman.event.ProjectionProgress.class,
+                        PeminjamanEventListener.class);
+                eventPrefix = "Peminjaman";
+            }
+            case "pengembalian" -> {
+                context.register(com.perpustakaan.service_pengembalian.event.ProjectionProgress.class,
+                        PengembalianEventListener.class);
+                eventPrefix = "Pengembalian";
+            }
+            default -> throw new IllegalArgumentException(service);
+        }
+        context.refresh();
+        listener = switch (service) {
+            case "buku" -> context.getBean(BukuEventListener.class)::handleBatch;
+            case "anggota" -> context.getBean(AnggotaEventListener.class)::handleBatch;
+            case "peminjaman" -> context.getBean(PeminjamanEventListener.class)::handleBatch;
+            default -> context.getBean(PengembalianEventListener.class)::handleBatch;
+        };
+
+        listener.accept(messages("CreatedEvent"));
+    }
+
+    @Setup(Level.Invocation)
+    public void nextBatch() {
+        batch = messages("UpdatedEvent");
+    }
+
+    @Benchmark
+    public void handleBatch() {
+        listener.accept(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        mongo.close();
+    }
+
+    private List<Message> messages(String suffix) {
+        version++;
+        List<Message> messages = new ArrayList<>(batchSize);
+        for (int n = 0; n < batchSize; n++) {
+            messages.add(SampleEvents.toMessage(objectMapper, SampleEvents.of(eventPrefix + suffix, n, version)));
+        }
+        return messages;
+    }
+
+    /** Hint invalidasi cache tidak diukur di sini; broker tidak tersedia saat benchmark. */
+    static class NoOpRabbitTemplate extends RabbitTemplate {
+
+        @Override
+        public void convertAndSend(String exchange, String routingKey, Object object) {
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.perpustakaan.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialisasi event di sisi command (ObjectMapper Boot, dipakai OutboxWriter) dan
+ * deserialisasi di sisi consumer (Jackson2JsonMessageConverter, dipakai *EventListener).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+    @Param({
+            "BukuCreatedEvent", "BukuUpdatedEvent", "BukuDeletedEvent",
+            "AnggotaCreatedEvent", "AnggotaUpdatedEvent", "AnggotaDeletedEvent",
+            "PeminjamanCreatedEvent", "PeminjamanUpdatedEvent", "PeminjamanDeletedEvent",
+            "PengembalianCreatedEvent", "PengembalianUpdatedEvent", "PengembalianDeletedEvent"})
+    public String eventType;
+
+    private ObjectMapper objectMapper;
+    private Jackson2JsonMessageConverter messageConverter;
+    private Object event;
+    private Message message;
+
+    @Setup
+    public void setUp() {
+        objectMapper = SampleEvents.objectMapper();
+        messageConverter = new Jackson2JsonMessageConverter();
+        event = SampleEvents.of(eventType, 1, 1L);
+        message = SampleEvents.toMessage(objectMapper, event);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return messageConverter.fromMessage(message);
+    }
+}
@@ -0,0 +1,190 @@
+package com.perpustakaan.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
+import com.perpustakaan.service_peminjaman.cqrs.handler.PeminjamanQueryHandler;
+import com.perpustakaan.service_peminjaman.cqrs.query.GetAllPeminjamanDetail;
+import com.perpustakaan.service_peminjaman.cqrs.query.GetPeminjamanById;
+import com.perpustakaan.service_peminjaman.entity.query.AnggotaSnapshot;
+import com.perpustakaan.service_peminjaman.entity.query.BukuSnapshot;
+import com.perpustakaan.service_peminjaman.entity.query.PeminjamanReadModel;
+import com.perpustakaan.service_peminjaman.event.ProjectionProgress;
+import com.perpustakaan.service_peminjaman.repository.query.PeminjamanQueryRepository;
+import com.perpustakaan.service_peminjaman.resilience.DownstreamGuard;
+import com.perpustakaan.service_peminjaman.vo.Anggota;
+import com.perpustakaan.service_peminjaman.vo.BatchResponse;
+import com.perpustakaan.service_peminjaman.vo.Buku;
+import com.perpustakaan.service_peminjaman.vo.ResponseTemplateVO;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Enrichment detail peminjaman. Dengan snapshots=true semua Anggota/Buku sudah ada di snapshot
+ * lokal; dengan snapshots=false setiap data diambil dari service-anggota dan service-buku,
+ * yang di sini di-stub oleh WireMock (latencyMs mensimulasikan jarak jaringan).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PeminjamanEnrichmentBenchmark {
+
+    @Param({"10", "50"})
+    public int pageSize;
+
+    @Param({"true", "false"})
+    public boolean snapshots;
+
+    @Param({"0", "5"})
+    public int latencyMs;
+
+    private EmbeddedMongo mongo;
+    private WireMockServer wireMock;
+    private AnnotationConfigApplicationContext context;
+    private PeminjamanQueryHandler handler;
+    private String sampleId;
+
+    @Setup
+    public void setUp() {
+        mongo = EmbeddedMongo.start();
+        MongoTemplate mongoTemplate = mongo.template("peminjaman_bench");
+
+        List<Anggota> anggota = new ArrayList<>();
+        List<Buku> buku = new ArrayList<>();
+        for (int n = 0; n < pageSize; n++) {
+            String anggotaId = SampleEvents.id("anggota", n).toString();
+            String bukuId = SampleEvents.id("buku", n).toString();
+            anggota.add(new Anggota(anggotaId, "AGT-" + n, "Anggota " + n, "Jl. Merdeka No. " + n, "anggota" + n + "@contoh.id"));
+            buku.add(new Buku(bukuId, "BK-" + n, "Pemrograman Java Lanjut Jilid " + n, "Pengarang " + n, "Penerbit Informatika", 2024));
+
+            PeminjamanReadModel peminjaman = new PeminjamanReadModel();
+            peminjaman.setId(SampleEvents.id("peminjaman", n).toString());
+            peminjaman.setAnggotaId(anggotaId);
+            peminjaman.setBukuId(bukuId);
+            peminjaman.setTanggalPinjam(LocalDate.of(2024, 5, 1));
+            peminjaman.setStatus("DIPINJAM");
+            peminjaman.setVersion(0L);
+            mongoTemplate.insert(peminjaman);
+            if (snapshots) {
+                Anggota a = anggota.get(n);
+                Buku b = buku.get(n);
+                mongoTemplate.insert(new AnggotaSnapshot(a.getId(), a.getNomorAnggota(), a.getNama(), a.getAlamat(), a.getEmail(), 0L));
+                mongoTemplate.insert(new BukuSnapshot(b.getId(), b.getKodeBuku(), b.getJudul(), b.getPengarang(),
+                        b.getPenerbit(), b.getTahunTerbit(), 0L));
+            }
+        }
+        sampleId = SampleEvents.id("peminjaman", 0).toString();
+
+        wireMock = new WireMockServer(options().dynamicPort());
+        wireMock.start();
+        stubJson(post(urlEqualTo("/api/anggota/batch")), new BatchResponse<>(anggota, List.of()));
+        stubJson(post(urlEqualTo("/api/buku/batch")), new BatchResponse<>(buku, List.of()));
+        stubJson(get(urlPathMatching("/api/anggota/.*")), anggota.get(0));
+        stubJson(get(urlPathMatching("/api/buku/.*")), buku.get(0));
+
+        // Bean yang sama dengan ServicePeminjamanApplication; pengganti @LoadBalanced mengarahkan
+        // http://service-anggota dan http://service-buku ke WireMock.
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean("mongoTemplate", MongoTemplate.class, () -> mongoTemplate);
+        context.registerBean(RestTemplate.class, () -> routedTo(wireMock.port()));
+        context.registerBean("enrichmentExecutor", ExecutorService.class, Executors::newVirtualThreadPerTaskExecutor,
+                definition -> definition.setDestroyMethodName("close"));
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.registerBean(CircuitBreakerRegistry.class, CircuitBreakerRegistry::ofDefaults);
+        context.registerBean(BulkheadRegistry.class, BulkheadRegistry::ofDefaults);
+        context.registerBean(TimeLimiterRegistry.class, TimeLimiterRegistry::ofDefaults);
+        context.register(QueryContext.class, ProjectionProgress.class, DownstreamGuard.class, PeminjamanQueryHandler.class);
+        context.refresh();
+        handler = context.getBean(PeminjamanQueryHandler.class);
+    }
+
+    @Benchmark
+    public ResponseTemplateVO detailById() {
+        return handler.handle(new GetPeminjamanById(sampleId));
+    }
+
+    @Benchmark
+    public Page<ResponseTemplateVO> detailPage() {
+        return handler.handle(new GetAllPeminjamanDetail(0, pageSize, true, true));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        wireMock.stop();
+        mongo.close();
+    }
+
+    private void stubJson(MappingBuilder request, Object body) {
+        wireMock.stubFor(request.willReturn(aResponse()
+                .withHeader("Content-Type", "application/json")
+                .withFixedDelay(latencyMs)
+                .withBody(toJson(body))));
+    }
+
+    /** Host nama service (http://service-xxx) diganti localhost:port, seperti hasil pilihan load balancer. */
+    private static RestTemplate routedTo(int port) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add((request, body, execution) -> execution.execute(new HttpRequestWrapper(request) {
+            @Override
+            public URI getURI() {
+                return UriComponentsBuilder.fromUri(request.getURI()).host("localhost").port(port).build(true).toUri();
+            }
+        }, body));
+        return restTemplate;
+    }
+
+    private static String toJson(Object body) {
+        try {
+            return SampleEvents.objectMapper().writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Configuration
+    @EnableMongoRepositories(basePackageClasses = PeminjamanQueryRepository.class)
+    static class QueryContext {
+    }
+}
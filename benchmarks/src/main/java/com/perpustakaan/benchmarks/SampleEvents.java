@@ -0,0 +1,88 @@
+package com.perpustakaan.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.perpustakaan.service_anggota.event.AnggotaCreatedEvent;
+import com.perpustakaan.service_anggota.event.AnggotaDeletedEvent;
+import com.perpustakaan.service_anggota.event.AnggotaUpdatedEvent;
+import com.perpustakaan.service_buku.event.BukuCreatedEvent;
+import com.perpustakaan.service_buku.event.BukuDeletedEvent;
+import com.perpustakaan.service_buku.event.BukuUpdatedEvent;
+import com.perpustakaan.service_peminjaman.event.PeminjamanCreatedEvent;
+import com.perpustakaan.service_peminjaman.event.PeminjamanDeletedEvent;
+import com.perpustakaan.service_peminjaman.event.PeminjamanUpdatedEvent;
+import com.perpustakaan.service_pengembalian.event.PengembalianCreatedEvent;
+import com.perpustakaan.service_pengembalian.event.PengembalianDeletedEvent;
+import com.perpustakaan.service_pengembalian.event.PengembalianUpdatedEvent;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Event contoh dengan ukuran field yang mirip data asli. Id diturunkan dari nomor urut
+ * sehingga event dengan nomor yang sama selalu mengenai dokumen yang sama.
+ */
+final class SampleEvents {
+
+    private SampleEvents() {
+    }
+
+    /** ObjectMapper dengan default yang sama seperti bean Spring Boot (dipakai OutboxWriter). */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    /** Pesan AMQP dalam bentuk yang sama dengan kiriman OutboxRelay. */
+    static Message toMessage(ObjectMapper objectMapper, Object event) {
+        try {
+            return MessageBuilder.withBody(objectMapper.writeValueAsBytes(event))
+                    .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                    .setContentEncoding("UTF-8")
+                    .setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, event.getClass().getName())
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static UUID id(String scope, int n) {
+        return UUID.nameUUIDFromBytes((scope + "-" + n).getBytes());
+    }
+
+    static Object of(String type, int n, long version) {
+        Instant now = Instant.now();
+        return switch (type) {
+            case "BukuCreatedEvent" -> new BukuCreatedEvent(id("buku", n), "BK-" + n,
+                    "Pemrograman Java Lanjut Jilid " + n, "Pengarang " + n, "Penerbit Informatika", 2024, version, now);
+            case "BukuUpdatedEvent" -> new BukuUpdatedEvent(id("buku", n), "BK-" + n,
+                    "Pemrograman Java Lanjut Jilid " + n, "Pengarang " + n, "Penerbit Informatika", 2024, version, now);
+            case "BukuDeletedEvent" -> new BukuDeletedEvent(id("buku", n));
+            case "AnggotaCreatedEvent" -> new AnggotaCreatedEvent(id("anggota", n), "AGT-" + n,
+                    "Anggota " + n, "Jl. Merdeka No. " + n + ", Bandung", "anggota" + n + "@contoh.id", version, now);
+            case "AnggotaUpdatedEvent" -> new AnggotaUpdatedEvent(id("anggota", n), "AGT-" + n,
+                    "Anggota " + n, "Jl. Merdeka No. " + n + ", Bandung", "anggota" + n + "@contoh.id", version, now);
+            case "AnggotaDeletedEvent" -> new AnggotaDeletedEvent(id("anggota", n));
+            case "PeminjamanCreatedEvent" -> new PeminjamanCreatedEvent(id("peminjaman", n),
+                    id("anggota", n), id("buku", n), LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 8), "DIPINJAM", version, now);
+            case "PeminjamanUpdatedEvent" -> new PeminjamanUpdatedEvent(id("peminjaman", n),
+                    id("anggota", n), id("buku", n), LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 8),
+                    "DIKEMBALIKAN", version, now);
+            case "PeminjamanDeletedEvent" -> new PeminjamanDeletedEvent(id("peminjaman", n));
+            case "PengembalianCreatedEvent" -> new PengembalianCreatedEvent(id("pengembalian", n),
+                    id("peminjaman", n), LocalDate.of(2024, 5, 10), 2, 2000.0, version, now);
+            case "PengembalianUpdatedEvent" -> new PengembalianUpdatedEvent(id("pengembalian", n),
+                    id("peminjaman", n), LocalDate.of(2024, 5, 10), 2, 2000.0, version, now);
+            case "PengembalianDeletedEvent" -> new PengembalianDeletedEvent(id("pengembalian", n));
+            default -> throw new IllegalArgumentException("Tipe event tidak dikenal: " + type);
+        };
+    }
+}
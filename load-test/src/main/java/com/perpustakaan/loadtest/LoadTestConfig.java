@@ -0,0 +1,69 @@
+package com.perpustakaan.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parameter load test, dibaca dari system property -Dloadtest.*.
+ *
+ * @param rate        request/detik (open model, latensi dihitung dari jadwal); 0 = closed model dengan {@code users}
+ * @param mix         bobot relatif setiap operasi
+ * @param lagSample   fraksi tulis yang dilacak sampai terlihat di read model
+ * @param baseUrl     jika diisi, stack yang sudah berjalan dipakai (tanpa container / proses service)
+ */
+record LoadTestConfig(
+        Duration warmup,
+        Duration duration,
+        int users,
+        int rate,
+        Map<Operation, Integer> mix,
+        double lagSample,
+        Duration lagTimeout,
+        int seedAnggota,
+        int seedBuku,
+        String baseUrl,
+        Path projectRoot,
+        String serviceJvmOpts,
+        Path reportFile) {
+
+    static LoadTestConfig fromSystemProperties() {
+        Map<Operation, Integer> mix = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            mix.put(operation, Integer.getInteger("loadtest.mix." + operation.key(), operation.defaultWeight()));
+        }
+        return new LoadTestConfig(
+                duration("loadtest.warmup", "30s"),
+                duration("loadtest.duration", "120s"),
+                Integer.getInteger("loadtest.users", 64),
+                Integer.getInteger("loadtest.rate", 0),
+                mix,
+                Double.parseDouble(System.getProperty("loadtest.lag-sample", "0.1")),
+                duration("loadtest.lag-timeout", "30s"),
+                Integer.getInteger("loadtest.seed.anggota", 200),
+                Integer.getInteger("loadtest.seed.buku", 500),
+                System.getProperty("loadtest.base-url", ""),
+                Path.of(System.getProperty("loadtest.project-root", "..")).toAbsolutePath().normalize(),
+                System.getProperty("loadtest.service-jvm-opts", "-Xms256m -Xmx512m"),
+                Path.of(System.getProperty("loadtest.report", "target/load-test-report.json")));
+    }
+
+    boolean external() {
+        return !baseUrl.isBlank();
+    }
+
+    private static Duration duration(String key, String fallback) {
+        String value = System.getProperty(key, fallback).trim().toLowerCase();
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("s")) {
+            value = value.substring(0, value.length() - 1);
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+}
@@ -0,0 +1,119 @@
+package com.perpustakaan.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Entry point load test end-to-end: menyiapkan stack (atau memakai loadtest.base-url), mengisi
+ * data awal, menjalankan warmup lalu jendela pengukuran, dan mencetak laporan terhadap KPI.
+ *
+ * Closed model (default): {@code users} virtual thread masing-masing mengirim request berikutnya
+ * setelah response sebelumnya diterima. Open model (loadtest.rate > 0): request dijadwalkan pada
+ * laju tetap dan latensi dihitung dari waktu jadwal, bukan waktu kirim, sehingga antrean di sisi
+ * klien ikut terukur (menghindari coordinated omission).
+ */
+public final class LoadTestRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        boolean passed;
+
+        StandInEnvironment environment = config.external() ? null : new StandInEnvironment(config);
+        try {
+            String gatewayUrl;
+            Map<String, String> readModelUrls;
+            if (environment == null) {
+                gatewayUrl = config.baseUrl();
+                readModelUrls = Map.of("peminjaman", gatewayUrl, "pengembalian", gatewayUrl);
+                logger.info("LOAD TEST: Memakai stack yang sudah berjalan di {}", gatewayUrl);
+            } else {
+                environment.start();
+                gatewayUrl = environment.gatewayUrl();
+                readModelUrls = Map.of(
+                        "peminjaman", environment.serviceUrl("service-peminjaman"),
+                        "pengembalian", environment.serviceUrl("service-pengembalian"));
+            }
+
+            Metrics metrics = new Metrics();
+            try (Workload workload = new Workload(config, metrics, gatewayUrl, readModelUrls)) {
+                workload.seed();
+
+                logger.info("LOAD TEST: Warmup {} s", config.warmup().toSeconds());
+                drive(config, workload, config.warmup());
+                metrics.reset();
+
+                logger.info("LOAD TEST: Pengukuran {} s", config.duration().toSeconds());
+                long start = System.nanoTime();
+                drive(config, workload, config.duration());
+                Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+                workload.awaitProbes();
+                passed = new Report(config, metrics, elapsed).print();
+            }
+        } finally {
+            if (environment != null) {
+                environment.close();
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static void drive(LoadTestConfig config, Workload workload, Duration window) throws InterruptedException {
+        if (window.isZero() || window.isNegative()) {
+            return;
+        }
+        if (config.rate() > 0) {
+            openModel(workload, config.rate(), window);
+        } else {
+            closedModel(workload, config.users(), window);
+        }
+    }
+
+    private static void closedModel(Workload workload, int users, Duration window) throws InterruptedException {
+        long deadline = System.nanoTime() + window.toNanos();
+        List<Thread> threads = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            threads.add(Thread.ofVirtual().name("user-" + i).start(() -> {
+                while (System.nanoTime() < deadline) {
+                    workload.execute(workload.nextOperation(), System.nanoTime());
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static void openModel(Workload workload, int rate, Duration window) throws InterruptedException {
+        long period = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long deadline = start + window.toNanos();
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long scheduled = start + i * period;
+                if (scheduled >= deadline) {
+                    break;
+                }
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                requests.execute(() -> workload.execute(workload.nextOperation(), scheduled));
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.perpustakaan.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Histogram latensi per operasi (mikrodetik) dan projection lag per read model (milidetik). */
+final class Metrics {
+
+    private static final long MAX_LATENCY_US = TimeUnit.MINUTES.toMicros(5);
+    private static final long MAX_LAG_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private final Map<Operation, OperationStats> operations = new EnumMap<>(Operation.class);
+    private final Map<String, LagStats> lags = new LinkedHashMap<>();
+
+    Metrics() {
+        for (Operation operation : Operation.values()) {
+            operations.put(operation, new OperationStats());
+        }
+        lags.put("peminjaman", new LagStats());
+        lags.put("pengembalian", new LagStats());
+    }
+
+    OperationStats operation(Operation operation) {
+        return operations.get(operation);
+    }
+
+    LagStats lag(String readModel) {
+        return lags.get(readModel);
+    }
+
+    Map<Operation, OperationStats> operations() {
+        return operations;
+    }
+
+    Map<String, LagStats> lags() {
+        return lags;
+    }
+
+    /** Dipanggil setelah warmup: hasil warmup tidak ikut laporan. */
+    void reset() {
+        operations.values().forEach(OperationStats::reset);
+        lags.values().forEach(LagStats::reset);
+    }
+
+    static final class OperationStats {
+
+        final Histogram latencyMicros = new ConcurrentHistogram(MAX_LATENCY_US, 3);
+        final LongAdder ok = new LongAdder();
+        /** 4xx: ditolak aturan bisnis/validasi, bukan kegagalan sistem. */
+        final LongAdder rejected = new LongAdder();
+        /** 5xx, timeout, atau koneksi gagal. */
+        final LongAdder errors = new LongAdder();
+
+        void record(long startNanos, int status) {
+            latencyMicros.recordValue(Math.min(MAX_LATENCY_US, (System.nanoTime() - startNanos) / 1_000));
+            if (status >= 200 && status < 400) {
+                ok.increment();
+            } else if (status >= 400 && status < 500) {
+                rejected.increment();
+            } else {
+                errors.increment();
+            }
+        }
+
+        long total() {
+            return ok.sum() + rejected.sum() + errors.sum();
+        }
+
+        void reset() {
+            latencyMicros.reset();
+            ok.reset();
+            rejected.reset();
+            errors.reset();
+        }
+    }
+
+    static final class LagStats {
+
+        final Histogram lagMillis = new ConcurrentHistogram(MAX_LAG_MS, 3);
+        final LongAdder timeouts = new LongAdder();
+
+        void record(long millis) {
+            lagMillis.recordValue(Math.min(MAX_LAG_MS, millis));
+        }
+
+        void reset() {
+            lagMillis.reset();
+            timeouts.reset();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.perpustakaan.loadtest;
+
+/** Operasi dalam campuran beban pinjam/kembali, dengan bobot default. */
+enum Operation {
+
+    /** POST /api/peminjaman */
+    PINJAM("pinjam", 25),
+    /** POST /api/pengembalian lalu PATCH /api/peminjaman/{id}/status */
+    KEMBALI("kembali", 15),
+    /** GET /api/peminjaman/{id} */
+    DETAIL_PEMINJAMAN("detail-peminjaman", 30),
+    /** GET /api/peminjaman?page=&size=20 */
+    LIST_PEMINJAMAN("list-peminjaman", 20),
+    /** GET /api/pengembalian/{id} */
+    DETAIL_PENGEMBALIAN("detail-pengembalian", 10);
+
+    private final String key;
+    private final int defaultWeight;
+
+    Operation(String key, int defaultWeight) {
+        this.key = key;
+        this.defaultWeight = defaultWeight;
+    }
+
+    String key() {
+        return key;
+    }
+
+    int defaultWeight() {
+        return defaultWeight;
+    }
+}
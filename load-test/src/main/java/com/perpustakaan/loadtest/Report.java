@@ -0,0 +1,150 @@
+package com.perpustakaan.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Ringkasan hasil: throughput, p50/p95/p99 per operasi, projection lag, dan perbandingan dengan
+ * KPI di docs/PERFORMANCE.md. Ditulis ke konsol dan ke file JSON (loadtest.report).
+ */
+final class Report {
+
+    static final double TARGET_THROUGHPUT = 1000;
+    static final double TARGET_P95_MS = 200;
+    static final double TARGET_P99_MS = 500;
+    static final double TARGET_ERROR_RATE = 0.001;
+
+    private final LoadTestConfig config;
+    private final Metrics metrics;
+    private final Duration elapsed;
+
+    Report(LoadTestConfig config, Metrics metrics, Duration elapsed) {
+        this.config = config;
+        this.metrics = metrics;
+        this.elapsed = elapsed;
+    }
+
+    /** @return true jika semua KPI terpenuhi */
+    boolean print() {
+        double seconds = elapsed.toMillis() / 1000.0;
+        Histogram all = new Histogram(3);
+        long total = 0;
+        long errors = 0;
+
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%n=== HASIL LOAD TEST (%.0f s, %s) ===%n", seconds,
+                config.rate() > 0 ? config.rate() + " req/s (open model)" : config.users() + " users (closed model)"));
+        out.append(String.format(Locale.ROOT, "%-22s %9s %9s %7s %7s %9s %9s %9s %9s%n",
+                "operasi", "jumlah", "req/s", "4xx", "error", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (Map.Entry<Operation, Metrics.OperationStats> entry : metrics.operations().entrySet()) {
+            Metrics.OperationStats stats = entry.getValue();
+            Histogram latency = stats.latencyMicros;
+            all.add(latency);
+            total += stats.total();
+            errors += stats.errors.sum();
+            out.append(String.format(Locale.ROOT, "%-22s %9d %9.1f %7d %7d %9.1f %9.1f %9.1f %9.1f%n",
+                    entry.getKey().key(), stats.total(), stats.total() / seconds, stats.rejected.sum(), stats.errors.sum(),
+                    millis(latency, 50), millis(latency, 95), millis(latency, 99), latency.getMaxValue() / 1000.0));
+        }
+        out.append(String.format(Locale.ROOT, "%-22s %9d %9.1f %7s %7d %9.1f %9.1f %9.1f %9.1f%n",
+                "TOTAL", total, total / seconds, "", errors,
+                millis(all, 50), millis(all, 95), millis(all, 99), all.getMaxValue() / 1000.0));
+
+        out.append(String.format(Locale.ROOT, "%nProjection lag (ack tulis -> terlihat di read model, sampel %.0f%%)%n",
+                config.lagSample() * 100));
+        out.append(String.format(Locale.ROOT, "%-22s %9s %9s %9s %9s %9s %9s%n",
+                "read model", "sampel", "timeout", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        metrics.lags().forEach((readModel, lag) -> out.append(String.format(Locale.ROOT,
+                "%-22s %9d %9d %9d %9d %9d %9d%n", readModel, lag.lagMillis.getTotalCount(), lag.timeouts.sum(),
+                lag.lagMillis.getValueAtPercentile(50), lag.lagMillis.getValueAtPercentile(95),
+                lag.lagMillis.getValueAtPercentile(99), lag.lagMillis.getMaxValue())));
+
+        double throughput = total / seconds;
+        double errorRate = total == 0 ? 0 : (double) errors / total;
+        boolean throughputOk = throughput > TARGET_THROUGHPUT;
+        boolean p95Ok = millis(all, 95) < TARGET_P95_MS;
+        boolean p99Ok = millis(all, 99) < TARGET_P99_MS;
+        boolean errorOk = errorRate < TARGET_ERROR_RATE;
+        out.append(String.format(Locale.ROOT, "%nKPI (docs/PERFORMANCE.md)%n"));
+        out.append(kpi("Throughput > 1000 req/s", String.format(Locale.ROOT, "%.1f req/s", throughput), throughputOk));
+        out.append(kpi("p95 < 200 ms", String.format(Locale.ROOT, "%.1f ms", millis(all, 95)), p95Ok));
+        out.append(kpi("p99 < 500 ms", String.format(Locale.ROOT, "%.1f ms", millis(all, 99)), p99Ok));
+        out.append(kpi("Error rate < 0.1%", String.format(Locale.ROOT, "%.3f%%", errorRate * 100), errorOk));
+        System.out.print(out);
+
+        writeJson(total, throughput, errorRate, all, throughputOk && p95Ok && p99Ok && errorOk);
+        return throughputOk && p95Ok && p99Ok && errorOk;
+    }
+
+    private void writeJson(long total, double throughput, double errorRate, Histogram all, boolean pass) {
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ObjectNode root = mapper.createObjectNode();
+        ObjectNode settings = root.putObject("config");
+        settings.put("durationSeconds", elapsed.toSeconds());
+        settings.put("users", config.users());
+        settings.put("rate", config.rate());
+        settings.put("lagSample", config.lagSample());
+        ObjectNode mix = settings.putObject("mix");
+        config.mix().forEach((operation, weight) -> mix.put(operation.key(), weight));
+
+        root.put("totalRequests", total);
+        root.put("throughput", throughput);
+        root.put("errorRate", errorRate);
+        latency(root.putObject("latencyMs"), all);
+
+        ObjectNode operations = root.putObject("operations");
+        metrics.operations().forEach((operation, stats) -> {
+            ObjectNode node = operations.putObject(operation.key());
+            node.put("count", stats.total());
+            node.put("rejected", stats.rejected.sum());
+            node.put("errors", stats.errors.sum());
+            latency(node.putObject("latencyMs"), stats.latencyMicros);
+        });
+
+        ObjectNode lags = root.putObject("projectionLagMs");
+        metrics.lags().forEach((readModel, lag) -> {
+            ObjectNode node = lags.putObject(readModel);
+            node.put("samples", lag.lagMillis.getTotalCount());
+            node.put("timeouts", lag.timeouts.sum());
+            node.put("p50", lag.lagMillis.getValueAtPercentile(50));
+            node.put("p95", lag.lagMillis.getValueAtPercentile(95));
+            node.put("p99", lag.lagMillis.getValueAtPercentile(99));
+            node.put("max", lag.lagMillis.getMaxValue());
+        });
+        root.put("kpiPassed", pass);
+
+        try {
+            if (config.reportFile().getParent() != null) {
+                Files.createDirectories(config.reportFile().getParent());
+            }
+            mapper.writeValue(config.reportFile().toFile(), root);
+            System.out.println("\nLaporan JSON: " + config.reportFile().toAbsolutePath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void latency(ObjectNode node, Histogram micros) {
+        node.put("p50", millis(micros, 50));
+        node.put("p95", millis(micros, 95));
+        node.put("p99", millis(micros, 99));
+        node.put("max", micros.getMaxValue() / 1000.0);
+    }
+
+    private static String kpi(String name, String actual, boolean ok) {
+        return String.format(Locale.ROOT, "  %-26s %-16s %s%n", name, actual, ok ? "OK" : "GAGAL");
+    }
+
+    private static double millis(Histogram micros, double percentile) {
+        return micros.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
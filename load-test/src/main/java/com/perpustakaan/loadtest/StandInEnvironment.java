@@ -0,0 +1,176 @@
+package com.perpustakaan.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.RabbitMQContainer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Menjalankan stack lengkap secara lokal: MongoDB & RabbitMQ lewat Testcontainers, lalu keempat
+ * service dan api-gateway sebagai proses java -jar terpisah. Eureka diganti daftar instance statis
+ * (spring.cloud.discovery.client.simple), jadi tidak ada eureka-server yang perlu dijalankan.
+ */
+final class StandInEnvironment implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StandInEnvironment.class);
+
+    private static final List<String> SERVICES = List.of(
+            "service-anggota", "service-buku", "service-peminjaman", "service-pengembalian");
+    private static final String GATEWAY = "api-gateway";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final LoadTestConfig config;
+    private final MongoDBContainer mongo = new MongoDBContainer("mongo:6.0");
+    private final RabbitMQContainer rabbit = new RabbitMQContainer("rabbitmq:3.12-management-alpine");
+    private final Map<String, Integer> ports = new LinkedHashMap<>();
+    private final List<Process> processes = new ArrayList<>();
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    StandInEnvironment(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    void start() {
+        logger.info("STAND-IN: Menjalankan MongoDB & RabbitMQ (Testcontainers)...");
+        mongo.start();
+        rabbit.start();
+
+        SERVICES.forEach(service -> ports.put(service, freePort()));
+        ports.put(GATEWAY, freePort());
+
+        Path logDir = Path.of("target", "load-test-logs");
+        try {
+            Files.createDirectories(logDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ports.forEach((service, port) -> processes.add(launch(service, port, logDir)));
+        ports.forEach(this::awaitHealthy);
+        logger.info("STAND-IN: Semua service siap, gateway di {}", gatewayUrl());
+    }
+
+    String gatewayUrl() {
+        return "http://localhost:" + ports.get(GATEWAY);
+    }
+
+    /** URL langsung ke service (tanpa gateway), dipakai untuk mengukur projection lag. */
+    String serviceUrl(String service) {
+        return "http://localhost:" + ports.get(service);
+    }
+
+    private Process launch(String service, int port, Path logDir) {
+        Path jar = findJar(service);
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(List.of(config.serviceJvmOpts().trim().split("\\s+")));
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+        command.add("--spring.rabbitmq.host=" + rabbit.getHost());
+        command.add("--spring.rabbitmq.port=" + rabbit.getAmqpPort());
+        command.add("--spring.data.mongodb.host=" + mongo.getHost());
+        command.add("--spring.data.mongodb.port=" + mongo.getMappedPort(27017));
+        command.add("--eureka.client.enabled=false");
+        SERVICES.forEach(target -> command.add(
+                "--spring.cloud.discovery.client.simple.instances." + target + "[0].uri=http://localhost:" + ports.get(target)));
+        // Log DEBUG per request dan ekspor trace ke Zipkin yang tidak ada akan mendistorsi hasil
+        command.add("--management.tracing.sampling.probability=0");
+        command.add("--logging.level.com.perpustakaan=INFO");
+        command.add("--logging.level.org.springframework.cloud=INFO");
+        command.add("--logging.level.org.springframework.data.mongodb=INFO");
+
+        Path log = logDir.resolve(service + ".log");
+        logger.info("STAND-IN: {} di port {} (log: {})", service, port, log);
+        try {
+            return new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(log.toFile())
+                    .start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Gagal menjalankan " + service, e);
+        }
+    }
+
+    private Path findJar(String service) {
+        Path target = config.projectRoot().resolve(service).resolve("target");
+        try (var files = Files.list(target)) {
+            return files
+                    .filter(path -> path.getFileName().toString().matches(service + "-.*\\.jar"))
+                    .findFirst()
+                    .orElseThrow();
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Jar " + service + " tidak ditemukan di " + target
+                    + ". Jalankan dulu: (cd " + service + " && mvn -DskipTests package)", e);
+        }
+    }
+
+    private void awaitHealthy(String service, int port) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    logger.info("STAND-IN: {} UP", service);
+                    return;
+                }
+            } catch (IOException e) {
+                // belum listen
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            sleep(Duration.ofSeconds(1));
+        }
+        throw new IllegalStateException(service + " tidak sehat setelah " + STARTUP_TIMEOUT
+                + ", cek target/load-test-logs/" + service + ".log");
+    }
+
+    @Override
+    public void close() {
+        processes.forEach(Process::destroy);
+        for (Process process : processes) {
+            try {
+                process.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+        rabbit.stop();
+        mongo.stop();
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
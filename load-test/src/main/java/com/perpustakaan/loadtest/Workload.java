@@ -0,0 +1,304 @@
+package com.perpustakaan.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Campuran operasi pinjam/kembali lewat gateway. Sebagian tulis (lagSample) dilacak dengan polling
+ * langsung ke service pemilik read model sampai dokumennya terlihat: selisihnya adalah projection lag.
+ */
+final class Workload implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(Workload.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration PROBE_INTERVAL = Duration.ofMillis(5);
+    // Id baru dibaca setelah umur ini, supaya GET detail tidak mengukur 404 karena projection belum sampai
+    private static final long SETTLE_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private final LoadTestConfig config;
+    private final Metrics metrics;
+    private final String gatewayUrl;
+    private final Map<String, String> readModelUrls;
+    private final HttpClient http;
+    private final ExecutorService probes = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final List<String> anggotaIds = new ArrayList<>();
+    private final List<String> bukuIds = new ArrayList<>();
+    private final ConcurrentLinkedQueue<String> aktif = new ConcurrentLinkedQueue<>();
+    private final IdPool peminjamanIds = new IdPool(8192);
+    private final IdPool pengembalianIds = new IdPool(8192);
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    /**
+     * @param readModelUrls base URL service-peminjaman dan service-pengembalian (tanpa gateway) untuk probe lag
+     */
+    Workload(LoadTestConfig config, Metrics metrics, String gatewayUrl, Map<String, String> readModelUrls) {
+        this.config = config;
+        this.metrics = metrics;
+        this.gatewayUrl = gatewayUrl;
+        this.readModelUrls = readModelUrls;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        Operation[] operations = Operation.values();
+        cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += Math.max(0, config.mix().get(operations[i]));
+            cumulativeWeights[i] = sum;
+        }
+        if (sum == 0) {
+            throw new IllegalArgumentException("Semua bobot loadtest.mix.* bernilai 0");
+        }
+        totalWeight = sum;
+    }
+
+    /** Data awal Anggota & Buku lewat gateway; gagal keras jika tidak ada yang berhasil dibuat. */
+    void seed() {
+        String run = Long.toString(System.currentTimeMillis() % 100_000, 36);
+        for (int n = 0; n < config.seedAnggota(); n++) {
+            String id = createId("/api/anggota", Map.of(
+                    "nomorAnggota", "LT" + run + n,
+                    "nama", "Anggota Load Test " + n,
+                    "alamat", "Jl. Pengujian No. " + n,
+                    "email", "lt" + run + n + "@contoh.id"));
+            if (id != null) {
+                anggotaIds.add(id);
+            }
+        }
+        for (int n = 0; n < config.seedBuku(); n++) {
+            String id = createId("/api/buku", Map.of(
+                    "kodeBuku", "LT" + run + n,
+                    "judul", "Buku Load Test " + run + " #" + n,
+                    "pengarang", "Pengarang " + n,
+                    "penerbit", "Penerbit Uji",
+                    "tahunTerbit", 2024));
+            if (id != null) {
+                bukuIds.add(id);
+            }
+        }
+        if (anggotaIds.isEmpty() || bukuIds.isEmpty()) {
+            throw new IllegalStateException("Seed gagal: " + anggotaIds.size() + " anggota, " + bukuIds.size() + " buku");
+        }
+        logger.info("SEED: {} anggota, {} buku", anggotaIds.size(), bukuIds.size());
+    }
+
+    Operation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        Operation[] operations = Operation.values();
+        for (int i = 0; i < operations.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    /** @param startNanos waktu mulai yang dijadwalkan (open model) atau waktu mulai aktual (closed model) */
+    void execute(Operation operation, long startNanos) {
+        switch (operation) {
+            case PINJAM -> pinjam(startNanos);
+            case KEMBALI -> kembali(startNanos);
+            case DETAIL_PEMINJAMAN -> detail(Operation.DETAIL_PEMINJAMAN, "/api/peminjaman/", peminjamanIds, startNanos);
+            case LIST_PEMINJAMAN -> list(startNanos);
+            case DETAIL_PENGEMBALIAN -> detail(Operation.DETAIL_PENGEMBALIAN, "/api/pengembalian/", pengembalianIds, startNanos);
+        }
+    }
+
+    private void pinjam(long startNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate today = LocalDate.now();
+        Response response = send("POST", "/api/peminjaman", Map.of(
+                "anggotaId", anggotaIds.get(random.nextInt(anggotaIds.size())),
+                "bukuId", bukuIds.get(random.nextInt(bukuIds.size())),
+                "tanggalPinjam", today.toString(),
+                "tanggalKembali", today.plusDays(7).toString(),
+                "status", "DIPINJAM"));
+        metrics.operation(Operation.PINJAM).record(startNanos, response.status());
+        String id = response.id();
+        if (id != null) {
+            aktif.add(id);
+            peminjamanIds.add(id);
+            maybeProbe("peminjaman", "/api/peminjaman/" + id);
+        }
+    }
+
+    private void kembali(long startNanos) {
+        String peminjamanId = aktif.poll();
+        if (peminjamanId == null) {
+            // Belum ada pinjaman aktif (awal run): operasi ini dihitung sebagai pinjam
+            pinjam(startNanos);
+            return;
+        }
+        Response created = send("POST", "/api/pengembalian", Map.of(
+                "peminjamanId", peminjamanId,
+                "tanggalDikembalikan", LocalDate.now().toString()));
+        int status = created.status();
+        if (created.id() != null) {
+            pengembalianIds.add(created.id());
+            maybeProbe("pengembalian", "/api/pengembalian/" + created.id());
+            status = send("PATCH", "/api/peminjaman/" + peminjamanId + "/status?status=DIKEMBALIKAN", null).status();
+        }
+        metrics.operation(Operation.KEMBALI).record(startNanos, status);
+    }
+
+    private void detail(Operation operation, String path, IdPool pool, long startNanos) {
+        String id = pool.pickSettled(SETTLE_NANOS);
+        if (id == null) {
+            list(startNanos);
+            return;
+        }
+        metrics.operation(operation).record(startNanos, send("GET", path + id, null).status());
+    }
+
+    private void list(long startNanos) {
+        int page = ThreadLocalRandom.current().nextInt(5);
+        Response response = send("GET", "/api/peminjaman?page=" + page + "&size=20", null);
+        metrics.operation(Operation.LIST_PEMINJAMAN).record(startNanos, response.status());
+    }
+
+    private void maybeProbe(String readModel, String path) {
+        if (ThreadLocalRandom.current().nextDouble() >= config.lagSample()) {
+            return;
+        }
+        long ackNanos = System.nanoTime();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(readModelUrls.get(readModel) + path))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+        probes.submit(() -> {
+            long deadline = ackNanos + config.lagTimeout().toNanos();
+            while (System.nanoTime() < deadline) {
+                try {
+                    if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        metrics.lag(readModel).record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - ackNanos));
+                        return;
+                    }
+                    Thread.sleep(PROBE_INTERVAL);
+                } catch (IOException e) {
+                    // dicoba lagi sampai deadline
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            metrics.lag(readModel).timeouts.increment();
+        });
+    }
+
+    private String createId(String path, Object body) {
+        Response response = send("POST", path, body);
+        if (response.id() == null) {
+            logger.warn("SEED: {} gagal (HTTP {})", path, response.status());
+        }
+        return response.id();
+    }
+
+    private Response send(String method, String path, Object body) {
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(gatewayUrl + path))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Accept", "application/json");
+            if (body != null) {
+                builder.header("Content-Type", "application/json")
+                        .method(method, HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)));
+            } else {
+                builder.method(method, HttpRequest.BodyPublishers.noBody());
+            }
+            HttpResponse<byte[]> response = http.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+            return new Response(response.statusCode(), response.body());
+        } catch (IOException e) {
+            return new Response(0, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Response(0, null);
+        }
+    }
+
+    /** Menunggu probe lag yang masih berjalan (masing-masing dibatasi loadtest.lag-timeout). */
+    void awaitProbes() throws InterruptedException {
+        probes.shutdown();
+        if (!probes.awaitTermination(config.lagTimeout().toMillis() + 1000, TimeUnit.MILLISECONDS)) {
+            logger.warn("LAG PROBE: Masih ada probe yang berjalan setelah batas waktu");
+        }
+    }
+
+    @Override
+    public void close() {
+        probes.shutdownNow();
+    }
+
+    private record Response(int status, byte[] body) {
+
+        /** Field id dari body response 200/201, atau null. */
+        String id() {
+            if (status < 200 || status >= 300 || body == null || body.length == 0) {
+                return null;
+            }
+            try {
+                JsonNode id = MAPPER.readTree(body).get("id");
+                return id != null && !id.isNull() ? id.asText() : null;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+
+    /** Ring buffer id terakhir yang ditulis, dengan waktu tulisnya. */
+    private static final class IdPool {
+
+        private record Entry(String id, long writtenNanos) {}
+
+        private final AtomicReferenceArray<Entry> entries;
+        private final AtomicLong cursor = new AtomicLong();
+
+        IdPool(int capacity) {
+            this.entries = new AtomicReferenceArray<>(capacity);
+        }
+
+        void add(String id) {
+            entries.set((int) (cursor.getAndIncrement() % entries.length()), new Entry(id, System.nanoTime()));
+        }
+
+        String pickSettled(long minAgeNanos) {
+            int filled = (int) Math.min(cursor.get(), entries.length());
+            if (filled == 0) {
+                return null;
+            }
+            long now = System.nanoTime();
+            for (int attempt = 0; attempt < 3; attempt++) {
+                Entry entry = entries.get(ThreadLocalRandom.current().nextInt(filled));
+                if (entry != null && now - entry.writtenNanos() >= minAgeNanos) {
+                    return entry.id();
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.perpustakaan.service_anggota.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.perpustakaan.service_anggota.bulk.BulkRowReader.BulkRow;
+import com.perpustakaan.service_anggota.cqrs.command.CreateAnggotaCommand;
+import com.perpustakaan.service_anggota.cqrs.command.ImportAnggotaCommand;
+import com.perpustakaan.service_anggota.cqrs.handler.AnggotaCommandHandler;
+import com.perpustakaan.service_anggota.dto.AnggotaRequest;
+import com.perpustakaan.service_anggota.dto.BulkImportResponse;
+import com.perpustakaan.service_anggota.entity.command.AnggotaWriteModel;
+import com.perpustakaan.service_anggota.repository.command.AnggotaCommandRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import anggota dari NDJSON atau CSV. Body dibaca streaming dan diproses per chunk:
+ * validasi per baris, satu probe gabungan nomor anggota/email ke Write DB, lalu satu transaksi
+ * (insert di-batch JDBC + satu AnggotaImportedEvent) per chunk. Baris yang gagal dicatat
+ * di response tanpa menghentikan baris lainnya.
+ */
+@Component
+@RequiredArgsConstructor
+public class AnggotaBulkImporter {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final Logger logger = LoggerFactory.getLogger(AnggotaBulkImporter.class);
+
+    private final AnggotaCommandHandler commandHandler;
+    private final AnggotaCommandRepository anggotaRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    @Value("${perpustakaan.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${perpustakaan.import.max-errors:1000}")
+    private int maxErrors;
+
+    public BulkImportResponse importFrom(InputStream body, MediaType contentType) throws IOException {
+        logger.info("PROSES IMPORT: Memulai bulk import anggota ({}), chunk {} baris.", contentType, chunkSize);
+
+        BulkImportReport report = new BulkImportReport(maxErrors);
+        List<BulkRow<AnggotaRequest>> chunk = new ArrayList<>(chunkSize);
+        try (BulkRowReader<AnggotaRequest> reader = BulkRowReader.open(body, contentType, AnggotaRequest.class, objectMapper)) {
+            BulkRow<AnggotaRequest> row;
+            while ((row = reader.next()) != null) {
+                report.read();
+                String error = row.error() != null ? row.error() : validate(row.value());
+                if (error != null) {
+                    report.reject(row.line(), row.value() != null ? row.value().getNomorAnggota() : null, error);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, report);
+        }
+
+        BulkImportResponse response = report.toResponse();
+        logger.info("SELESAI IMPORT: {} baris dibaca, {} tersimpan, {} ditolak.",
+            response.getTotal(), response.getImported(), response.getFailed());
+        return response;
+    }
+
+    private void importChunk(List<BulkRow<AnggotaRequest>> chunk, BulkImportReport report) {
+        List<BulkRow<AnggotaRequest>> accepted = withoutConflicts(chunk, report);
+        if (accepted.isEmpty()) {
+            return;
+        }
+        try {
+            commandHandler.handle(new ImportAnggotaCommand(accepted.stream().map(row -> toCommand(row.value())).toList()));
+            report.imported(accepted.size());
+        } catch (DataIntegrityViolationException e) {
+            // Bentrok dengan create lain setelah probe, atau baris yang ditolak DB: transaksi chunk
+            // sudah di-rollback, jadi chunk diulang per baris supaya hanya baris bermasalah yang gagal.
+            logger.warn("GAGAL IMPORT: Chunk {} baris ditolak DB, diulang per baris.", accepted.size());
+            for (BulkRow<AnggotaRequest> row : accepted) {
+                try {
+                    commandHandler.handle(toCommand(row.value()));
+                    report.imported(1);
+                } catch (IllegalArgumentException rowError) {
+                    report.reject(row.line(), row.value().getNomorAnggota(), rowError.getMessage());
+                } catch (DataIntegrityViolationException rowError) {
+                    report.reject(row.line(), row.value().getNomorAnggota(), "Data ditolak database.");
+                }
+            }
+        }
+    }
+
+    /** Menolak nomor anggota/email yang dobel di dalam chunk atau sudah ada di Write DB (satu query). */
+    private List<BulkRow<AnggotaRequest>> withoutConflicts(List<BulkRow<AnggotaRequest>> chunk, BulkImportReport report) {
+        Set<String> nomor = new HashSet<>();
+        Set<String> email = new HashSet<>();
+        List<BulkRow<AnggotaRequest>> unique = new ArrayList<>(chunk.size());
+        for (BulkRow<AnggotaRequest> row : chunk) {
+            AnggotaRequest request = row.value();
+            if (nomor.contains(request.getNomorAnggota())) {
+                report.reject(row.line(), request.getNomorAnggota(),
+                    "Nomor anggota " + request.getNomorAnggota() + " muncul lebih dari sekali dalam file.");
+            } else if (email.contains(request.getEmail())) {
+                report.reject(row.line(), request.getNomorAnggota(),
+                    "Email " + request.getEmail() + " muncul lebih dari sekali dalam file.");
+            } else {
+                nomor.add(request.getNomorAnggota());
+                email.add(request.getEmail());
+                unique.add(row);
+            }
+        }
+
+        Set<String> nomorTerpakai = new HashSet<>();
+        Set<String> emailTerpakai = new HashSet<>();
+        for (AnggotaWriteModel existing : anggotaRepository.findByNomorAnggotaInOrEmailIn(nomor, email)) {
+            nomorTerpakai.add(existing.getNomorAnggota());
+            emailTerpakai.add(existing.getEmail());
+        }
+        if (nomorTerpakai.isEmpty()) {
+            return unique;
+        }
+
+        List<BulkRow<AnggotaRequest>> accepted = new ArrayList<>(unique.size());
+        for (BulkRow<AnggotaRequest> row : unique) {
+            AnggotaRequest request = row.value();
+            if (nomorTerpakai.contains(request.getNomorAnggota())) {
+                report.reject(row.line(), request.getNomorAnggota(), "Nomor anggota " + request.getNomorAnggota() + " sudah digunakan.");
+            } else if (emailTerpakai.contains(request.getEmail())) {
+                report.reject(row.line(), request.getNomorAnggota(), "Email " + request.getEmail() + " sudah digunakan.");
+            } else {
+                accepted.add(row);
+            }
+        }
+        return accepted;
+    }
+
+    private String validate(AnggotaRequest request) {
+        if (request == null) {
+            return "Baris tidak berisi data anggota.";
+        }
+        Set<ConstraintViolation<AnggotaRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(ConstraintViolation::getMessage)
+            .sorted()
+            .collect(Collectors.joining("; "));
+    }
+
+    private static CreateAnggotaCommand toCommand(AnggotaRequest request) {
+        return new CreateAnggotaCommand(request.getNomorAnggota(), request.getNama(), request.getAlamat(),
+            request.getEmail());
+    }
+}
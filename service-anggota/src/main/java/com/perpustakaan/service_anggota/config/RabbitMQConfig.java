@@ -1,11 +1,13 @@
 package com.perpustakaan.service_anggota.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -21,6 +23,15 @@ public class RabbitMQConfig {
     @Value("${perpustakaan.rabbitmq.routing-key}")
     private String routingKey;
 
+    @Value("${perpustakaan.cache.invalidation-exchange}")
+    private String cacheInvalidationExchangeName;
+
+    @Value("${perpustakaan.projection.batch-size:100}")
+    private int projectionBatchSize;
+
+    @Value("${perpustakaan.projection.batch-timeout-ms:50}")
+    private long projectionBatchTimeoutMs;
+
     @Bean
     public Queue queue() {
         return new Queue(queueName, true);
@@ -36,6 +47,12 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(queue).to(exchange).with(routingKey);
     }
 
+    // Hint invalidasi untuk response cache di api-gateway
+    @Bean
+    public FanoutExchange cacheInvalidationExchange() {
+        return new FanoutExchange(cacheInvalidationExchangeName);
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -47,4 +64,19 @@ public class RabbitMQConfig {
         template.setMessageConverter(jsonMessageConverter());
         return template;
     }
+
+    // Consumer batch untuk projection: batch dikirim ke listener saat berisi
+    // projectionBatchSize pesan, atau saat tidak ada pesan baru selama projectionBatchTimeoutMs.
+    @Bean
+    public SimpleRabbitListenerContainerFactory projectionBatchContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(projectionBatchSize);
+        factory.setReceiveTimeout(projectionBatchTimeoutMs);
+        factory.setPrefetchCount(Math.max(projectionBatchSize, 250));
+        return factory;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.perpustakaan.service_anggota.config;
+
+import com.perpustakaan.service_anggota.entity.query.AnggotaReadModel;
+import com.perpustakaan.service_anggota.entity.query.ProjectionTombstone;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Index read model untuk keyset pagination (sortKey, _id).
+ * Dibuat di background setelah aplikasi siap supaya startup tidak menunggu MongoDB.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ReadModelIndexConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadModelIndexConfig.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        CompletableFuture.runAsync(() -> {
+            IndexOperations indexOps = mongoTemplate.indexOps(AnggotaReadModel.class);
+            indexOps.ensureIndex(new Index().on("nama", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("nama_id"));
+            indexOps.ensureIndex(new Index().on("nomorAnggota", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("nomorAnggota_id"));
+            // TTL: tombstone hanya perlu hidup selama event usang masih mungkin di-redeliver
+            mongoTemplate.indexOps(ProjectionTombstone.class).ensureIndex(new Index().on("deletedAt", Sort.Direction.ASC)
+                    .expire(Duration.ofDays(7)).named("deletedAt_ttl"));
+            logger.info("INDEX READY: anggota_read (sortKey, _id)");
+        }).exceptionally(e -> {
+            logger.warn("INDEX ERROR: Gagal membuat index anggota_read, akan dicoba lagi saat restart: {}", e.getMessage());
+            return null;
+        });
+    }
+}
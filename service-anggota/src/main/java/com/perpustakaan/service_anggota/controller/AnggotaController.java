@@ -1,23 +1,31 @@
 package com.perpustakaan.service_anggota.controller;
 
+import com.perpustakaan.service_anggota.bulk.AnggotaBulkImporter;
 import com.perpustakaan.service_anggota.cqrs.command.*;
 import com.perpustakaan.service_anggota.cqrs.handler.*;
 import com.perpustakaan.service_anggota.cqrs.query.*;
+import com.perpustakaan.service_anggota.dto.AnggotaBatchResponse;
 import com.perpustakaan.service_anggota.dto.AnggotaRequest;
+import com.perpustakaan.service_anggota.dto.BulkImportResponse;
+import com.perpustakaan.service_anggota.dto.CursorPage;
 import com.perpustakaan.service_anggota.entity.command.AnggotaWriteModel;
 import com.perpustakaan.service_anggota.entity.query.AnggotaReadModel;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -30,6 +38,7 @@ public class AnggotaController {
 
     private final AnggotaCommandHandler commandHandler;
     private final AnggotaQueryHandler queryHandler;
+    private final AnggotaBulkImporter bulkImporter;
 
     @PostMapping
     @Operation(summary = "Daftarkan Anggota Baru", description = "Membuat data anggota baru di sistem. Nomor anggota dan Email harus unik.")
@@ -40,35 +49,87 @@ public class AnggotaController {
             request.getNomorAnggota(), request.getNama(), request.getAlamat(), request.getEmail()
         );
         AnggotaWriteModel saved = commandHandler.handle(command);
-        return new ResponseEntity<>(saved, HttpStatus.CREATED);
+        return ConsistencyTokens.withToken(HttpStatus.CREATED, saved, saved.getVersion());
+    }
+
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, AnggotaBulkImporter.TEXT_CSV_VALUE})
+    @Operation(summary = "Import Anggota Massal", description = "Body streaming NDJSON (satu objek anggota per baris) atau CSV (baris pertama header: nomorAnggota,nama,alamat,email). Disimpan per chunk; baris yang gagal validasi atau bentrok dilaporkan di 'errors' tanpa membatalkan baris lain.")
+    public ResponseEntity<BulkImportResponse> importAnggota(HttpServletRequest request) throws IOException {
+        logger.info("API REQUEST: Bulk Import Anggota - Content-Type: [{}]", request.getContentType());
+
+        BulkImportResponse response = bulkImporter.importFrom(request.getInputStream(),
+            MediaType.parseMediaType(request.getContentType()));
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Cari Anggota via ID", description = "Mengambil data detail anggota berdasarkan UUID dari Read Model (MongoDB).")
-    public ResponseEntity<AnggotaReadModel> getAnggotaById(@PathVariable("id") UUID id) {
-        logger.debug("API REQUEST: Get Anggota By ID [{}]", id);
+    @Operation(summary = "Cari Anggota via ID", description = "Mengambil data detail anggota berdasarkan UUID dari Read Model (MongoDB). minVersion (header X-Consistency-Token dari response create/update) menunggu sebentar sampai Read Model menyusul; 503 jika belum.")
+    public ResponseEntity<AnggotaReadModel> getAnggotaById(
+            @PathVariable("id") UUID id,
+            @RequestParam(required = false) Long minVersion) {
+        logger.debug("API REQUEST: Get Anggota By ID [{}], minVersion: {}", id, minVersion);
         
-        GetAnggotaByIdQuery query = new GetAnggotaByIdQuery(id.toString());
+        GetAnggotaByIdQuery query = new GetAnggotaByIdQuery(id.toString(), minVersion);
         try {
             AnggotaReadModel anggota = queryHandler.handle(query);
-            return ResponseEntity.ok(anggota);
+            if (ConsistencyTokens.isBehind(anggota.getVersion(), minVersion)) {
+                logger.warn("API RESPONSE: Anggota ID [{}] belum mencapai versi {} di Read Model.", id, minVersion);
+                return ConsistencyTokens.notYetProjected();
+            }
+            return ETags.single(anggota, anggota.getVersion(), anggota.getUpdatedAt());
         } catch (RuntimeException e) {
+            if (minVersion != null) {
+                logger.warn("API RESPONSE: Anggota ID [{}] belum ada di Read Model (minVersion {}).", id, minVersion);
+                return ConsistencyTokens.notYetProjected();
+            }
             logger.warn("API RESPONSE: Anggota ID [{}] tidak ditemukan.", id);
             return ResponseEntity.notFound().build();
         }
     }
 
     @GetMapping
-    @Operation(summary = "Lihat Semua Anggota (Paging)", description = "Menampilkan daftar anggota dengan fitur pagination.")
-    public ResponseEntity<Page<AnggotaReadModel>> getAllAnggota(
+    @Operation(summary = "Lihat Semua Anggota (Paging)", description = "Menampilkan daftar anggota dengan fitur pagination. Kirim parameter after (boleh kosong untuk halaman pertama) untuk keyset pagination tanpa total count; sortBy: id, nama, nomorAnggota.")
+    public ResponseEntity<?> getAllAnggota(
             @RequestParam(defaultValue = "0") Integer page,
             @RequestParam(defaultValue = "10") Integer size,
-            @RequestParam(defaultValue = "id") String sortBy) {
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(required = false) String after) {
         
+        if (after != null) {
+            logger.debug("API REQUEST: Get All Anggota (cursor) - After: [{}], Size: {}", after, size);
+            try {
+                CursorPage<AnggotaReadModel> cursorPage = queryHandler.handle(new GetAnggotaCursorQuery(after, size, sortBy));
+                return ETags.list(cursorPage, cursorPage.getItems(), AnggotaController::fingerprint, cursorPage.getNextCursor());
+            } catch (IllegalArgumentException e) {
+                logger.warn("API BAD REQUEST: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        }
         logger.debug("API REQUEST: Get All Anggota - Page: {}, Size: {}", page, size);
         GetAllAnggotaQuery query = new GetAllAnggotaQuery(page, size, sortBy);
         Page<AnggotaReadModel> anggotaPage = queryHandler.handle(query);
-        return ResponseEntity.ok(anggotaPage);
+        return ETags.list(anggotaPage, anggotaPage.getContent(), AnggotaController::fingerprint,
+                anggotaPage.getNumber(), anggotaPage.getSize(), anggotaPage.getTotalElements());
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Multi-get Anggota", description = "Mengambil banyak anggota sekaligus (satu query $in). Parameter by=id|nomor menentukan isi body. Hasil urut sesuai request, ID yang tidak ada dicantumkan di 'missing'.")
+    public ResponseEntity<AnggotaBatchResponse> getAnggotaBatch(
+            @RequestBody List<String> ids,
+            @RequestParam(defaultValue = "id") String by) {
+        logger.debug("API REQUEST: Get Anggota Batch - {} key, by: {}", ids.size(), by);
+
+        if (!"id".equals(by) && !"nomor".equals(by)) {
+            logger.warn("API BAD REQUEST: Parameter by tidak dikenal [{}]", by);
+            return ResponseEntity.badRequest().build();
+        }
+        GetAnggotaByIdsQuery query = new GetAnggotaByIdsQuery(ids, "nomor".equals(by));
+        try {
+            return ResponseEntity.ok(queryHandler.handle(query));
+        } catch (IllegalArgumentException e) {
+            logger.warn("API BAD REQUEST: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PutMapping("/{id}")
@@ -81,7 +142,7 @@ public class AnggotaController {
         );
         try {
             AnggotaWriteModel updated = commandHandler.handle(command);
-            return ResponseEntity.ok(updated);
+            return ConsistencyTokens.withToken(HttpStatus.OK, updated, updated.getVersion());
         } catch (IllegalArgumentException e) {
             // Log sudah ditangani di Handler, controller hanya meneruskan status
             return ResponseEntity.notFound().build();
@@ -101,4 +162,8 @@ public class AnggotaController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    private static String fingerprint(AnggotaReadModel anggota) {
+        return ETags.fingerprint(anggota.getId(), anggota.getVersion());
+    }
 }
\ No newline at end of file
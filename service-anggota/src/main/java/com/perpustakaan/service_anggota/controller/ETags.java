@@ -0,0 +1,50 @@
+package com.perpustakaan.service_anggota.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Validator HTTP (ETag / Last-Modified) untuk endpoint GET. Nilainya diturunkan dari versi
+ * Read Model, bukan dari body, sehingga If-None-Match / If-Modified-Since dijawab 304 oleh
+ * HttpEntityMethodProcessor tanpa serialisasi response.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /** Satu dokumen: ETag = versi write model, Last-Modified = updatedAt. */
+    static <T> ResponseEntity<T> single(T body, Long version, Instant updatedAt) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (version != null) {
+            builder.eTag(String.valueOf(version));
+        }
+        if (updatedAt != null) {
+            builder.lastModified(updatedAt);
+        }
+        return builder.body(body);
+    }
+
+    /**
+     * Daftar / halaman: ETag = md5 dari metadata halaman dan sidik setiap item (biasanya id:versi).
+     * Tanpa Last-Modified, karena item yang dihapus tidak menaikkan updatedAt item lain.
+     */
+    static <T, I> ResponseEntity<T> list(T body, Collection<I> items, Function<I, String> fingerprint, Object... meta) {
+        StringBuilder source = new StringBuilder();
+        for (Object value : meta) {
+            source.append(value).append('|');
+        }
+        items.forEach(item -> source.append(fingerprint.apply(item)).append(';'));
+        String etag = DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8));
+        return ResponseEntity.ok().eTag(etag).body(body);
+    }
+
+    static String fingerprint(String id, Long version) {
+        return id + ":" + version;
+    }
+}
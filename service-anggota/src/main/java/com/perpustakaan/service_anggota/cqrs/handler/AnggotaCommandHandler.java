@@ -5,14 +5,16 @@ import com.perpustakaan.service_anggota.entity.command.AnggotaWriteModel;
 import com.perpustakaan.service_anggota.event.*;
 import com.perpustakaan.service_anggota.repository.command.AnggotaCommandRepository;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @Component
@@ -22,42 +24,57 @@ public class AnggotaCommandHandler {
     private static final Logger logger = LoggerFactory.getLogger(AnggotaCommandHandler.class);
     
     private final AnggotaCommandRepository anggotaRepository;
-    private final RabbitTemplate rabbitTemplate;
-
-    @Value("${perpustakaan.rabbitmq.exchange}")
-    private String exchange;
-
-    @Value("${perpustakaan.rabbitmq.routing-key}")
-    private String routingKey;
+    private final OutboxWriter outboxWriter;
 
     @Transactional
     public AnggotaWriteModel handle(CreateAnggotaCommand command) {
         logger.info("PROSES CREATE: Memulai pendaftaran anggota baru. Nomor: [{}], Email: [{}]", 
             command.getNomorAnggota(), command.getEmail());
 
-        if (anggotaRepository.existsByNomorAnggota(command.getNomorAnggota())) {
-            logger.warn("GAGAL CREATE: Nomor anggota [{}] sudah terdaftar di sistem.", command.getNomorAnggota());
-            throw new IllegalArgumentException("Nomor anggota " + command.getNomorAnggota() + " sudah digunakan.");
-        }
-
-        if (anggotaRepository.existsByEmail(command.getEmail())) {
-            logger.warn("GAGAL CREATE: Email [{}] sudah terdaftar di sistem.", command.getEmail());
-            throw new IllegalArgumentException("Email " + command.getEmail() + " sudah digunakan.");
-        }
-        
         AnggotaWriteModel anggota = new AnggotaWriteModel();
         anggota.setNomorAnggota(command.getNomorAnggota());
         anggota.setNama(command.getNama());
         anggota.setAlamat(command.getAlamat());
         anggota.setEmail(command.getEmail());
 
-        AnggotaWriteModel saved = anggotaRepository.save(anggota);
+        anggota.setUpdatedAt(Instant.now());
+        // saveAndFlush supaya @Version sudah naik saat event dibuat
+        AnggotaWriteModel saved = saveUnique(anggota, "GAGAL CREATE",
+            "Nomor anggota " + command.getNomorAnggota() + " sudah digunakan.",
+            "Email " + command.getEmail() + " sudah digunakan.");
         logger.info("SUKSES CREATE: Anggota berhasil disimpan ke Database Write (H2). ID: [{}]", saved.getId());
         
         publishAnggotaCreatedEvent(saved);
         return saved;
     }
     
+    /**
+     * Menyimpan satu chunk bulk import dalam satu transaksi: insert di-batch JDBC dan hanya
+     * satu baris outbox (AnggotaImportedEvent) untuk seluruh chunk. Pelanggaran unique constraint
+     * dilempar apa adanya; AnggotaBulkImporter yang mengulang chunk itu per baris.
+     */
+    @Transactional
+    public List<AnggotaWriteModel> handle(ImportAnggotaCommand command) {
+        logger.info("PROSES IMPORT: Mendaftarkan {} anggota dalam satu batch.", command.getRows().size());
+
+        Instant now = Instant.now();
+        List<AnggotaWriteModel> rows = command.getRows().stream().map(row -> {
+            AnggotaWriteModel anggota = new AnggotaWriteModel();
+            anggota.setNomorAnggota(row.getNomorAnggota());
+            anggota.setNama(row.getNama());
+            anggota.setAlamat(row.getAlamat());
+            anggota.setEmail(row.getEmail());
+            anggota.setUpdatedAt(now);
+            return anggota;
+        }).toList();
+
+        List<AnggotaWriteModel> saved = anggotaRepository.saveAllAndFlush(rows);
+        logger.info("SUKSES IMPORT: {} anggota disimpan ke Database Write (H2).", saved.size());
+
+        publishAnggotaImportedEvent(saved, now);
+        return saved;
+    }
+
     @Transactional
     public AnggotaWriteModel handle(UpdateAnggotaCommand command) {
         logger.info("PROSES UPDATE: Memulai update anggota ID: [{}]", command.getId());
@@ -68,25 +85,17 @@ public class AnggotaCommandHandler {
                     return new IllegalArgumentException("Anggota tidak ditemukan dengan ID: " + command.getId());
                 });
 
-        Optional<AnggotaWriteModel> existingNomor = anggotaRepository.findByNomorAnggota(command.getNomorAnggota());
-        if (existingNomor.isPresent() && !existingNomor.get().getId().equals(command.getId())) {
-            logger.warn("GAGAL UPDATE: Konflik Nomor Anggota [{}]. Sudah digunakan oleh ID lain.", command.getNomorAnggota());
-            throw new IllegalArgumentException("Nomor anggota sudah digunakan oleh pengguna lain.");
-        }
-
-        Optional<AnggotaWriteModel> existingEmail = anggotaRepository.findByEmail(command.getEmail());
-        if (existingEmail.isPresent() && !existingEmail.get().getId().equals(command.getId())) {
-            logger.warn("GAGAL UPDATE: Konflik Email [{}]. Sudah digunakan oleh ID lain.", command.getEmail());
-            throw new IllegalArgumentException("Email sudah digunakan oleh pengguna lain.");
-        }
-
         // Update Data
         anggota.setNomorAnggota(command.getNomorAnggota());
         anggota.setNama(command.getNama());
         anggota.setAlamat(command.getAlamat());
         anggota.setEmail(command.getEmail());
         
-        AnggotaWriteModel updated = anggotaRepository.save(anggota);
+        anggota.setUpdatedAt(Instant.now());
+        // saveAndFlush supaya @Version sudah naik saat event dibuat
+        AnggotaWriteModel updated = saveUnique(anggota, "GAGAL UPDATE",
+            "Nomor anggota sudah digunakan oleh pengguna lain.",
+            "Email sudah digunakan oleh pengguna lain.");
         logger.info("SUKSES UPDATE: Data anggota ID [{}] berhasil diperbarui di Database Write.", updated.getId());
 
         publishAnggotaUpdatedEvent(updated);
@@ -108,45 +117,80 @@ public class AnggotaCommandHandler {
         publishAnggotaDeletedEvent(command.getId());
     }
 
-    private void publishAnggotaCreatedEvent(AnggotaWriteModel anggota) {
+    // Keunikan nomor anggota dan email dijaga unique constraint di H2, tanpa query exists sebelum
+    // simpan; constraint yang dilanggar dipetakan ke pesan error yang sama seperti sebelumnya.
+    private AnggotaWriteModel saveUnique(AnggotaWriteModel anggota, String gagal,
+                                         String nomorTerpakai, String emailTerpakai) {
         try {
-            AnggotaCreatedEvent event = new AnggotaCreatedEvent(
-                anggota.getId(),
-                anggota.getNomorAnggota(),
-                anggota.getNama(),
-                anggota.getAlamat(),
-                anggota.getEmail()
-            );
-            rabbitTemplate.convertAndSend(exchange, routingKey, event);
-            logger.info("EVENT PUBLISHED: AnggotaCreatedEvent dikirim ke RabbitMQ untuk ID [{}]", anggota.getId());
-        } catch (Exception e) {
-            logger.error("EVENT ERROR: Gagal mengirim AnggotaCreatedEvent ke RabbitMQ. Error: {}", e.getMessage());
+            return anggotaRepository.saveAndFlush(anggota);
+        } catch (DataIntegrityViolationException e) {
+            String constraint = violatedConstraint(e);
+            if (constraint.contains(AnggotaWriteModel.UK_NOMOR_ANGGOTA)) {
+                logger.warn("{}: Nomor anggota [{}] sudah terdaftar di sistem.", gagal, anggota.getNomorAnggota());
+                throw new IllegalArgumentException(nomorTerpakai);
+            }
+            if (constraint.contains(AnggotaWriteModel.UK_EMAIL)) {
+                logger.warn("{}: Email [{}] sudah terdaftar di sistem.", gagal, anggota.getEmail());
+                throw new IllegalArgumentException(emailTerpakai);
+            }
+            throw e;
+        }
+    }
+
+    private static String violatedConstraint(DataIntegrityViolationException e) {
+        if (e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+            return violation.getConstraintName().toLowerCase(Locale.ROOT);
         }
+        return "";
+    }
+
+    // Event dicatat ke outbox dalam transaksi yang sama; OutboxRelay yang mengirim ke RabbitMQ.
+    private void publishAnggotaCreatedEvent(AnggotaWriteModel anggota) {
+        AnggotaCreatedEvent event = new AnggotaCreatedEvent(
+            anggota.getId(),
+            anggota.getNomorAnggota(),
+            anggota.getNama(),
+            anggota.getAlamat(),
+            anggota.getEmail(),
+            anggota.getVersion(),
+            anggota.getUpdatedAt()
+        );
+        outboxWriter.append(anggota.getId(), event);
+        logger.info("EVENT QUEUED: AnggotaCreatedEvent dicatat ke outbox untuk ID [{}]", anggota.getId());
     }
     
     private void publishAnggotaUpdatedEvent(AnggotaWriteModel anggota) {
-        try {
-            AnggotaUpdatedEvent event = new AnggotaUpdatedEvent(
+        AnggotaUpdatedEvent event = new AnggotaUpdatedEvent(
+            anggota.getId(),
+            anggota.getNomorAnggota(),
+            anggota.getNama(),
+            anggota.getAlamat(),
+            anggota.getEmail(),
+            anggota.getVersion(),
+            anggota.getUpdatedAt()
+        );
+        outboxWriter.append(anggota.getId(), event);
+        logger.info("EVENT QUEUED: AnggotaUpdatedEvent dicatat ke outbox untuk ID [{}]", anggota.getId());
+    }
+    
+    private void publishAnggotaImportedEvent(List<AnggotaWriteModel> saved, Instant updatedAt) {
+        List<AnggotaImportedEvent.Item> items = saved.stream()
+            .map(anggota -> new AnggotaImportedEvent.Item(
                 anggota.getId(),
                 anggota.getNomorAnggota(),
                 anggota.getNama(),
                 anggota.getAlamat(),
-                anggota.getEmail()
-            );
-            rabbitTemplate.convertAndSend(exchange, routingKey, event);
-            logger.info("EVENT PUBLISHED: AnggotaUpdatedEvent dikirim ke RabbitMQ untuk ID [{}]", anggota.getId());
-        } catch (Exception e) {
-            logger.error("EVENT ERROR: Gagal mengirim AnggotaUpdatedEvent. Error: {}", e.getMessage());
-        }
+                anggota.getEmail()))
+            .toList();
+        // Semua anggota di chunk baru dibuat, jadi versinya sama
+        AnggotaImportedEvent event = new AnggotaImportedEvent(items, saved.get(0).getVersion(), updatedAt);
+        outboxWriter.append(saved.get(0).getId(), event);
+        logger.info("EVENT QUEUED: AnggotaImportedEvent ({} anggota) dicatat ke outbox", items.size());
     }
-    
+
     private void publishAnggotaDeletedEvent(UUID id) {
-        try {
-            AnggotaDeletedEvent event = new AnggotaDeletedEvent(id);
-            rabbitTemplate.convertAndSend(exchange, routingKey, event);
-            logger.info("EVENT PUBLISHED: AnggotaDeletedEvent dikirim ke RabbitMQ untuk ID [{}]", id);
-        } catch (Exception e) {
-            logger.error("EVENT ERROR: Gagal mengirim AnggotaDeletedEvent. Error: {}", e.getMessage());
-        }
+        AnggotaDeletedEvent event = new AnggotaDeletedEvent(id);
+        outboxWriter.append(id, event);
+        logger.info("EVENT QUEUED: AnggotaDeletedEvent dicatat ke outbox untuk ID [{}]", id);
     }
 }
\ No newline at end of file
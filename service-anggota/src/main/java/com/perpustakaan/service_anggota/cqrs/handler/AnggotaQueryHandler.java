@@ -1,28 +1,65 @@
 package com.perpustakaan.service_anggota.cqrs.handler;
 
 import com.perpustakaan.service_anggota.cqrs.query.*;
+import com.perpustakaan.service_anggota.dto.AnggotaBatchResponse;
+import com.perpustakaan.service_anggota.dto.CursorPage;
 import com.perpustakaan.service_anggota.entity.query.AnggotaReadModel;
+import com.perpustakaan.service_anggota.event.ProjectionProgress;
 import com.perpustakaan.service_anggota.repository.query.AnggotaQueryRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
 @Component
 public class AnggotaQueryHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(AnggotaQueryHandler.class);
+
+    // Hanya sort key yang punya index (sortKey, _id) di read model
+    private static final Map<String, Function<AnggotaReadModel, String>> CURSOR_SORT_KEYS = Map.of(
+        "id", AnggotaReadModel::getId,
+        "nama", AnggotaReadModel::getNama,
+        "nomorAnggota", AnggotaReadModel::getNomorAnggota);
     
     @Autowired
     private AnggotaQueryRepository anggotaRepository; // Mongo Repository
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProjectionProgress projectionProgress;
+
+    @Value("${perpustakaan.query.cursor-max-size:200}")
+    private int maxCursorSize;
+
+    @Value("${perpustakaan.query.batch-max-ids:5000}")
+    private int maxBatchIds;
     
     // Hapus @Transactional karena ini MongoDB (Atomic operations)
     public AnggotaReadModel handle(GetAnggotaByIdQuery query) {
         logger.debug("Handling GetAnggotaByIdQuery for ID: {}", query.getId());
         
+        if (query.getMinVersion() != null) {
+            AnggotaReadModel anggota = projectionProgress.awaitVersion(
+                    () -> anggotaRepository.findById(query.getId()).orElse(null), AnggotaReadModel::getVersion, query.getMinVersion());
+            if (anggota != null) {
+                return anggota;
+            }
+        }
         return anggotaRepository.findById(query.getId())
                 .orElseThrow(() -> new RuntimeException("Anggota tidak ditemukan dengan ID: " + query.getId()));
     }
@@ -38,9 +75,49 @@ public class AnggotaQueryHandler {
         
         return anggotaRepository.findAll(pageRequest);
     }
+
+    public CursorPage<AnggotaReadModel> handle(GetAnggotaCursorQuery query) {
+        KeysetCursor.Position after = KeysetCursor.decode(query.getAfter());
+        String sortBy = after != null ? after.sortBy() : query.getSortBy();
+        logger.debug("Handling GetAnggotaCursorQuery - sortBy: {}, size: {}, after: {}", sortBy, query.getSize(), after);
+        List<AnggotaReadModel> rows = mongoTemplate.find(
+            KeysetCursor.seek(sortBy, CURSOR_SORT_KEYS, after, query.getSize(), maxCursorSize), AnggotaReadModel.class);
+        return KeysetCursor.page(rows, query.getSize(), sortBy, CURSOR_SORT_KEYS);
+    }
     
     public AnggotaReadModel handle(GetAnggotaByNomorQuery query) {
         logger.debug("Handling GetAnggotaByNomorQuery for nomor: {}", query.getNomorAnggota());
         return anggotaRepository.findByNomorAnggota(query.getNomorAnggota());
     }
+
+    public AnggotaBatchResponse handle(GetAnggotaByIdsQuery query) {
+        List<String> keys = query.getIds().stream()
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+        if (keys.size() > maxBatchIds) {
+            throw new IllegalArgumentException("Maksimal " + maxBatchIds + " ID per request, diterima: " + keys.size());
+        }
+        logger.debug("Handling GetAnggotaByIdsQuery for {} keys (byNomor: {})", keys.size(), query.isByNomor());
+
+        // Satu query $in, lalu disusun ulang mengikuti urutan request
+        List<AnggotaReadModel> found = query.isByNomor()
+            ? anggotaRepository.findByNomorAnggotaIn(keys)
+            : anggotaRepository.findAllById(keys);
+        Function<AnggotaReadModel, String> keyOf = query.isByNomor() ? AnggotaReadModel::getNomorAnggota : AnggotaReadModel::getId;
+        Map<String, AnggotaReadModel> byKey = new HashMap<>();
+        found.forEach(model -> byKey.putIfAbsent(keyOf.apply(model), model));
+
+        List<AnggotaReadModel> items = new ArrayList<>(byKey.size());
+        List<String> missing = new ArrayList<>();
+        for (String key : keys) {
+            AnggotaReadModel model = byKey.get(key);
+            if (model != null) {
+                items.add(model);
+            } else {
+                missing.add(key);
+            }
+        }
+        return new AnggotaBatchResponse(items, missing);
+    }
 }
\ No newline at end of file
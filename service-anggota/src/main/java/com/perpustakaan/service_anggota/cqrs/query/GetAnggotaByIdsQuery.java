@@ -0,0 +1,15 @@
+package com.perpustakaan.service_anggota.cqrs.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GetAnggotaByIdsQuery {
+    private List<String> ids;
+    private boolean byNomor; // true: ids berisi nomor anggota, bukan UUID
+}
@@ -0,0 +1,22 @@
+package com.perpustakaan.service_anggota.dto;
+
+import com.perpustakaan.service_anggota.entity.query.AnggotaReadModel;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Hasil multi-get anggota, urut sesuai request")
+public class AnggotaBatchResponse {
+
+    @Schema(description = "Data yang ditemukan, urut sesuai urutan ID pada request")
+    private List<AnggotaReadModel> items;
+
+    @Schema(description = "ID/kode dari request yang tidak ditemukan di Read Model")
+    private List<String> missing;
+}
@@ -0,0 +1,23 @@
+package com.perpustakaan.service_anggota.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Halaman hasil keyset pagination (tanpa total count)")
+public class CursorPage<T> {
+
+    @Schema(description = "Data pada halaman ini")
+    private List<T> items;
+
+    @Schema(description = "Cursor untuk halaman berikutnya (kirim sebagai ?after=). Kosong jika sudah halaman terakhir.")
+    private String nextCursor;
+
+    private int size;
+}
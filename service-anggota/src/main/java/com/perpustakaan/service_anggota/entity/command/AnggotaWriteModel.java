@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import java.time.Instant;
 import java.util.UUID;
 
 @Entity
@@ -12,15 +13,23 @@ import java.util.UUID;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "anggota")
+@Table(name = "anggota", uniqueConstraints = {
+        @UniqueConstraint(name = AnggotaWriteModel.UK_NOMOR_ANGGOTA, columnNames = "nomor_anggota"),
+        @UniqueConstraint(name = AnggotaWriteModel.UK_EMAIL, columnNames = "email")
+})
 public class AnggotaWriteModel {
 
+    // Nama constraint dipakai AnggotaCommandHandler untuk memetakan pelanggaran ke pesan error
+    public static final String UK_NOMOR_ANGGOTA = "uk_anggota_nomor_anggota";
+    public static final String UK_EMAIL = "uk_anggota_email";
+
+    // UUID dibuat di aplikasi (assignId) sebelum persist; id tidak bergantung pada generator
+    // Hibernate, sehingga insert massal tinggal di-batch JDBC (hibernate.jdbc.batch_size)
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     @Column(name = "id", updatable = false, nullable = false)
     private UUID id;
 
-    @Column(name = "nomor_anggota", unique = true, nullable = false)
+    @Column(name = "nomor_anggota", nullable = false)
     private String nomorAnggota;
 
     @Column(nullable = false)
@@ -28,6 +37,21 @@ public class AnggotaWriteModel {
 
     private String alamat;
 
-    @Column(unique = true)
+    @Column(name = "email")
     private String email;
-}
\ No newline at end of file
+
+    // Dinaikkan JPA di setiap update; ikut dikirim di event sebagai versi Read Model
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    @PrePersist
+    void assignId() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
 
 @Document(collection = "anggota_read")
 @Data
@@ -19,4 +20,8 @@ public class AnggotaReadModel {
     private String nama;
     private String alamat;
     private String email;
-}
\ No newline at end of file
+
+    // Versi write model terakhir yang diproyeksikan; dasar ETag / Last-Modified
+    private Long version;
+    private Instant updatedAt;
+}
@@ -0,0 +1,31 @@
+package com.perpustakaan.service_anggota.entity.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Penanda dokumen Read Model yang sudah dihapus ("<collection>:<id>"), supaya event Created/Updated
+ * usang yang datang di batch berikutnya tidak menghidupkan dokumen itu lagi (lihat ProjectionBatch).
+ * Kedaluwarsa otomatis lewat TTL index deletedAt_ttl (ReadModelIndexConfig); redelivery selama
+ * itu sudah lama habis.
+ */
+@Document(collection = "projection_tombstones")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectionTombstone {
+
+    @Id
+    private String id;
+
+    private Instant deletedAt;
+
+    public static String idOf(String collection, String id) {
+        return collection + ":" + id;
+    }
+}
@@ -1,66 +1,99 @@
 package com.perpustakaan.service_anggota.event;
 
 import com.perpustakaan.service_anggota.entity.query.AnggotaReadModel;
-import com.perpustakaan.service_anggota.repository.query.AnggotaQueryRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.annotation.RabbitHandler;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 @Component
-@RabbitListener(queues = "${perpustakaan.rabbitmq.queue}")
 @RequiredArgsConstructor
 public class AnggotaEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(AnggotaEventListener.class);
-    private final AnggotaQueryRepository queryRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MessageConverter messageConverter;
+    private final ProjectionProgress projectionProgress;
+    private final CacheInvalidationPublisher cacheInvalidationPublisher;
 
-    @RabbitHandler
-    public void handleCreatedEvent(AnggotaCreatedEvent event) {
-        String idString = event.getId().toString();
-        logger.info("RabbitMQ Receiver: Create Anggota ID {}", idString);
-        
-        AnggotaReadModel model = new AnggotaReadModel();
-        model.setId(idString);
-        model.setNomorAnggota(event.getNomorAnggota());
-        model.setNama(event.getNama());
-        model.setAlamat(event.getAlamat());
-        model.setEmail(event.getEmail());
-        
-        queryRepository.save(model);
-        logger.info("RabbitMQ Receiver: Saved to MongoDB ID {}", idString);
-    }
+    /**
+     * Menerima event dalam batch (lihat projectionBatchContainerFactory), menggabungkan
+     * event per ID anggota, lalu menerapkannya ke Read Model dengan satu bulkWrite.
+     */
+    @RabbitListener(queues = "${perpustakaan.rabbitmq.queue}", containerFactory = "projectionBatchContainerFactory")
+    public void handleBatch(List<Message> messages) {
+        ProjectionBatch<AnggotaReadModel> batch = new ProjectionBatch<>(AnggotaReadModel.class, AnggotaReadModel::getVersion);
 
-    @RabbitHandler
-    public void handleUpdatedEvent(AnggotaUpdatedEvent event) {
-        String idString = event.getId().toString();
-        logger.info("RabbitMQ Receiver: Update Anggota ID {}", idString);
+        for (Message message : messages) {
+            Object event;
+            try {
+                event = messageConverter.fromMessage(message);
+            } catch (MessageConversionException e) {
+                logger.error("RabbitMQ Receiver: Gagal membaca event, dilewati: {}", e.getMessage());
+                continue;
+            }
 
-        AnggotaReadModel model = queryRepository.findById(idString)
-            .orElse(new AnggotaReadModel());
+            if (event instanceof AnggotaCreatedEvent created) {
+                String idString = created.getId().toString();
+                logger.debug("RabbitMQ Receiver: Create Anggota ID {}", idString);
+                batch.replace(idString, toReadModel(idString, created.getNomorAnggota(),
+                        created.getNama(), created.getAlamat(), created.getEmail(),
+                        created.getVersion(), created.getUpdatedAt()));
+            } else if (event instanceof AnggotaUpdatedEvent updated) {
+                String idString = updated.getId().toString();
+                logger.debug("RabbitMQ Receiver: Update Anggota ID {}", idString);
+                batch.replace(idString, toReadModel(idString, updated.getNomorAnggota(),
+                        updated.getNama(), updated.getAlamat(), updated.getEmail(),
+                        updated.getVersion(), updated.getUpdatedAt()));
+            } else if (event instanceof AnggotaImportedEvent imported) {
+                logger.debug("RabbitMQ Receiver: Import {} Anggota", imported.getItems().size());
+                for (AnggotaImportedEvent.Item item : imported.getItems()) {
+                    String idString = item.getId().toString();
+                    batch.replace(idString, toReadModel(idString, item.getNomorAnggota(),
+                            item.getNama(), item.getAlamat(), item.getEmail(),
+                            imported.getVersion(), imported.getUpdatedAt()));
+                }
+            } else if (event instanceof AnggotaDeletedEvent deleted) {
+                String idString = deleted.getId().toString();
+                logger.debug("RabbitMQ Receiver: Delete Anggota ID {}", idString);
+                batch.delete(idString);
+            } else {
+                logger.warn("RabbitMQ Receiver: Tipe event tidak dikenal: {}", event.getClass().getName());
+            }
+        }
 
-        model.setId(idString);
-        model.setNomorAnggota(event.getNomorAnggota());
-        model.setNama(event.getNama());
-        model.setAlamat(event.getAlamat());
-        model.setEmail(event.getEmail());
+        batch.flush(mongoTemplate);
+        projectionProgress.applied("anggota", messages);
+        cacheInvalidationPublisher.publish(touchedIds(batch));
+        logger.info("RabbitMQ Receiver: Synced {} event ke MongoDB ({} dokumen Anggota)", messages.size(), batch.size());
+    }
 
-        queryRepository.save(model);
-        logger.info("RabbitMQ Receiver: Updated MongoDB ID {}", idString);
+    private AnggotaReadModel toReadModel(String id, String nomorAnggota, String nama, String alamat, String email,
+                                         Long version, Instant updatedAt) {
+        AnggotaReadModel model = new AnggotaReadModel();
+        model.setId(id);
+        model.setNomorAnggota(nomorAnggota);
+        model.setNama(nama);
+        model.setAlamat(alamat);
+        model.setEmail(email);
+        model.setVersion(version);
+        model.setUpdatedAt(updatedAt);
+        return model;
     }
 
-    @RabbitHandler
-    public void handleDeletedEvent(AnggotaDeletedEvent event) {
-        String idString = event.getId().toString();
-        logger.info("RabbitMQ Receiver: Delete Anggota ID {}", idString);  
-        
-        if (queryRepository.existsById(idString)) {
-            queryRepository.deleteById(idString);
-            logger.info("RabbitMQ Receiver: Deleted from MongoDB ID {}", idString);
-        } else {
-            logger.warn("RabbitMQ Receiver: ID {} not found in MongoDB", idString);
-        }
+    private static Set<String> touchedIds(ProjectionBatch<AnggotaReadModel> batch) {
+        Set<String> ids = new LinkedHashSet<>(batch.replacements().keySet());
+        ids.addAll(batch.invalidatedIds());
+        return ids;
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.perpustakaan.service_anggota.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Satu event untuk satu chunk bulk import. Semua anggota di chunk baru dibuat dalam transaksi
+ * yang sama, jadi version dan updatedAt cukup dikirim sekali untuk seluruh item.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnggotaImportedEvent implements Serializable {
+    private List<Item> items;
+    private Long version;
+    private Instant updatedAt;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item implements Serializable {
+        private UUID id;
+        private String nomorAnggota;
+        private String nama;
+        private String alamat;
+        private String email;
+    }
+}
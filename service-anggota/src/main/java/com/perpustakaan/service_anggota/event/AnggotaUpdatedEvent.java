@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.UUID;
 
 @Data
@@ -16,4 +17,6 @@ public class AnggotaUpdatedEvent implements Serializable {
     private String nama;
     private String alamat;
     private String email;
-}
\ No newline at end of file
+    private Long version;
+    private Instant updatedAt;
+}
@@ -0,0 +1,42 @@
+package com.perpustakaan.service_anggota.event;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mengirim hint invalidasi ke fanout exchange setelah Read Model berubah, supaya
+ * response cache di gateway tidak menunggu TTL. Hanya hint: jika gagal terkirim,
+ * entry di gateway tetap kedaluwarsa lewat TTL.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${perpustakaan.cache.invalidation-exchange}")
+    private String exchange;
+
+    public void publish(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            rabbitTemplate.convertAndSend(exchange, "", Map.of("resource", "anggota", "ids", List.copyOf(ids)));
+            logger.debug("CACHE HINT SENT: {} id anggota", ids.size());
+        } catch (AmqpException e) {
+            logger.warn("CACHE HINT ERROR: Gagal mengirim hint invalidasi: {}", e.getMessage());
+        }
+    }
+}
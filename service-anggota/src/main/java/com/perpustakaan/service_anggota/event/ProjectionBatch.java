@@ -0,0 +1,203 @@
+package com.perpustakaan.service_anggota.event;
+
+import com.mongodb.ErrorCategory;
+import com.perpustakaan.service_anggota.entity.query.ProjectionTombstone;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Akumulator satu batch projection. Event digabung per aggregate id (versi tertinggi menang),
+ * sehingga setiap dokumen Read Model hanya disentuh satu kali dan seluruh batch
+ * ditulis ke MongoDB dengan satu bulkWrite.
+ *
+ * Setiap tulis hanya berlaku jika versi di dokumen lebih kecil dari versi event, jadi event
+ * yang datang terlambat atau di-redeliver tidak bisa menimpa state yang lebih baru.
+ * Delete meninggalkan ProjectionTombstone supaya event usang di batch berikutnya juga tidak
+ * menghidupkan dokumen lagi, dan update parsial tidak pernah membuat dokumen baru.
+ */
+class ProjectionBatch<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectionBatch.class);
+    private static final String VERSION = "version";
+
+    private final Class<T> type;
+    private final Function<T, Long> versionOf;
+    private final Map<String, T> replacements = new LinkedHashMap<>();
+    private final Map<String, Update> updates = new LinkedHashMap<>();
+    private final Map<String, Long> updateVersions = new HashMap<>();
+    private final Set<String> deletions = new LinkedHashSet<>();
+
+    ProjectionBatch(Class<T> type, Function<T, Long> versionOf) {
+        this.type = type;
+        this.versionOf = versionOf;
+    }
+
+    /**
+     * Dokumen penuh: menggantikan state sebelumnya untuk id ini, kecuali yang tertunda lebih baru.
+     * Id yang sudah dihapus di batch ini diabaikan: event Deleted tidak membawa versi, dan id tidak
+     * pernah dipakai ulang, jadi Created/Updated sesudahnya pasti usang (redelivery / urutan tertukar).
+     */
+    void replace(String id, T model) {
+        if (deletions.contains(id)) {
+            logger.debug("PROJECTION SKIP: {} sudah dihapus di batch ini", id);
+            return;
+        }
+        T pending = replacements.get(id);
+        if (pending != null && isOlder(versionOf.apply(model), versionOf.apply(pending))) {
+            return;
+        }
+        updates.remove(id);
+        updateVersions.remove(id);
+        replacements.put(id, model);
+    }
+
+    /**
+     * Update parsial ($set), digabung dengan update parsial sebelumnya untuk id yang sama.
+     * Hanya berlaku untuk dokumen yang sudah ada; tanpa dokumen, update dilewati (bukan upsert).
+     */
+    void update(String id, Update update, Long version) {
+        if (deletions.contains(id)) {
+            logger.debug("PROJECTION SKIP: {} sudah dihapus di batch ini", id);
+            return;
+        }
+        Update pending = updates.get(id);
+        if (pending == null) {
+            updates.put(id, version != null ? update.set(VERSION, version) : update);
+            updateVersions.put(id, version);
+            return;
+        }
+        if (isOlder(version, updateVersions.get(id))) {
+            return;
+        }
+        Document fields = (Document) update.getUpdateObject().get("$set");
+        if (fields != null) {
+            fields.forEach(pending::set);
+        }
+        if (version != null) {
+            pending.set(VERSION, version);
+            updateVersions.put(id, version);
+        }
+    }
+
+    void delete(String id) {
+        replacements.remove(id);
+        updates.remove(id);
+        updateVersions.remove(id);
+        deletions.add(id);
+    }
+
+    T pendingReplacement(String id) {
+        return replacements.get(id);
+    }
+
+    /** Dokumen penuh yang ditulis batch ini, per id (dipakai untuk refresh cache). */
+    Map<String, T> replacements() {
+        return Collections.unmodifiableMap(replacements);
+    }
+
+    /** Id yang disentuh tanpa dokumen penuh: update parsial dan delete. */
+    Set<String> invalidatedIds() {
+        Set<String> ids = new LinkedHashSet<>(updates.keySet());
+        ids.addAll(deletions);
+        return ids;
+    }
+
+    boolean isEmpty() {
+        return replacements.isEmpty() && updates.isEmpty() && deletions.isEmpty();
+    }
+
+    int size() {
+        return replacements.size() + updates.size() + deletions.size();
+    }
+
+    void flush(MongoTemplate mongoTemplate) {
+        if (isEmpty()) {
+            return;
+        }
+        String collection = mongoTemplate.getCollectionName(type);
+        // Tombstone ditulis sebelum dokumen dihapus; bersama pemeriksaan setelah bulkWrite di bawah,
+        // upsert usang yang berjalan bersamaan di instance lain selalu ikut terhapus.
+        if (!deletions.isEmpty()) {
+            Instant now = Instant.now();
+            BulkOperations tombstones = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProjectionTombstone.class);
+            deletions.forEach(id -> tombstones.upsert(
+                    Query.query(Criteria.where("id").is(ProjectionTombstone.idOf(collection, id))),
+                    Update.update("deletedAt", now)));
+            tombstones.execute();
+        }
+
+        // Setiap id hanya muncul sekali, jadi urutan eksekusi tidak berpengaruh.
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+        replacements.forEach((id, model) -> bulk.replaceOne(
+                olderThan(id, versionOf.apply(model)), model, FindAndReplaceOptions.options().upsert()));
+        updates.forEach((id, update) -> bulk.updateOne(olderThan(id, updateVersions.get(id)), update));
+        deletions.forEach(id -> bulk.remove(Query.query(Criteria.where("id").is(id))));
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // Dokumen sudah punya versi yang sama/lebih baru: filter tidak cocok, upsert bentrok di _id.
+            boolean onlyStale = e.getErrors().stream()
+                    .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!onlyStale) {
+                throw e;
+            }
+            logger.debug("PROJECTION SKIP: {} event usang diabaikan", e.getErrors().size());
+        }
+
+        if (!replacements.isEmpty()) {
+            removeTombstoned(mongoTemplate, collection);
+        }
+    }
+
+    // Dokumen yang sudah punya tombstone dihapus lagi dan tidak dianggap replacement (cache di-invalidate).
+    private void removeTombstoned(MongoTemplate mongoTemplate, String collection) {
+        List<String> tombstoneIds = replacements.keySet().stream()
+                .map(id -> ProjectionTombstone.idOf(collection, id))
+                .toList();
+        List<String> deleted = mongoTemplate.find(Query.query(Criteria.where("id").in(tombstoneIds)), ProjectionTombstone.class)
+                .stream()
+                .map(tombstone -> tombstone.getId().substring(collection.length() + 1))
+                .toList();
+        if (deleted.isEmpty()) {
+            return;
+        }
+        mongoTemplate.remove(Query.query(Criteria.where("id").in(deleted)), type);
+        deleted.forEach(id -> {
+            replacements.remove(id);
+            deletions.add(id);
+        });
+        logger.debug("PROJECTION SKIP: {} dokumen yang sudah dihapus tidak dihidupkan lagi", deleted.size());
+    }
+
+    private static boolean isOlder(Long version, Long than) {
+        return version != null && than != null && version < than;
+    }
+
+    private static Query olderThan(String id, Long version) {
+        Criteria criteria = Criteria.where("id").is(id);
+        if (version != null) {
+            criteria = criteria.orOperator(
+                    Criteria.where(VERSION).lt(version),
+                    Criteria.where(VERSION).exists(false));
+        }
+        return Query.query(criteria);
+    }
+}
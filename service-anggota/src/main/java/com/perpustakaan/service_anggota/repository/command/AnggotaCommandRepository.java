@@ -3,13 +3,14 @@ package com.perpustakaan.service_anggota.repository.command;
 import com.perpustakaan.service_anggota.entity.command.AnggotaWriteModel;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
+// Keunikan nomor anggota / email dijaga unique constraint, bukan query exists/findBy sebelum simpan
 @Repository
 public interface AnggotaCommandRepository extends JpaRepository<AnggotaWriteModel, UUID> {
-    boolean existsByNomorAnggota(String nomorAnggota);
-    boolean existsByEmail(String email);
-    Optional<AnggotaWriteModel> findByEmail(String email);
-    Optional<AnggotaWriteModel> findByNomorAnggota(String nomorAnggota);
+
+    // Probe gabungan untuk bulk import: satu query per chunk untuk nomor anggota dan email sekaligus
+    List<AnggotaWriteModel> findByNomorAnggotaInOrEmailIn(Collection<String> nomorAnggota, Collection<String> email);
 }
\ No newline at end of file
@@ -4,7 +4,11 @@ import com.perpustakaan.service_anggota.entity.query.AnggotaReadModel;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface AnggotaQueryRepository extends MongoRepository<AnggotaReadModel, String> {
     AnggotaReadModel findByNomorAnggota(String nomorAnggota);
+    List<AnggotaReadModel> findByNomorAnggotaIn(Collection<String> nomorAnggota);
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.perpustakaan.service_anggota.cqrs.handler;
+
+import com.perpustakaan.service_anggota.dto.CursorPage;
+import com.perpustakaan.service_anggota.entity.query.AnggotaReadModel;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    private static final Map<String, Function<AnggotaReadModel, String>> SORT_KEYS = Map.of(
+            "id", AnggotaReadModel::getId,
+            "nama", AnggotaReadModel::getNama);
+    private static final int MAX_SIZE = 50;
+
+    @Test
+    void pageTerakhirTanpaCursor() {
+        CursorPage<AnggotaReadModel> page = KeysetCursor.page(List.of(anggota("a", "Adi")), 2, "nama", SORT_KEYS);
+
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void cursorMembawaNilaiSortKeyDanIdBarisTerakhir() {
+        List<AnggotaReadModel> rows = List.of(anggota("a", "Adi"), anggota("b", "Budi"), anggota("c", "Citra"));
+
+        CursorPage<AnggotaReadModel> page = KeysetCursor.page(rows, 2, "nama", SORT_KEYS);
+
+        assertThat(page.getItems()).extracting(AnggotaReadModel::getId).containsExactly("a", "b");
+        assertThat(KeysetCursor.decode(page.getNextCursor()))
+                .isEqualTo(new KeysetCursor.Position("nama", "Budi", "b"));
+    }
+
+    @Test
+    void cursorNilaiNullTetapValid() {
+        List<AnggotaReadModel> rows = List.of(anggota("a", null), anggota("b", "Budi"));
+
+        CursorPage<AnggotaReadModel> page = KeysetCursor.page(rows, 1, "nama", SORT_KEYS);
+
+        assertThat(KeysetCursor.decode(page.getNextCursor()))
+                .isEqualTo(new KeysetCursor.Position("nama", null, "a"));
+    }
+
+    @Test
+    void decodeMenolakCursorRusakAtauNilaiBukanString() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode(" ")).isNull();
+        assertThatThrownBy(() -> KeysetCursor.decode("bukan-base64!"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor("{\"s\":\"nama\"}")))
+                .isInstanceOf(IllegalArgumentException.class);
+        // Nilai angka akan dibandingkan sebagai number di MongoDB, bukan string yang tersimpan
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor("{\"s\":\"nama\",\"v\":42,\"id\":\"a\"}")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void seekHalamanPertamaUrutSortKeyLaluId() {
+        Query query = KeysetCursor.seek("nama", SORT_KEYS, null, 10, MAX_SIZE);
+
+        assertThat(query.getLimit()).isEqualTo(11);
+        assertThat(query.getSortObject()).isEqualTo(new Document("nama", 1).append("id", 1));
+        assertThat(query.getQueryObject()).isEmpty();
+    }
+
+    @Test
+    void seekSetelahPosisiMemakaiNilaiDanIdTerakhir() {
+        KeysetCursor.Position after = new KeysetCursor.Position("nama", "Budi", "b");
+
+        Query query = KeysetCursor.seek("nama", SORT_KEYS, after, 10, MAX_SIZE);
+
+        assertThat(query.getQueryObject().toJson())
+                .contains("{\"nama\": {\"$gt\": \"Budi\"}}")
+                .contains("{\"nama\": \"Budi\", \"id\": {\"$gt\": \"b\"}}");
+    }
+
+    @Test
+    void seekUrutIdHanyaMembandingkanId() {
+        Query query = KeysetCursor.seek("id", SORT_KEYS, new KeysetCursor.Position("id", null, "b"), 10, MAX_SIZE);
+
+        assertThat(query.getSortObject()).isEqualTo(new Document("id", 1));
+        assertThat(query.getQueryObject().toJson()).isEqualTo("{\"id\": {\"$gt\": \"b\"}}");
+    }
+
+    @Test
+    void seekMenolakSortKeyDanSizeDiLuarBatas() {
+        assertThatThrownBy(() -> KeysetCursor.seek("email", SORT_KEYS, null, 10, MAX_SIZE))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.seek("nama", SORT_KEYS, null, 0, MAX_SIZE))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.seek("nama", SORT_KEYS, null, MAX_SIZE + 1, MAX_SIZE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static AnggotaReadModel anggota(String id, String nama) {
+        AnggotaReadModel anggota = new AnggotaReadModel();
+        anggota.setId(id);
+        anggota.setNama(nama);
+        return anggota;
+    }
+
+    private static String cursor(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
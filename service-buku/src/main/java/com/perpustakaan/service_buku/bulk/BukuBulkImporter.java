@@ -0,0 +1,173 @@
+package com.perpustakaan.service_buku.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.perpustakaan.service_buku.bulk.BulkRowReader.BulkRow;
+import com.perpustakaan.service_buku.cqrs.command.CreateBukuCommand;
+import com.perpustakaan.service_buku.cqrs.command.ImportBukuCommand;
+import com.perpustakaan.service_buku.cqrs.handler.BukuCommandHandler;
+import com.perpustakaan.service_buku.dto.BukuRequest;
+import com.perpustakaan.service_buku.dto.BulkImportResponse;
+import com.perpustakaan.service_buku.entity.command.BukuWriteModel;
+import com.perpustakaan.service_buku.repository.command.BukuCommandRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import buku dari NDJSON atau CSV. Body dibaca streaming dan diproses per chunk:
+ * validasi per baris, satu probe gabungan kode/judul ke Write DB, lalu satu transaksi
+ * (insert di-batch JDBC + satu BukuImportedEvent) per chunk. Baris yang gagal dicatat
+ * di response tanpa menghentikan baris lainnya.
+ */
+@Component
+@RequiredArgsConstructor
+public class BukuBulkImporter {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final Logger logger = LoggerFactory.getLogger(BukuBulkImporter.class);
+
+    private final BukuCommandHandler commandHandler;
+    private final BukuCommandRepository bukuRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    @Value("${perpustakaan.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${perpustakaan.import.max-errors:1000}")
+    private int maxErrors;
+
+    public BulkImportResponse importFrom(InputStream body, MediaType contentType) throws IOException {
+        logger.info("PROSES IMPORT: Memulai bulk import buku ({}), chunk {} baris.", contentType, chunkSize);
+
+        BulkImportReport report = new BulkImportReport(maxErrors);
+        List<BulkRow<BukuRequest>> chunk = new ArrayList<>(chunkSize);
+        try (BulkRowReader<BukuRequest> reader = BulkRowReader.open(body, contentType, BukuRequest.class, objectMapper)) {
+            BulkRow<BukuRequest> row;
+            while ((row = reader.next()) != null) {
+                report.read();
+                String error = row.error() != null ? row.error() : validate(row.value());
+                if (error != null) {
+                    report.reject(row.line(), row.value() != null ? row.value().getKodeBuku() : null, error);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, report);
+        }
+
+        BulkImportResponse response = report.toResponse();
+        logger.info("SELESAI IMPORT: {} baris dibaca, {} tersimpan, {} ditolak.",
+            response.getTotal(), response.getImported(), response.getFailed());
+        return response;
+    }
+
+    private void importChunk(List<BulkRow<BukuRequest>> chunk, BulkImportReport report) {
+        List<BulkRow<BukuRequest>> accepted = withoutConflicts(chunk, report);
+        if (accepted.isEmpty()) {
+            return;
+        }
+        try {
+            commandHandler.handle(new ImportBukuCommand(accepted.stream().map(row -> toCommand(row.value())).toList()));
+            report.imported(accepted.size());
+        } catch (DataIntegrityViolationException e) {
+            // Bentrok dengan create lain setelah probe, atau baris yang ditolak DB: transaksi chunk
+            // sudah di-rollback, jadi chunk diulang per baris supaya hanya baris bermasalah yang gagal.
+            logger.warn("GAGAL IMPORT: Chunk {} baris ditolak DB, diulang per baris.", accepted.size());
+            for (BulkRow<BukuRequest> row : accepted) {
+                try {
+                    commandHandler.handle(toCommand(row.value()));
+                    report.imported(1);
+                } catch (IllegalArgumentException rowError) {
+                    report.reject(row.line(), row.value().getKodeBuku(), rowError.getMessage());
+                } catch (DataIntegrityViolationException rowError) {
+                    report.reject(row.line(), row.value().getKodeBuku(), "Data ditolak database.");
+                }
+            }
+        }
+    }
+
+    /** Menolak kode/judul yang dobel di dalam chunk atau sudah ada di Write DB (satu query). */
+    private List<BulkRow<BukuRequest>> withoutConflicts(List<BulkRow<BukuRequest>> chunk, BulkImportReport report) {
+        Set<String> kode = new HashSet<>();
+        Set<String> judul = new HashSet<>();
+        List<BulkRow<BukuRequest>> unique = new ArrayList<>(chunk.size());
+        for (BulkRow<BukuRequest> row : chunk) {
+            BukuRequest request = row.value();
+            if (kode.contains(request.getKodeBuku())) {
+                report.reject(row.line(), request.getKodeBuku(),
+                    "Kode buku " + request.getKodeBuku() + " muncul lebih dari sekali dalam file.");
+            } else if (judul.contains(request.getJudul())) {
+                report.reject(row.line(), request.getKodeBuku(),
+                    "Judul " + request.getJudul() + " muncul lebih dari sekali dalam file.");
+            } else {
+                kode.add(request.getKodeBuku());
+                judul.add(request.getJudul());
+                unique.add(row);
+            }
+        }
+
+        Set<String> kodeTerpakai = new HashSet<>();
+        Set<String> judulTerpakai = new HashSet<>();
+        for (BukuWriteModel existing : bukuRepository.findByKodeBukuInOrJudulIn(kode, judul)) {
+            kodeTerpakai.add(existing.getKodeBuku());
+            judulTerpakai.add(existing.getJudul());
+        }
+        if (kodeTerpakai.isEmpty()) {
+            return unique;
+        }
+
+        List<BulkRow<BukuRequest>> accepted = new ArrayList<>(unique.size());
+        for (BulkRow<BukuRequest> row : unique) {
+            BukuRequest request = row.value();
+            if (kodeTerpakai.contains(request.getKodeBuku())) {
+                report.reject(row.line(), request.getKodeBuku(), "Kode buku " + request.getKodeBuku() + " sudah digunakan.");
+            } else if (judulTerpakai.contains(request.getJudul())) {
+                report.reject(row.line(), request.getKodeBuku(), "Judul " + request.getJudul() + " sudah terdaftar.");
+            } else {
+                accepted.add(row);
+            }
+        }
+        return accepted;
+    }
+
+    private String validate(BukuRequest request) {
+        if (request == null) {
+            return "Baris tidak berisi data buku.";
+        }
+        Set<ConstraintViolation<BukuRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(ConstraintViolation::getMessage)
+            .sorted()
+            .collect(Collectors.joining("; "));
+    }
+
+    private static CreateBukuCommand toCommand(BukuRequest request) {
+        return new CreateBukuCommand(request.getKodeBuku(), request.getJudul(), request.getPengarang(),
+            request.getPenerbit(), request.getTahunTerbit());
+    }
+}
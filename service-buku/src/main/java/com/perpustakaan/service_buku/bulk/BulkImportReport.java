@@ -0,0 +1,42 @@
+package com.perpustakaan.service_buku.bulk;
+
+import com.perpustakaan.service_buku.dto.BulkImportResponse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/** Akumulator hasil satu bulk import; daftar error dibatasi supaya response tetap kecil. */
+final class BulkImportReport {
+
+    private final int maxErrors;
+    private final List<BulkImportResponse.RowError> errors = new ArrayList<>();
+    private long total;
+    private long imported;
+    private long failed;
+
+    BulkImportReport(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    void read() {
+        total++;
+    }
+
+    void imported(int rows) {
+        imported += rows;
+    }
+
+    void reject(long line, String key, String message) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new BulkImportResponse.RowError(line, key, message));
+        }
+    }
+
+    BulkImportResponse toResponse() {
+        // Baris yang gagal di tahap chunk tercatat setelah baris sesudahnya; urutkan per nomor baris
+        errors.sort(Comparator.comparingLong(BulkImportResponse.RowError::getLine));
+        return new BulkImportResponse(total, imported, failed, errors, failed > errors.size());
+    }
+}
@@ -0,0 +1,94 @@
+package com.perpustakaan.service_buku.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Membaca body bulk import baris demi baris tanpa memuat seluruh file ke memori.
+ * NDJSON: satu objek JSON per baris. CSV: baris pertama header (nama field), lalu satu
+ * record per baris. Baris yang gagal di-parse dikembalikan sebagai error, tidak
+ * menghentikan pembacaan.
+ */
+final class BulkRowReader<T> implements Closeable {
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private final BufferedReader reader;
+    private final Class<T> type;
+    private ObjectReader rowReader;
+    private long line;
+
+    private BulkRowReader(BufferedReader reader, Class<T> type, ObjectReader rowReader) {
+        this.reader = reader;
+        this.type = type;
+        this.rowReader = rowReader;
+    }
+
+    static <T> BulkRowReader<T> open(InputStream body, MediaType contentType, Class<T> type, ObjectMapper objectMapper) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            return new BulkRowReader<>(reader, type, objectMapper.readerFor(type));
+        }
+        if (MediaType.parseMediaType(BukuBulkImporter.TEXT_CSV_VALUE).isCompatibleWith(contentType)) {
+            // Schema CSV baru diketahui setelah header dibaca
+            return new BulkRowReader<>(reader, type, null);
+        }
+        throw new IllegalArgumentException("Content-Type tidak didukung untuk bulk import: " + contentType);
+    }
+
+    /** Baris berikutnya yang tidak kosong, atau null di akhir body. */
+    BulkRow<T> next() throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            if (rowReader == null) {
+                rowReader = csvReader(text);
+                continue;
+            }
+            try {
+                return new BulkRow<>(line, rowReader.readValue(text), null);
+            } catch (JsonProcessingException e) {
+                return new BulkRow<>(line, null, "Format baris tidak valid: " + e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+
+    private ObjectReader csvReader(String header) throws IOException {
+        String[] columns = CSV_MAPPER.readerFor(String[].class).readValue(header);
+        CsvSchema.Builder schema = CsvSchema.builder();
+        for (String column : columns) {
+            schema.addColumn(column.trim());
+        }
+        return CSV_MAPPER.readerFor(type).with(schema.build());
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /** Satu baris input: value terisi jika berhasil di-parse, error jika tidak. */
+    record BulkRow<T>(long line, T value, String error) {
+    }
+}
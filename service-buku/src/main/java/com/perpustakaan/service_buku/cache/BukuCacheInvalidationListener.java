@@ -0,0 +1,57 @@
+package com.perpustakaan.service_buku.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.perpustakaan.service_buku.event.CacheInvalidationPublisher;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Queue projection dibagi antar instance (competing consumers), jadi BukuEventListener hanya
+ * me-refresh cache instance yang memproyeksikan batch tersebut. Setiap instance juga berlangganan
+ * fanout hint invalidasi lewat queue anonim miliknya sendiri dan membuang entry buku yang berubah.
+ */
+@Component
+@RequiredArgsConstructor
+public class BukuCacheInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(BukuCacheInvalidationListener.class);
+
+    private final BukuReadCache bukuReadCache;
+    private final CacheInvalidationPublisher cacheInvalidationPublisher;
+    private final ObjectMapper objectMapper;
+
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(exclusive = "true", autoDelete = "true"),
+            exchange = @Exchange(value = "${perpustakaan.cache.invalidation-exchange}", type = ExchangeTypes.FANOUT)))
+    public void onHint(Message message) {
+        JsonNode hint;
+        try {
+            hint = objectMapper.readTree(message.getBody());
+        } catch (IOException e) {
+            logger.warn("RabbitMQ Receiver: Hint invalidasi tidak valid, dilewati: {}", e.getMessage());
+            return;
+        }
+
+        // Fanout yang sama juga membawa hint resource lain (anggota)
+        if (!"buku".equals(hint.path("resource").asText())
+                || cacheInvalidationPublisher.origin().equals(hint.path("origin").asText())) {
+            return;
+        }
+        List<String> ids = new ArrayList<>();
+        hint.path("ids").forEach(id -> ids.add(id.asText()));
+        bukuReadCache.invalidate(ids);
+    }
+}
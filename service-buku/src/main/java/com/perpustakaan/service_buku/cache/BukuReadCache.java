@@ -0,0 +1,103 @@
+package com.perpustakaan.service_buku.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.perpustakaan.service_buku.entity.query.BukuReadModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cache read-through in-process di depan BukuQueryRepository (Caffeine, W-TinyLFU).
+ * Entry yang sudah ada diperbarui oleh BukuEventListener setiap kali projection ditulis di
+ * instance ini; instance lain meng-invalidate lewat hint fanout (BukuCacheInvalidationListener).
+ * TTL hanya sebagai jaring pengaman jika ada event atau hint yang terlewat.
+ */
+@Component
+public class BukuReadCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(BukuReadCache.class);
+
+    private final Cache<String, BukuReadModel> byId;
+    private final Cache<String, String> idByKode;
+
+    public BukuReadCache(MeterRegistry meterRegistry,
+                         @Value("${perpustakaan.cache.buku.max-size:10000}") long maxSize,
+                         @Value("${perpustakaan.cache.buku.ttl-seconds:600}") long ttlSeconds) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.idByKode = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "buku.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, idByKode, "buku.byKode");
+    }
+
+    /** Loader hanya dipanggil saat miss; hasil null tidak disimpan. */
+    public BukuReadModel getById(String id, Function<String, BukuReadModel> loader) {
+        return byId.get(id, loader);
+    }
+
+    public BukuReadModel getByKode(String kodeBuku, Function<String, BukuReadModel> loader) {
+        String id = idByKode.getIfPresent(kodeBuku);
+        if (id != null) {
+            BukuReadModel cached = byId.getIfPresent(id);
+            // Kode buku bisa berubah lewat update, jadi mapping lama diverifikasi dulu
+            if (cached != null && kodeBuku.equals(cached.getKodeBuku())) {
+                return cached;
+            }
+            idByKode.invalidate(kodeBuku);
+        }
+
+        BukuReadModel loaded = loader.apply(kodeBuku);
+        if (loaded == null) {
+            return null;
+        }
+        idByKode.put(kodeBuku, loaded.getId());
+        // Tidak menimpa entry yang mungkin baru saja di-refresh oleh event
+        return byId.get(loaded.getId(), key -> loaded);
+    }
+
+    /**
+     * Dipanggil setelah batch projection ditulis ke MongoDB. Hanya entry yang sudah di-cache yang
+     * diperbarui, supaya chunk bulk import tidak mengusir working set; sisanya cukup dibaca saat miss.
+     */
+    public void refresh(Map<String, BukuReadModel> replaced, Collection<String> invalidated) {
+        int[] refreshed = {0};
+        // Versi yang lebih lama (event di-redeliver) tidak menimpa entry yang lebih baru
+        replaced.forEach((id, model) -> {
+            if (byId.asMap().computeIfPresent(id, (key, current) -> newer(current, model)) != null) {
+                refreshed[0]++;
+            }
+        });
+        byId.invalidateAll(invalidated);
+        logger.debug("CACHE REFRESH: {} diperbarui, {} di-invalidate", refreshed[0], invalidated.size());
+    }
+
+    /** Hint dari instance lain: dokumen sudah berubah di MongoDB, entry lokal dibuang. */
+    public void invalidate(Collection<String> ids) {
+        byId.invalidateAll(ids);
+        logger.debug("CACHE INVALIDATE: {} id buku dari hint instance lain", ids.size());
+    }
+
+    private static BukuReadModel newer(BukuReadModel current, BukuReadModel candidate) {
+        if (current.getVersion() != null && candidate.getVersion() != null
+                && current.getVersion() > candidate.getVersion()) {
+            return current;
+        }
+        return candidate;
+    }
+}
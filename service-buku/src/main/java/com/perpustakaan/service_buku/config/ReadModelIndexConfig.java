@@ -0,0 +1,57 @@
+package com.perpustakaan.service_buku.config;
+
+import com.perpustakaan.service_buku.entity.query.BukuReadModel;
+import com.perpustakaan.service_buku.entity.query.ProjectionTombstone;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Index read model untuk keyset pagination (sortKey, _id) dan text index pencarian katalog.
+ * Dibuat di background setelah aplikasi siap supaya startup tidak menunggu MongoDB.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ReadModelIndexConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadModelIndexConfig.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        CompletableFuture.runAsync(() -> {
+            IndexOperations indexOps = mongoTemplate.indexOps(BukuReadModel.class);
+            indexOps.ensureIndex(new Index().on("judul", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("judul_id"));
+            indexOps.ensureIndex(new Index().on("kodeBuku", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("kodeBuku_id"));
+            // Bahasa "none": tanpa stemming/stop word bahasa Inggris yang tidak cocok untuk judul berbahasa Indonesia.
+            // Bobot: kata utuh di judul paling relevan, awalan kata (kataKunci) paling rendah
+            indexOps.ensureIndex(TextIndexDefinition.builder()
+                    .named("buku_search")
+                    .withDefaultLanguage("none")
+                    .onField("judul", 10F)
+                    .onField("pengarang", 5F)
+                    .onField("penerbit", 2F)
+                    .onField(BukuReadModel.KATA_KUNCI, 1F)
+                    .build());
+            // TTL: tombstone hanya perlu hidup selama event usang masih mungkin di-redeliver
+            mongoTemplate.indexOps(ProjectionTombstone.class).ensureIndex(new Index().on("deletedAt", Sort.Direction.ASC)
+                    .expire(Duration.ofDays(7)).named("deletedAt_ttl"));
+            logger.info("INDEX READY: buku_read (sortKey, _id), buku_search (text)");
+        }).exceptionally(e -> {
+            logger.warn("INDEX ERROR: Gagal membuat index buku_read, akan dicoba lagi saat restart: {}", e.getMessage());
+            return null;
+        });
+    }
+}
@@ -1,23 +1,31 @@
 package com.perpustakaan.service_buku.controller;
 
+import com.perpustakaan.service_buku.bulk.BukuBulkImporter;
 import com.perpustakaan.service_buku.cqrs.command.*;
 import com.perpustakaan.service_buku.cqrs.handler.*;
 import com.perpustakaan.service_buku.cqrs.query.*;
+import com.perpustakaan.service_buku.dto.BukuBatchResponse;
 import com.perpustakaan.service_buku.dto.BukuRequest;
+import com.perpustakaan.service_buku.dto.BulkImportResponse;
+import com.perpustakaan.service_buku.dto.CursorPage;
 import com.perpustakaan.service_buku.entity.command.BukuWriteModel;
 import com.perpustakaan.service_buku.entity.query.BukuReadModel;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -30,6 +38,7 @@ public class BukuController {
 
     private final BukuCommandHandler commandHandler;
     private final BukuQueryHandler queryHandler;
+    private final BukuBulkImporter bulkImporter;
 
     @PostMapping
     @Operation(summary = "Tambah Buku Baru", description = "Menambahkan data buku baru ke perpustakaan.")
@@ -41,18 +50,34 @@ public class BukuController {
             request.getPenerbit(), request.getTahunTerbit()
         );
         BukuWriteModel saved = commandHandler.handle(command);
-        return new ResponseEntity<>(saved, HttpStatus.CREATED);
+        return ConsistencyTokens.withToken(HttpStatus.CREATED, saved, saved.getVersion());
+    }
+
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, BukuBulkImporter.TEXT_CSV_VALUE})
+    @Operation(summary = "Import Buku Massal", description = "Body streaming NDJSON (satu objek buku per baris) atau CSV (baris pertama header: kodeBuku,judul,pengarang,penerbit,tahunTerbit). Disimpan per chunk; baris yang gagal validasi atau bentrok dilaporkan di 'errors' tanpa membatalkan baris lain.")
+    public ResponseEntity<BulkImportResponse> importBuku(HttpServletRequest request) throws IOException {
+        logger.info("API REQUEST: Bulk Import Buku - Content-Type: [{}]", request.getContentType());
+
+        BulkImportResponse response = bulkImporter.importFrom(request.getInputStream(),
+            MediaType.parseMediaType(request.getContentType()));
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Lihat Detail Buku", description = "Mengambil data buku berdasarkan ID (Read Model).")
-    public ResponseEntity<BukuReadModel> getBukuById(@PathVariable("id") UUID id) {
-        logger.debug("API REQUEST: Get Buku By ID [{}]", id);
+    @Operation(summary = "Lihat Detail Buku", description = "Mengambil data buku berdasarkan ID (Read Model). minVersion (header X-Consistency-Token dari response create/update) menunggu sebentar sampai Read Model menyusul; 503 jika belum.")
+    public ResponseEntity<BukuReadModel> getBukuById(
+            @PathVariable("id") UUID id,
+            @RequestParam(required = false) Long minVersion) {
+        logger.debug("API REQUEST: Get Buku By ID [{}], minVersion: {}", id, minVersion);
         
-        GetBukuByIdQuery query = new GetBukuByIdQuery(id.toString());
+        GetBukuByIdQuery query = new GetBukuByIdQuery(id.toString(), minVersion);
         try {
             BukuReadModel buku = queryHandler.handle(query);
-            return ResponseEntity.ok(buku);
+            if (ConsistencyTokens.isBehind(buku != null ? buku.getVersion() : null, minVersion)) {
+                logger.warn("API RESPONSE: Buku ID [{}] belum mencapai versi {} di Read Model.", id, minVersion);
+                return ConsistencyTokens.notYetProjected();
+            }
+            return ETags.single(buku, buku.getVersion(), buku.getUpdatedAt());
         } catch (RuntimeException e) {
             logger.warn("API RESPONSE: Buku ID [{}] tidak ditemukan.", id);
             return ResponseEntity.notFound().build();
@@ -60,15 +85,66 @@ public class BukuController {
     }
 
     @GetMapping
-    @Operation(summary = "Lihat Semua Buku", description = "Menampilkan daftar buku dengan pagination.")
-    public ResponseEntity<Page<BukuReadModel>> getAllBuku(
+    @Operation(summary = "Lihat Semua Buku", description = "Menampilkan daftar buku dengan pagination. Kirim parameter after (boleh kosong untuk halaman pertama) untuk keyset pagination tanpa total count; sortBy: id, judul, kodeBuku.")
+    public ResponseEntity<?> getAllBuku(
             @RequestParam(defaultValue = "0") Integer page,
             @RequestParam(defaultValue = "10") Integer size,
-            @RequestParam(defaultValue = "judul") String sortBy) {
+            @RequestParam(defaultValue = "judul") String sortBy,
+            @RequestParam(required = false) String after) {
         
+        if (after != null) {
+            logger.debug("API REQUEST: Get All Buku (cursor) - After: [{}], Size: {}", after, size);
+            try {
+                CursorPage<BukuReadModel> cursorPage = queryHandler.handle(new GetBukuCursorQuery(after, size, sortBy));
+                return ETags.list(cursorPage, cursorPage.getItems(), BukuController::fingerprint, cursorPage.getNextCursor());
+            } catch (IllegalArgumentException e) {
+                logger.warn("API BAD REQUEST: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        }
         logger.debug("API REQUEST: Get All Buku - Page: {}, Size: {}", page, size);
         GetAllBukuQuery query = new GetAllBukuQuery(page, size, sortBy);
-        return ResponseEntity.ok(queryHandler.handle(query));
+        Page<BukuReadModel> bukuPage = queryHandler.handle(query);
+        return ETags.list(bukuPage, bukuPage.getContent(), BukuController::fingerprint,
+                bukuPage.getNumber(), bukuPage.getSize(), bukuPage.getTotalElements());
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Cari Buku", description = "Pencarian katalog berdasarkan kata atau awalan kata di judul, pengarang dan penerbit (text index Read Model). Hasil diurutkan relevansi: kata utuh di judul paling tinggi, lalu pengarang, penerbit, dan kecocokan awalan. size maksimum perpustakaan.query.search-max-size.")
+    public ResponseEntity<?> searchBuku(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "10") Integer size) {
+        logger.debug("API REQUEST: Search Buku - Q: [{}], Page: {}, Size: {}", q, page, size);
+
+        try {
+            Page<BukuReadModel> result = queryHandler.handle(new SearchBukuQuery(q, page, size));
+            return ETags.list(result, result.getContent(), BukuController::fingerprint,
+                    result.getNumber(), result.getSize(), result.getTotalElements());
+        } catch (IllegalArgumentException e) {
+            logger.warn("API BAD REQUEST: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Multi-get Buku", description = "Mengambil banyak buku sekaligus (satu query $in). Parameter by=id|kode menentukan isi body. Hasil urut sesuai request, ID yang tidak ada dicantumkan di 'missing'.")
+    public ResponseEntity<BukuBatchResponse> getBukuBatch(
+            @RequestBody List<String> ids,
+            @RequestParam(defaultValue = "id") String by) {
+        logger.debug("API REQUEST: Get Buku Batch - {} key, by: {}", ids.size(), by);
+
+        if (!"id".equals(by) && !"kode".equals(by)) {
+            logger.warn("API BAD REQUEST: Parameter by tidak dikenal [{}]", by);
+            return ResponseEntity.badRequest().build();
+        }
+        GetBukuByIdsQuery query = new GetBukuByIdsQuery(ids, "kode".equals(by));
+        try {
+            return ResponseEntity.ok(queryHandler.handle(query));
+        } catch (IllegalArgumentException e) {
+            logger.warn("API BAD REQUEST: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PutMapping("/{id}")
@@ -83,7 +159,7 @@ public class BukuController {
         
         try {
             BukuWriteModel updated = commandHandler.handle(command);
-            return ResponseEntity.ok(updated);
+            return ConsistencyTokens.withToken(HttpStatus.OK, updated, updated.getVersion());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
@@ -102,4 +178,8 @@ public class BukuController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    private static String fingerprint(BukuReadModel buku) {
+        return ETags.fingerprint(buku.getId(), buku.getVersion());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.perpustakaan.service_buku.cqrs.command;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportBukuCommand {
+    private List<CreateBukuCommand> rows;
+}
@@ -5,14 +5,16 @@ import com.perpustakaan.service_buku.entity.command.BukuWriteModel;
 import com.perpustakaan.service_buku.event.*;
 import com.perpustakaan.service_buku.repository.command.BukuCommandRepository;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @Component
@@ -22,33 +24,13 @@ public class BukuCommandHandler {
     private static final Logger logger = LoggerFactory.getLogger(BukuCommandHandler.class);
 
     private final BukuCommandRepository bukuRepository;
-    private final RabbitTemplate rabbitTemplate;
-
-    @Value("${perpustakaan.rabbitmq.exchange}")
-    private String exchange;
-
-    @Value("${perpustakaan.rabbitmq.routing-key}")
-    private String routingKey;
+    private final OutboxWriter outboxWriter;
 
     @Transactional
     public BukuWriteModel handle(CreateBukuCommand command) {
         logger.info("PROSES CREATE: Menambahkan buku baru. Kode: [{}], Judul: [{}]", 
             command.getKodeBuku(), command.getJudul());
 
-        // 1. Validasi Duplikat Kode Buku
-        if (bukuRepository.existsByKodeBuku(command.getKodeBuku())) {
-            logger.warn("GAGAL CREATE: Kode Buku [{}] sudah ada di sistem.", command.getKodeBuku());
-            throw new IllegalArgumentException("Kode buku " + command.getKodeBuku() + " sudah digunakan.");
-        }
-
-        // 2. Validasi Duplikat Judul Buku
-        if (command.getJudul() != null && !command.getJudul().isBlank()) {
-            if (bukuRepository.existsByJudul(command.getJudul())) {
-                logger.warn("GAGAL CREATE: Judul [{}] sudah terdaftar.", command.getJudul());
-                throw new IllegalArgumentException("Judul " + command.getJudul() + " sudah terdaftar.");
-            }
-        }
-
         BukuWriteModel buku = new BukuWriteModel();
         buku.setKodeBuku(command.getKodeBuku());
         buku.setJudul(command.getJudul());
@@ -56,13 +38,45 @@ public class BukuCommandHandler {
         buku.setPenerbit(command.getPenerbit());
         buku.setTahunTerbit(command.getTahunTerbit());
 
-        BukuWriteModel saved = bukuRepository.save(buku);
+        buku.setUpdatedAt(Instant.now());
+        // saveAndFlush supaya @Version sudah naik saat event dibuat
+        BukuWriteModel saved = saveUnique(buku, "GAGAL CREATE",
+            "Kode buku " + command.getKodeBuku() + " sudah digunakan.",
+            "Judul " + command.getJudul() + " sudah terdaftar.");
         logger.info("SUKSES CREATE: Buku berhasil disimpan (Write DB). ID: [{}]", saved.getId());
 
         publishBukuCreatedEvent(saved);
         return saved;
     }
 
+    /**
+     * Menyimpan satu chunk bulk import dalam satu transaksi: insert di-batch JDBC dan hanya
+     * satu baris outbox (BukuImportedEvent) untuk seluruh chunk. Pelanggaran unique constraint
+     * dilempar apa adanya; BukuBulkImporter yang mengulang chunk itu per baris.
+     */
+    @Transactional
+    public List<BukuWriteModel> handle(ImportBukuCommand command) {
+        logger.info("PROSES IMPORT: Menyimpan {} buku dalam satu batch.", command.getRows().size());
+
+        Instant now = Instant.now();
+        List<BukuWriteModel> rows = command.getRows().stream().map(row -> {
+            BukuWriteModel buku = new BukuWriteModel();
+            buku.setKodeBuku(row.getKodeBuku());
+            buku.setJudul(row.getJudul());
+            buku.setPengarang(row.getPengarang());
+            buku.setPenerbit(row.getPenerbit());
+            buku.setTahunTerbit(row.getTahunTerbit());
+            buku.setUpdatedAt(now);
+            return buku;
+        }).toList();
+
+        List<BukuWriteModel> saved = bukuRepository.saveAllAndFlush(rows);
+        logger.info("SUKSES IMPORT: {} buku disimpan ke Write DB.", saved.size());
+
+        publishBukuImportedEvent(saved, now);
+        return saved;
+    }
+
     @Transactional
     public BukuWriteModel handle(UpdateBukuCommand command) {
         logger.info("PROSES UPDATE: Memperbarui buku ID: [{}]", command.getId());
@@ -73,20 +87,17 @@ public class BukuCommandHandler {
                 return new IllegalArgumentException("Buku tidak ditemukan dengan ID: " + command.getId());
             });
 
-        // Validasi Konflik Kode Buku (Cek milik orang lain)
-        Optional<BukuWriteModel> existingKode = bukuRepository.findByKodeBuku(command.getKodeBuku());
-        if (existingKode.isPresent() && !existingKode.get().getId().equals(command.getId())) {
-            logger.warn("GAGAL UPDATE: Konflik Kode Buku [{}].", command.getKodeBuku());
-            throw new IllegalArgumentException("Kode buku sudah digunakan oleh buku lain.");
-        }
-
         buku.setKodeBuku(command.getKodeBuku());
         buku.setJudul(command.getJudul());
         buku.setPengarang(command.getPengarang());
         buku.setPenerbit(command.getPenerbit());
         buku.setTahunTerbit(command.getTahunTerbit());
 
-        BukuWriteModel updated = bukuRepository.save(buku);
+        buku.setUpdatedAt(Instant.now());
+        // saveAndFlush supaya @Version sudah naik saat event dibuat
+        BukuWriteModel updated = saveUnique(buku, "GAGAL UPDATE",
+            "Kode buku sudah digunakan oleh buku lain.",
+            "Judul " + command.getJudul() + " sudah terdaftar.");
         logger.info("SUKSES UPDATE: Buku ID [{}] berhasil diperbarui.", updated.getId());
 
         publishBukuUpdatedEvent(updated);
@@ -108,49 +119,85 @@ public class BukuCommandHandler {
         publishBukuDeletedEvent(command.getId());
     }
 
+    // Keunikan kode buku dan judul dijaga unique constraint di H2, tanpa query exists sebelum
+    // simpan; constraint yang dilanggar dipetakan ke pesan error yang sama seperti sebelumnya.
+    private BukuWriteModel saveUnique(BukuWriteModel buku, String gagal,
+                                      String kodeTerpakai, String judulTerpakai) {
+        try {
+            return bukuRepository.saveAndFlush(buku);
+        } catch (DataIntegrityViolationException e) {
+            String constraint = violatedConstraint(e);
+            if (constraint.contains(BukuWriteModel.UK_KODE_BUKU)) {
+                logger.warn("{}: Kode Buku [{}] sudah ada di sistem.", gagal, buku.getKodeBuku());
+                throw new IllegalArgumentException(kodeTerpakai);
+            }
+            if (constraint.contains(BukuWriteModel.UK_JUDUL)) {
+                logger.warn("{}: Judul [{}] sudah terdaftar.", gagal, buku.getJudul());
+                throw new IllegalArgumentException(judulTerpakai);
+            }
+            throw e;
+        }
+    }
+
+    private static String violatedConstraint(DataIntegrityViolationException e) {
+        if (e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+            return violation.getConstraintName().toLowerCase(Locale.ROOT);
+        }
+        return "";
+    }
+
     // --- Private Loggers for Events ---
+    // Event dicatat ke outbox dalam transaksi yang sama; OutboxRelay yang mengirim ke RabbitMQ.
 
     private void publishBukuCreatedEvent(BukuWriteModel buku) {
-        try {
-            BukuCreatedEvent event = new BukuCreatedEvent(
-                buku.getId(),
-                buku.getKodeBuku(),
-                buku.getJudul(),
-                buku.getPengarang(),
-                buku.getPenerbit(),
-                buku.getTahunTerbit()
-            );
-            rabbitTemplate.convertAndSend(exchange, routingKey, event);
-            logger.info("EVENT PUBLISHED: BukuCreatedEvent dikirim untuk ID [{}]", buku.getId());
-        } catch (Exception e) {
-            logger.error("EVENT ERROR: Gagal mengirim BukuCreatedEvent: {}", e.getMessage());
-        }
+        BukuCreatedEvent event = new BukuCreatedEvent(
+            buku.getId(),
+            buku.getKodeBuku(),
+            buku.getJudul(),
+            buku.getPengarang(),
+            buku.getPenerbit(),
+            buku.getTahunTerbit(),
+            buku.getVersion(),
+            buku.getUpdatedAt()
+        );
+        outboxWriter.append(buku.getId(), event);
+        logger.info("EVENT QUEUED: BukuCreatedEvent dicatat ke outbox untuk ID [{}]", buku.getId());
     }
 
     private void publishBukuUpdatedEvent(BukuWriteModel buku) {
-        try {
-            BukuUpdatedEvent event = new BukuUpdatedEvent(
+        BukuUpdatedEvent event = new BukuUpdatedEvent(
+            buku.getId(),
+            buku.getKodeBuku(),
+            buku.getJudul(),
+            buku.getPengarang(),
+            buku.getPenerbit(),
+            buku.getTahunTerbit(),
+            buku.getVersion(),
+            buku.getUpdatedAt()
+        );
+        outboxWriter.append(buku.getId(), event);
+        logger.info("EVENT QUEUED: BukuUpdatedEvent dicatat ke outbox untuk ID [{}]", buku.getId());
+    }
+
+    private void publishBukuImportedEvent(List<BukuWriteModel> saved, Instant updatedAt) {
+        List<BukuImportedEvent.Item> items = saved.stream()
+            .map(buku -> new BukuImportedEvent.Item(
                 buku.getId(),
                 buku.getKodeBuku(),
                 buku.getJudul(),
                 buku.getPengarang(),
                 buku.getPenerbit(),
-                buku.getTahunTerbit()
-            );
-            rabbitTemplate.convertAndSend(exchange, routingKey, event);
-            logger.info("EVENT PUBLISHED: BukuUpdatedEvent dikirim untuk ID [{}]", buku.getId());
-        } catch (Exception e) {
-            logger.error("EVENT ERROR: Gagal mengirim BukuUpdatedEvent: {}", e.getMessage());
-        }
+                buku.getTahunTerbit()))
+            .toList();
+        // Semua buku di chunk baru dibuat, jadi versinya sama
+        BukuImportedEvent event = new BukuImportedEvent(items, saved.get(0).getVersion(), updatedAt);
+        outboxWriter.append(saved.get(0).getId(), event);
+        logger.info("EVENT QUEUED: BukuImportedEvent ({} buku) dicatat ke outbox", items.size());
     }
 
     private void publishBukuDeletedEvent(UUID id) {
-        try {
-            BukuDeletedEvent event = new BukuDeletedEvent(id);
-            rabbitTemplate.convertAndSend(exchange, routingKey, event);
-            logger.info("EVENT PUBLISHED: BukuDeletedEvent dikirim untuk ID [{}]", id);
-        } catch (Exception e) {
-            logger.error("EVENT ERROR: Gagal mengirim BukuDeletedEvent: {}", e.getMessage());
-        }
+        BukuDeletedEvent event = new BukuDeletedEvent(id);
+        outboxWriter.append(id, event);
+        logger.info("EVENT QUEUED: BukuDeletedEvent dicatat ke outbox untuk ID [{}]", id);
     }
 }
\ No newline at end of file
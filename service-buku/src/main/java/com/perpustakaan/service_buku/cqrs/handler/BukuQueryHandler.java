@@ -1,28 +1,97 @@
 package com.perpustakaan.service_buku.cqrs.handler;
 
+import com.perpustakaan.service_buku.cache.BukuReadCache;
 import com.perpustakaan.service_buku.cqrs.query.*;
+import com.perpustakaan.service_buku.dto.BukuBatchResponse;
+import com.perpustakaan.service_buku.dto.CursorPage;
 import com.perpustakaan.service_buku.entity.query.BukuReadModel;
+import com.perpustakaan.service_buku.event.ProjectionProgress;
 import com.perpustakaan.service_buku.repository.query.BukuQueryRepository;
+import com.perpustakaan.service_buku.search.KataKunci;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
 @Component
 public class BukuQueryHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(BukuQueryHandler.class);
+
+    // Hanya sort key yang punya index (sortKey, _id) di read model
+    private static final Map<String, Function<BukuReadModel, String>> CURSOR_SORT_KEYS = Map.of(
+        "id", BukuReadModel::getId,
+        "judul", BukuReadModel::getJudul,
+        "kodeBuku", BukuReadModel::getKodeBuku);
+
+    // Kata di luar batas ini diabaikan supaya satu query tidak memicu scan text index berkali-kali
+    private static final int MAX_SEARCH_TERMS = 8;
     
     @Autowired
     private BukuQueryRepository bukuRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BukuReadCache bukuReadCache;
+
+    @Autowired
+    private ProjectionProgress projectionProgress;
+
+    @Value("${perpustakaan.query.batch-max-ids:5000}")
+    private int maxBatchIds;
+
+    @Value("${perpustakaan.query.cursor-max-size:200}")
+    private int maxCursorSize;
+
+    @Value("${perpustakaan.query.search-max-size:50}")
+    private int maxSearchSize;
+
+    private Timer searchTimer;
+
+    @Autowired
+    void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.searchTimer = Timer.builder("buku.search")
+            .description("Pencarian katalog lewat text index buku_read")
+            .serviceLevelObjectives(Duration.ofMillis(20))
+            .register(meterRegistry);
+    }
     
     public BukuReadModel handle(GetBukuByIdQuery query) {
         
         logger.debug("Handling GetBukuByIdQuery for ID: {}", query.getId());
-        return bukuRepository.findById(query.getId()).orElse(null);
+        if (query.getMinVersion() == null) {
+            return bukuReadCache.getById(query.getId(), id -> bukuRepository.findById(id).orElse(null));
+        }
+        // Hint invalidasi dari instance lain bisa tertinggal, jadi penantian membaca MongoDB langsung
+        BukuReadModel buku = projectionProgress.awaitVersion(
+            () -> bukuRepository.findById(query.getId()).orElse(null), BukuReadModel::getVersion, query.getMinVersion());
+        if (buku != null) {
+            bukuReadCache.refresh(Map.of(buku.getId(), buku), List.of());
+        }
+        return buku;
     }
     
     public Page<BukuReadModel> handle(GetAllBukuQuery query) {
@@ -32,12 +101,92 @@ public class BukuQueryHandler {
             query.getSize(), 
             Sort.by(query.getSortBy()).ascending()
         );
-        return bukuRepository.findAll(pageRequest);
+        // Tanpa kataKunci: hanya dipakai text index, bukan isi daftar
+        Query page = new Query().with(pageRequest);
+        page.fields().exclude(BukuReadModel.KATA_KUNCI);
+        return PageableExecutionUtils.getPage(mongoTemplate.find(page, BukuReadModel.class), pageRequest,
+            () -> mongoTemplate.count(new Query(), BukuReadModel.class));
+    }
+
+    /**
+     * Pencarian katalog lewat text index buku_search (judul > pengarang > penerbit > awalan kata),
+     * diurutkan skor relevansi lalu id supaya halaman stabil. Count hanya dijalankan jika total
+     * tidak bisa disimpulkan dari halaman yang didapat.
+     */
+    public Page<BukuReadModel> handle(SearchBukuQuery query) {
+        List<String> tokens = KataKunci.tokens(query.getQ());
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Parameter q wajib berisi minimal satu kata");
+        }
+        if (query.getPage() < 0 || query.getSize() < 1 || query.getSize() > maxSearchSize) {
+            throw new IllegalArgumentException("Page minimal 0 dan size 1.." + maxSearchSize);
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : tokens.subList(0, Math.min(tokens.size(), MAX_SEARCH_TERMS))) {
+            terms.add(token);
+            // kataKunci hanya menyimpan awalan sampai MAX_PREFIX huruf
+            if (token.length() > KataKunci.MAX_PREFIX) {
+                terms.add(token.substring(0, KataKunci.MAX_PREFIX));
+            }
+        }
+        logger.debug("Handling SearchBukuQuery - terms: {}, page: {}, size: {}", terms, query.getPage(), query.getSize());
+
+        TextCriteria criteria = TextCriteria.forDefaultLanguage().matchingAny(terms.toArray(String[]::new));
+        PageRequest pageRequest = PageRequest.of(query.getPage(), query.getSize());
+        Query search = TextQuery.queryText(criteria).sortByScore()
+            .with(Sort.by(Sort.Order.asc("id")))
+            .with(pageRequest);
+        search.fields().exclude(BukuReadModel.KATA_KUNCI);
+
+        return searchTimer.record(() -> PageableExecutionUtils.getPage(
+            mongoTemplate.find(search, BukuReadModel.class), pageRequest,
+            () -> mongoTemplate.count(TextQuery.queryText(criteria), BukuReadModel.class)));
+    }
+
+    public CursorPage<BukuReadModel> handle(GetBukuCursorQuery query) {
+        KeysetCursor.Position after = KeysetCursor.decode(query.getAfter());
+        String sortBy = after != null ? after.sortBy() : query.getSortBy();
+        logger.debug("Handling GetBukuCursorQuery - sortBy: {}, size: {}, after: {}", sortBy, query.getSize(), after);
+        Query seek = KeysetCursor.seek(sortBy, CURSOR_SORT_KEYS, after, query.getSize(), maxCursorSize);
+        seek.fields().exclude(BukuReadModel.KATA_KUNCI);
+        List<BukuReadModel> rows = mongoTemplate.find(seek, BukuReadModel.class);
+        return KeysetCursor.page(rows, query.getSize(), sortBy, CURSOR_SORT_KEYS);
     }
     
     // Fix: Ganti dari 'findByNomorbuku' menjadi 'findByKodeBuku'
     public BukuReadModel handle(GetBukuByNomorQuery query) {
         logger.debug("Handling GetBukuByNomorQuery for kode: {}", query.getNomorBuku());
-        return bukuRepository.findByKodeBuku(query.getNomorBuku());
+        return bukuReadCache.getByKode(query.getNomorBuku(), bukuRepository::findByKodeBuku);
+    }
+
+    public BukuBatchResponse handle(GetBukuByIdsQuery query) {
+        List<String> keys = query.getIds().stream()
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+        if (keys.size() > maxBatchIds) {
+            throw new IllegalArgumentException("Maksimal " + maxBatchIds + " ID per request, diterima: " + keys.size());
+        }
+        logger.debug("Handling GetBukuByIdsQuery for {} keys (byKode: {})", keys.size(), query.isByKode());
+
+        // Satu query $in, lalu disusun ulang mengikuti urutan request
+        List<BukuReadModel> found = query.isByKode()
+            ? bukuRepository.findByKodeBukuIn(keys)
+            : bukuRepository.findAllById(keys);
+        Function<BukuReadModel, String> keyOf = query.isByKode() ? BukuReadModel::getKodeBuku : BukuReadModel::getId;
+        Map<String, BukuReadModel> byKey = new HashMap<>();
+        found.forEach(model -> byKey.putIfAbsent(keyOf.apply(model), model));
+
+        List<BukuReadModel> items = new ArrayList<>(byKey.size());
+        List<String> missing = new ArrayList<>();
+        for (String key : keys) {
+            BukuReadModel model = byKey.get(key);
+            if (model != null) {
+                items.add(model);
+            } else {
+                missing.add(key);
+            }
+        }
+        return new BukuBatchResponse(items, missing);
     }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.perpustakaan.service_buku.cqrs.handler;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.perpustakaan.service_buku.dto.CursorPage;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination di atas read model MongoDB.
+ * Posisi disimpan di cursor opaque (sort key, nilai terakhir, id terakhir) sehingga
+ * halaman berikutnya cukup seek lewat index (sortKey, _id) tanpa skip dan tanpa count().
+ *
+ * Sort key hanya field String (lihat sortKeys di handler): nilai di cursor selalu string JSON,
+ * jadi seek membandingkan dengan tipe yang sama persis seperti yang disimpan di MongoDB.
+ */
+final class KeysetCursor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String ID = "id";
+
+    record Position(String sortBy, String value, String id) {}
+
+    private KeysetCursor() {
+    }
+
+    static Position decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            Map<String, Object> raw = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), new TypeReference<>() {});
+            Object value = raw.get("v");
+            if (!(raw.get("s") instanceof String sortBy) || !(raw.get(ID) instanceof String id)
+                    || (value != null && !(value instanceof String))) {
+                throw new IllegalArgumentException("Cursor tidak valid");
+            }
+            return new Position(sortBy, (String) value, id);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor tidak valid: " + cursor);
+        }
+    }
+
+    static <T> Query seek(String sortBy, Map<String, Function<T, String>> sortKeys, Position after, int size, int maxSize) {
+        if (!sortKeys.containsKey(sortBy)) {
+            throw new IllegalArgumentException("Sort key '" + sortBy + "' tidak didukung untuk cursor, gunakan: " + sortKeys.keySet());
+        }
+        if (size < 1 || size > maxSize) {
+            throw new IllegalArgumentException("Size cursor harus 1.." + maxSize);
+        }
+
+        Query query = new Query().limit(size + 1);
+        if (ID.equals(sortBy)) {
+            query.with(Sort.by(Sort.Order.asc(ID)));
+            if (after != null) {
+                query.addCriteria(Criteria.where(ID).gt(after.id()));
+            }
+            return query;
+        }
+
+        query.with(Sort.by(Sort.Order.asc(sortBy), Sort.Order.asc(ID)));
+        if (after != null) {
+            // null diurutkan paling awal oleh MongoDB, jadi setelah null semua nilai non-null masih tersisa
+            Criteria sameKey = Criteria.where(sortBy).is(after.value()).and(ID).gt(after.id());
+            Criteria nextKey = after.value() == null
+                ? Criteria.where(sortBy).ne(null)
+                : Criteria.where(sortBy).gt(after.value());
+            query.addCriteria(new Criteria().orOperator(nextKey, sameKey));
+        }
+        return query;
+    }
+
+    static <T> CursorPage<T> page(List<T> rows, int size, String sortBy, Map<String, Function<T, String>> sortKeys) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, rows.size());
+        }
+        List<T> items = new ArrayList<>(rows.subList(0, size));
+        T last = items.get(size - 1);
+        String value = ID.equals(sortBy) ? null : sortKeys.get(sortBy).apply(last);
+        return new CursorPage<>(items, encode(sortBy, value, sortKeys.get(ID).apply(last)), items.size());
+    }
+
+    private static String encode(String sortBy, String value, String id) {
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("s", sortBy);
+        raw.put("v", value);
+        raw.put(ID, id);
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(raw));
+        } catch (IOException e) {
+            throw new IllegalStateException("Gagal membuat cursor", e);
+        }
+    }
+}
@@ -9,4 +9,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class GetBukuByIdQuery {
     private String id;
-}
\ No newline at end of file
+    // Versi minimal (token dari response command); null = baca apa adanya
+    private Long minVersion;
+
+    public GetBukuByIdQuery(String id) {
+        this(id, null);
+    }
+}
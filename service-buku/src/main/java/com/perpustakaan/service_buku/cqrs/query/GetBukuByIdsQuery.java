@@ -0,0 +1,15 @@
+package com.perpustakaan.service_buku.cqrs.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GetBukuByIdsQuery {
+    private List<String> ids;
+    private boolean byKode; // true: ids berisi kode buku, bukan UUID
+}
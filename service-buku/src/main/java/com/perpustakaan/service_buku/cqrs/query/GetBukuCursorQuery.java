@@ -0,0 +1,14 @@
+package com.perpustakaan.service_buku.cqrs.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GetBukuCursorQuery {
+    private String after; // cursor dari halaman sebelumnya, kosong = halaman pertama
+    private Integer size = 10;
+    private String sortBy = "judul";
+}
@@ -0,0 +1,14 @@
+package com.perpustakaan.service_buku.cqrs.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchBukuQuery {
+    private String q;          // kata / awalan kata dari judul, pengarang, penerbit
+    private Integer page = 0;
+    private Integer size = 10;
+}
@@ -0,0 +1,22 @@
+package com.perpustakaan.service_buku.dto;
+
+import com.perpustakaan.service_buku.entity.query.BukuReadModel;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Hasil multi-get buku, urut sesuai request")
+public class BukuBatchResponse {
+
+    @Schema(description = "Data yang ditemukan, urut sesuai urutan ID pada request")
+    private List<BukuReadModel> items;
+
+    @Schema(description = "ID/kode dari request yang tidak ditemukan di Read Model")
+    private List<String> missing;
+}
@@ -0,0 +1,46 @@
+package com.perpustakaan.service_buku.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Ringkasan bulk import: jumlah baris yang tersimpan dan error per baris")
+public class BulkImportResponse {
+
+    @Schema(description = "Jumlah baris data yang dibaca (tanpa header CSV dan baris kosong)")
+    private long total;
+
+    @Schema(description = "Jumlah baris yang tersimpan di Write Model")
+    private long imported;
+
+    @Schema(description = "Jumlah baris yang ditolak")
+    private long failed;
+
+    @Schema(description = "Error per baris, paling banyak perpustakaan.import.max-errors entry")
+    private List<RowError> errors;
+
+    @Schema(description = "true jika jumlah error melebihi batas dan daftar errors dipotong")
+    private boolean errorsTruncated;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Schema(description = "Baris yang ditolak")
+    public static class RowError {
+
+        @Schema(description = "Nomor baris di body request (mulai dari 1, header CSV ikut dihitung)")
+        private long line;
+
+        @Schema(description = "Kode buku pada baris tersebut, jika berhasil dibaca")
+        private String key;
+
+        @Schema(description = "Alasan penolakan")
+        private String message;
+    }
+}
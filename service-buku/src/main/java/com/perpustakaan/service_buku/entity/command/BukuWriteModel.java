@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import java.time.Instant;
 import java.util.UUID;
 
 @Entity
@@ -12,15 +13,23 @@ import java.util.UUID;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "buku")
+@Table(name = "buku", uniqueConstraints = {
+        @UniqueConstraint(name = BukuWriteModel.UK_KODE_BUKU, columnNames = "kode_buku"),
+        @UniqueConstraint(name = BukuWriteModel.UK_JUDUL, columnNames = "judul")
+})
 public class BukuWriteModel {
 
+    // Nama constraint dipakai BukuCommandHandler untuk memetakan pelanggaran ke pesan error
+    public static final String UK_KODE_BUKU = "uk_buku_kode_buku";
+    public static final String UK_JUDUL = "uk_buku_judul";
+
+    // UUID dibuat di aplikasi (assignId) sebelum persist; id tidak bergantung pada generator
+    // Hibernate, sehingga insert massal tinggal di-batch JDBC (hibernate.jdbc.batch_size)
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     @Column(name = "id", updatable = false, nullable = false)
     private UUID id;
 
-    @Column(name = "kode_buku", unique = true, nullable = false)
+    @Column(name = "kode_buku", nullable = false)
     private String kodeBuku;
     
     @Column(name = "judul", nullable = false)
@@ -34,4 +43,19 @@ public class BukuWriteModel {
     
     @Column(name = "tahun_terbit", nullable = false)
     private Integer tahunTerbit;
-}
\ No newline at end of file
+
+    // Dinaikkan JPA di setiap update; ikut dikirim di event sebagai versi Read Model
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    @PrePersist
+    void assignId() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+    }
+}
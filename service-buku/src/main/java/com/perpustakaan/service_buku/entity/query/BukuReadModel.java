@@ -1,10 +1,13 @@
 package com.perpustakaan.service_buku.entity.query;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+import java.util.List;
 
 @Document(collection = "buku_read")
 @Data
@@ -12,6 +15,8 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @AllArgsConstructor
 public class BukuReadModel {
 
+    public static final String KATA_KUNCI = "kataKunci";
+
     @Id
     private String id;
 
@@ -20,4 +25,13 @@ public class BukuReadModel {
     private String pengarang;
     private String penerbit;
     private Integer tahunTerbit;
-}
\ No newline at end of file
+
+    // Awalan kata judul/pengarang/penerbit untuk text index pencarian (lihat KataKunci);
+    // diisi BukuEventListener, tidak ikut response dan tidak dibaca query daftar
+    @JsonIgnore
+    private List<String> kataKunci;
+
+    // Versi write model terakhir yang diproyeksikan; dasar ETag / Last-Modified
+    private Long version;
+    private Instant updatedAt;
+}
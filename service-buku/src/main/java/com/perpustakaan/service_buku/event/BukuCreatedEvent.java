@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.UUID;
 
 @Data
@@ -17,4 +18,6 @@ public class BukuCreatedEvent implements Serializable {
     private String pengarang;
     private String penerbit;
     private Integer tahunTerbit;
+    private Long version;
+    private Instant updatedAt;
 }
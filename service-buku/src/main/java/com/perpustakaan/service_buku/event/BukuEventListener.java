@@ -1,70 +1,114 @@
 package com.perpustakaan.service_buku.event;
 
+import com.perpustakaan.service_buku.cache.BukuReadCache;
 import com.perpustakaan.service_buku.entity.query.BukuReadModel;
-import com.perpustakaan.service_buku.repository.query.BukuQueryRepository;
+import com.perpustakaan.service_buku.search.KataKunci;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.annotation.RabbitHandler;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 @Component
-@RabbitListener(queues = "${perpustakaan.rabbitmq.queue}")
 public class BukuEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(BukuEventListener.class);
 
     @Autowired
-    private BukuQueryRepository queryRepository;
+    private MongoTemplate mongoTemplate;
 
-    @RabbitHandler
-    public void handleCreatedEvent(BukuCreatedEvent event) {
-        logger.info("RabbitMQ Receiver: Create Buku {}", event.getKodeBuku());
-        String idString = event.getId().toString();
-        BukuReadModel model = new BukuReadModel();
-        model.setId(idString);
-        model.setKodeBuku(event.getKodeBuku());
-        model.setJudul(event.getJudul());
-        model.setPengarang(event.getPengarang());
-        model.setPenerbit(event.getPenerbit());
-        model.setTahunTerbit(event.getTahunTerbit());
-        
-        queryRepository.save(model);
-        logger.info("RabbitMQ Receiver: Successfully synced Buku {}", event.getKodeBuku());
-    }
+    @Autowired
+    private MessageConverter messageConverter;
+
+    @Autowired
+    private BukuReadCache bukuReadCache;
+
+    @Autowired
+    private CacheInvalidationPublisher cacheInvalidationPublisher;
 
-    @RabbitHandler
-    public void handleUpdatedEvent(BukuUpdatedEvent event) {
-        String idString = event.getId().toString();
-        logger.info("RabbitMQ Receiver: Update Buku {}", event.getId());
-        
-        BukuReadModel model = queryRepository.findById(idString)
-            .orElse(new BukuReadModel());
+    @Autowired
+    private ProjectionProgress projectionProgress;
 
-        model.setId(idString);
-        model.setKodeBuku(event.getKodeBuku());
-        model.setJudul(event.getJudul());
-        model.setPengarang(event.getPengarang());
-        model.setPenerbit(event.getPenerbit());
-        model.setTahunTerbit(event.getTahunTerbit());
+    /**
+     * Menerima event dalam batch (lihat projectionBatchContainerFactory), menggabungkan
+     * event per ID buku, lalu menerapkannya ke Read Model dengan satu bulkWrite.
+     */
+    @RabbitListener(queues = "${perpustakaan.rabbitmq.queue}", containerFactory = "projectionBatchContainerFactory")
+    public void handleBatch(List<Message> messages) {
+        ProjectionBatch<BukuReadModel> batch = new ProjectionBatch<>(BukuReadModel.class, BukuReadModel::getVersion);
 
-        queryRepository.save(model);
+        for (Message message : messages) {
+            Object event;
+            try {
+                event = messageConverter.fromMessage(message);
+            } catch (MessageConversionException e) {
+                logger.error("RabbitMQ Receiver: Gagal membaca event, dilewati: {}", e.getMessage());
+                continue;
+            }
 
-        logger.info("RabbitMQ Receiver: Successfully synced ID {}", event.getId());
+            if (event instanceof BukuCreatedEvent created) {
+                logger.debug("RabbitMQ Receiver: Create Buku {}", created.getKodeBuku());
+                batch.replace(created.getId().toString(), toReadModel(created.getId().toString(),
+                        created.getKodeBuku(), created.getJudul(), created.getPengarang(),
+                        created.getPenerbit(), created.getTahunTerbit(),
+                        created.getVersion(), created.getUpdatedAt()));
+            } else if (event instanceof BukuUpdatedEvent updated) {
+                logger.debug("RabbitMQ Receiver: Update Buku {}", updated.getId());
+                batch.replace(updated.getId().toString(), toReadModel(updated.getId().toString(),
+                        updated.getKodeBuku(), updated.getJudul(), updated.getPengarang(),
+                        updated.getPenerbit(), updated.getTahunTerbit(),
+                        updated.getVersion(), updated.getUpdatedAt()));
+            } else if (event instanceof BukuImportedEvent imported) {
+                logger.debug("RabbitMQ Receiver: Import {} Buku", imported.getItems().size());
+                for (BukuImportedEvent.Item item : imported.getItems()) {
+                    batch.replace(item.getId().toString(), toReadModel(item.getId().toString(),
+                            item.getKodeBuku(), item.getJudul(), item.getPengarang(),
+                            item.getPenerbit(), item.getTahunTerbit(),
+                            imported.getVersion(), imported.getUpdatedAt()));
+                }
+            } else if (event instanceof BukuDeletedEvent deleted) {
+                logger.debug("RabbitMQ Receiver: Delete Buku {}", deleted.getId());
+                batch.delete(deleted.getId().toString());
+            } else {
+                logger.warn("RabbitMQ Receiver: Tipe event tidak dikenal: {}", event.getClass().getName());
+            }
+        }
 
+        batch.flush(mongoTemplate);
+        projectionProgress.applied("buku", messages);
+        bukuReadCache.refresh(batch.replacements(), batch.invalidatedIds());
+        cacheInvalidationPublisher.publish(touchedIds(batch));
+        logger.info("RabbitMQ Receiver: Successfully synced {} event ({} dokumen Buku)", messages.size(), batch.size());
     }
 
-    @RabbitHandler
-    public void handleDeletedEvent(BukuDeletedEvent event) {
-        String idString = event.getId().toString();
-        logger.info("RabbitMQ Receiver: Delete Buku {}", event.getId());
-        if (queryRepository.existsById(idString)) {
-            queryRepository.deleteById(idString);
-        } else {
-            logger.warn("RabbitMQ Receiver: Buku ID {} not found for deletion", event.getId());
-        }
-        logger.info("RabbitMQ Receiver: Successfully deleted ID {}", event.getId());
+    private BukuReadModel toReadModel(String id, String kodeBuku, String judul, String pengarang,
+                                      String penerbit, Integer tahunTerbit, Long version, Instant updatedAt) {
+        BukuReadModel model = new BukuReadModel();
+        model.setId(id);
+        model.setKodeBuku(kodeBuku);
+        model.setJudul(judul);
+        model.setPengarang(pengarang);
+        model.setPenerbit(penerbit);
+        model.setTahunTerbit(tahunTerbit);
+        model.setKataKunci(KataKunci.of(judul, pengarang, penerbit));
+        model.setVersion(version);
+        model.setUpdatedAt(updatedAt);
+        return model;
+    }
+
+    private static Set<String> touchedIds(ProjectionBatch<BukuReadModel> batch) {
+        Set<String> ids = new LinkedHashSet<>(batch.replacements().keySet());
+        ids.addAll(batch.invalidatedIds());
+        return ids;
     }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.perpustakaan.service_buku.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Satu event untuk satu chunk bulk import. Semua buku di chunk baru dibuat dalam transaksi
+ * yang sama, jadi version dan updatedAt cukup dikirim sekali untuk seluruh item.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BukuImportedEvent implements Serializable {
+    private List<Item> items;
+    private Long version;
+    private Instant updatedAt;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item implements Serializable {
+        private UUID id;
+        private String kodeBuku;
+        private String judul;
+        private String pengarang;
+        private String penerbit;
+        private Integer tahunTerbit;
+    }
+}
@@ -0,0 +1,50 @@
+package com.perpustakaan.service_buku.event;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Mengirim hint invalidasi ke fanout exchange setelah Read Model berubah, supaya
+ * response cache di gateway dan BukuReadCache di instance lain tidak menunggu TTL.
+ * Hanya hint: jika gagal terkirim, entry tetap kedaluwarsa lewat TTL.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${perpustakaan.cache.invalidation-exchange}")
+    private String exchange;
+
+    // Penanda instance pengirim; instance ini sudah me-refresh cache-nya sendiri
+    private final String origin = UUID.randomUUID().toString();
+
+    public String origin() {
+        return origin;
+    }
+
+    public void publish(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            rabbitTemplate.convertAndSend(exchange, "", Map.of("resource", "buku", "origin", origin, "ids", List.copyOf(ids)));
+            logger.debug("CACHE HINT SENT: {} id buku", ids.size());
+        } catch (AmqpException e) {
+            logger.warn("CACHE HINT ERROR: Gagal mengirim hint invalidasi: {}", e.getMessage());
+        }
+    }
+}
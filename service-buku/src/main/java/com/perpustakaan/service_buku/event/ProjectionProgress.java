@@ -0,0 +1,116 @@
+package com.perpustakaan.service_buku.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.amqp.core.Message;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Progres projection Read Model per listener:
+ * <ul>
+ *   <li>{@code projection.lag}: waktu dari commit di Write Model (timestamp baris outbox) sampai batch ditulis ke MongoDB;</li>
+ *   <li>{@code projection.high.water.mark}: sequence outbox tertinggi yang sudah diproyeksikan instance ini.</li>
+ * </ul>
+ * Query dengan minVersion menunggu di sini; setiap flush batch membangunkan query yang sedang menunggu,
+ * sedangkan batch yang diproyeksikan instance lain terlihat lewat polling berkala.
+ */
+@Component
+public class ProjectionProgress {
+
+    private final MeterRegistry meterRegistry;
+    private final Duration maxWait;
+    private final long pollIntervalNanos;
+    private final Map<String, Timer> lagTimers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> highWaterMarks = new ConcurrentHashMap<>();
+    private final AtomicReference<CompletableFuture<Void>> nextFlush = new AtomicReference<>(new CompletableFuture<>());
+
+    public ProjectionProgress(MeterRegistry meterRegistry,
+                              @Value("${perpustakaan.consistency.max-wait-ms:2000}") long maxWaitMs,
+                              @Value("${perpustakaan.consistency.poll-interval-ms:50}") long pollIntervalMs) {
+        this.meterRegistry = meterRegistry;
+        this.maxWait = Duration.ofMillis(maxWaitMs);
+        this.pollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(pollIntervalMs);
+    }
+
+    /** Dipanggil listener setelah batch berhasil ditulis ke MongoDB. */
+    void applied(String projection, List<Message> messages) {
+        Timer lag = lagTimers.computeIfAbsent(projection, name -> Timer.builder("projection.lag")
+                .description("Commit di Write Model sampai terlihat di Read Model")
+                .tag("projection", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        AtomicLong highWaterMark = highWaterMarks.computeIfAbsent(projection, name ->
+                meterRegistry.gauge("projection.high.water.mark", Tags.of("projection", name), new AtomicLong()));
+
+        long now = System.currentTimeMillis();
+        for (Message message : messages) {
+            Date committedAt = message.getMessageProperties().getTimestamp();
+            if (committedAt != null) {
+                lag.record(Math.max(0, now - committedAt.getTime()), TimeUnit.MILLISECONDS);
+            }
+            if (message.getMessageProperties().getHeader(OutboxRelay.SEQUENCE_HEADER) instanceof Number sequence) {
+                highWaterMark.accumulateAndGet(sequence.longValue(), Math::max);
+            }
+        }
+        nextFlush.getAndSet(new CompletableFuture<>()).complete(null);
+    }
+
+    /**
+     * Membaca ulang sampai versi dokumen >= minVersion atau batas tunggu habis.
+     * Mengembalikan hasil baca terakhir (bisa null / masih lama); pemanggil yang memutuskan responsnya.
+     */
+    public <T> T awaitVersion(Supplier<T> read, Function<T, Long> versionOf, long minVersion) {
+        long start = System.nanoTime();
+        long deadline = start + maxWait.toNanos();
+        T current;
+        while (true) {
+            // Diambil sebelum membaca, supaya flush di antara baca dan tunggu tidak terlewat
+            CompletableFuture<Void> flushed = nextFlush.get();
+            current = read.get();
+            Long version = current != null ? versionOf.apply(current) : null;
+            if (version != null && version >= minVersion) {
+                recordWait(start, "reached");
+                return current;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                recordWait(start, "timeout");
+                return current;
+            }
+            try {
+                flushed.get(Math.min(remaining, pollIntervalNanos), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // Poll berikutnya: batch bisa saja diproyeksikan instance lain
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return current;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private void recordWait(long startNanos, String outcome) {
+        Timer.builder("projection.consistency.wait")
+                .description("Waktu tunggu query minVersion")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
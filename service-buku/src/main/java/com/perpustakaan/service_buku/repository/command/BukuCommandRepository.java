@@ -1,19 +1,16 @@
 package com.perpustakaan.service_buku.repository.command;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import com.perpustakaan.service_buku.entity.command.BukuWriteModel;
 
+// Keunikan kode buku / judul dijaga unique constraint, bukan query exists/findBy sebelum simpan
 @Repository
 public interface BukuCommandRepository extends JpaRepository<BukuWriteModel, UUID> {
-    
-    boolean existsByKodeBuku(String kodeBuku);
-    
-    boolean existsByJudul(String judul); 
 
-    Optional<BukuWriteModel> findByKodeBuku(String kodeBuku);
-    
-    Optional<BukuWriteModel> findByJudul(String judul); 
+    // Probe gabungan untuk bulk import: satu query per chunk untuk kode dan judul sekaligus
+    List<BukuWriteModel> findByKodeBukuInOrJudulIn(Collection<String> kodeBuku, Collection<String> judul);
 }
\ No newline at end of file
@@ -4,7 +4,11 @@ import com.perpustakaan.service_buku.entity.query.BukuReadModel;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface BukuQueryRepository extends MongoRepository<BukuReadModel, String> {
     BukuReadModel findByKodeBuku(String kodeBuku);
+    List<BukuReadModel> findByKodeBukuIn(Collection<String> kodeBuku);
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.perpustakaan.service_buku.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalisasi teks untuk pencarian katalog: huruf kecil, tanpa diakritik, dipecah per kata
+ * (huruf/angka). Field kataKunci di Read Model berisi awalan (edge n-gram) setiap kata judul,
+ * pengarang dan penerbit, sehingga text index MongoDB (yang hanya mencocokkan kata utuh) juga
+ * menemukan "pemrog" di "Pemrograman".
+ */
+public final class KataKunci {
+
+    public static final int MIN_PREFIX = 2;
+    public static final int MAX_PREFIX = 20;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private KataKunci() {
+    }
+
+    /** Kata ternormalisasi, urut sesuai kemunculan dan tanpa duplikat. */
+    public static List<String> tokens(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : NON_WORD.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return List.copyOf(tokens);
+    }
+
+    /** Awalan MIN_PREFIX..MAX_PREFIX huruf dari setiap kata; kata yang lebih pendek disimpan utuh. */
+    public static List<String> of(String... fields) {
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (String field : fields) {
+            for (String token : tokens(field)) {
+                if (token.length() < MIN_PREFIX) {
+                    prefixes.add(token);
+                    continue;
+                }
+                for (int length = MIN_PREFIX; length <= Math.min(token.length(), MAX_PREFIX); length++) {
+                    prefixes.add(token.substring(0, length));
+                }
+            }
+        }
+        return new ArrayList<>(prefixes);
+    }
+}
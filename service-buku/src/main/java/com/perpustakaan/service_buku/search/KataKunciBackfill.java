@@ -0,0 +1,73 @@
+package com.perpustakaan.service_buku.search;
+
+import com.perpustakaan.service_buku.entity.query.BukuReadModel;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Mengisi kataKunci untuk dokumen buku_read yang diproyeksikan sebelum pencarian ada. Berjalan di
+ * background setelah aplikasi siap, hanya membaca dokumen tanpa kataKunci, dan setiap update
+ * dijaga versi dokumen sehingga tidak menimpa hasil BukuEventListener yang lebih baru.
+ */
+@Component
+@RequiredArgsConstructor
+public class KataKunciBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(KataKunciBackfill.class);
+    private static final int CHUNK_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        CompletableFuture.runAsync(() -> {
+            Query missing = Query.query(Criteria.where(BukuReadModel.KATA_KUNCI).exists(false));
+            missing.fields().include("judul", "pengarang", "penerbit", "version");
+
+            long updated = 0;
+            try (Stream<BukuReadModel> stream = mongoTemplate.stream(missing, BukuReadModel.class)) {
+                Iterator<BukuReadModel> iterator = stream.iterator();
+                BulkOperations bulk = null;
+                int pending = 0;
+                while (iterator.hasNext()) {
+                    BukuReadModel buku = iterator.next();
+                    if (bulk == null) {
+                        bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BukuReadModel.class);
+                    }
+                    Query sameVersion = Query.query(Criteria.where("id").is(buku.getId())
+                            .and("version").is(buku.getVersion())
+                            .and(BukuReadModel.KATA_KUNCI).exists(false));
+                    bulk.updateOne(sameVersion, Update.update(BukuReadModel.KATA_KUNCI,
+                            KataKunci.of(buku.getJudul(), buku.getPengarang(), buku.getPenerbit())));
+                    if (++pending == CHUNK_SIZE) {
+                        updated += bulk.execute().getModifiedCount();
+                        bulk = null;
+                        pending = 0;
+                    }
+                }
+                if (bulk != null) {
+                    updated += bulk.execute().getModifiedCount();
+                }
+            }
+            if (updated > 0) {
+                logger.info("SEARCH BACKFILL: kataKunci diisi untuk {} dokumen buku_read", updated);
+            }
+        }).exceptionally(e -> {
+            logger.warn("SEARCH BACKFILL ERROR: Gagal mengisi kataKunci buku_read, akan dicoba lagi saat restart: {}", e.getMessage());
+            return null;
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package com.perpustakaan.service_buku.cache;
+
+import com.perpustakaan.service_buku.entity.query.BukuReadModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BukuReadCacheTest {
+
+    private final BukuReadCache cache = new BukuReadCache(new SimpleMeterRegistry(), 100, 600);
+
+    @Test
+    void refreshHanyaMemperbaruiEntryYangSudahAda() {
+        cache.getById("a", id -> buku(id, 1L));
+
+        cache.refresh(Map.of("a", buku("a", 2L), "b", buku("b", 1L)), List.of());
+
+        assertThat(cache.getById("a", id -> null).getVersion()).isEqualTo(2L);
+        // "b" tidak dimasukkan oleh refresh, jadi dibaca lewat loader
+        assertThat(cache.getById("b", id -> buku(id, 7L)).getVersion()).isEqualTo(7L);
+    }
+
+    @Test
+    void refreshTidakMenimpaVersiYangLebihBaru() {
+        cache.getById("a", id -> buku(id, 5L));
+
+        cache.refresh(Map.of("a", buku("a", 3L)), List.of());
+
+        assertThat(cache.getById("a", id -> null).getVersion()).isEqualTo(5L);
+    }
+
+    @Test
+    void invalidateMembuangEntry() {
+        cache.getById("a", id -> buku(id, 1L));
+
+        cache.invalidate(List.of("a"));
+
+        assertThat(cache.getById("a", id -> buku(id, 2L)).getVersion()).isEqualTo(2L);
+    }
+
+    private static BukuReadModel buku(String id, Long version) {
+        BukuReadModel model = new BukuReadModel();
+        model.setId(id);
+        model.setKodeBuku("BK-" + id);
+        model.setVersion(version);
+        return model;
+    }
+}
@@ -0,0 +1,115 @@
+package com.perpustakaan.service_buku.cqrs.handler;
+
+import com.perpustakaan.service_buku.dto.CursorPage;
+import com.perpustakaan.service_buku.entity.query.BukuReadModel;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    private static final Map<String, Function<BukuReadModel, String>> SORT_KEYS = Map.of(
+            "id", BukuReadModel::getId,
+            "judul", BukuReadModel::getJudul);
+    private static final int MAX_SIZE = 50;
+
+    @Test
+    void pageTerakhirTanpaCursor() {
+        CursorPage<BukuReadModel> page = KeysetCursor.page(List.of(buku("a", "Atlas")), 2, "judul", SORT_KEYS);
+
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void cursorMembawaNilaiSortKeyDanIdBarisTerakhir() {
+        List<BukuReadModel> rows = List.of(buku("a", "Atlas"), buku("b", "Bumi"), buku("c", "Cantik"));
+
+        CursorPage<BukuReadModel> page = KeysetCursor.page(rows, 2, "judul", SORT_KEYS);
+
+        assertThat(page.getItems()).extracting(BukuReadModel::getId).containsExactly("a", "b");
+        assertThat(KeysetCursor.decode(page.getNextCursor()))
+                .isEqualTo(new KeysetCursor.Position("judul", "Bumi", "b"));
+    }
+
+    @Test
+    void cursorNilaiNullTetapValid() {
+        List<BukuReadModel> rows = List.of(buku("a", null), buku("b", "Bumi"));
+
+        CursorPage<BukuReadModel> page = KeysetCursor.page(rows, 1, "judul", SORT_KEYS);
+
+        assertThat(KeysetCursor.decode(page.getNextCursor()))
+                .isEqualTo(new KeysetCursor.Position("judul", null, "a"));
+    }
+
+    @Test
+    void decodeMenolakCursorRusakAtauNilaiBukanString() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode(" ")).isNull();
+        assertThatThrownBy(() -> KeysetCursor.decode("bukan-base64!"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor("{\"s\":\"judul\"}")))
+                .isInstanceOf(IllegalArgumentException.class);
+        // Nilai angka akan dibandingkan sebagai number di MongoDB, bukan string yang tersimpan
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor("{\"s\":\"judul\",\"v\":42,\"id\":\"a\"}")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void seekHalamanPertamaUrutSortKeyLaluId() {
+        Query query = KeysetCursor.seek("judul", SORT_KEYS, null, 10, MAX_SIZE);
+
+        assertThat(query.getLimit()).isEqualTo(11);
+        assertThat(query.getSortObject()).isEqualTo(new Document("judul", 1).append("id", 1));
+        assertThat(query.getQueryObject()).isEmpty();
+    }
+
+    @Test
+    void seekSetelahPosisiMemakaiNilaiDanIdTerakhir() {
+        KeysetCursor.Position after = new KeysetCursor.Position("judul", "Bumi", "b");
+
+        Query query = KeysetCursor.seek("judul", SORT_KEYS, after, 10, MAX_SIZE);
+
+        assertThat(query.getQueryObject().toJson())
+                .contains("{\"judul\": {\"$gt\": \"Bumi\"}}")
+                .contains("{\"judul\": \"Bumi\", \"id\": {\"$gt\": \"b\"}}");
+    }
+
+    @Test
+    void seekUrutIdHanyaMembandingkanId() {
+        Query query = KeysetCursor.seek("id", SORT_KEYS, new KeysetCursor.Position("id", null, "b"), 10, MAX_SIZE);
+
+        assertThat(query.getSortObject()).isEqualTo(new Document("id", 1));
+        assertThat(query.getQueryObject().toJson()).isEqualTo("{\"id\": {\"$gt\": \"b\"}}");
+    }
+
+    @Test
+    void seekMenolakSortKeyDanSizeDiLuarBatas() {
+        assertThatThrownBy(() -> KeysetCursor.seek("tahunTerbit", SORT_KEYS, null, 10, MAX_SIZE))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.seek("judul", SORT_KEYS, null, 0, MAX_SIZE))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.seek("judul", SORT_KEYS, null, MAX_SIZE + 1, MAX_SIZE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static BukuReadModel buku(String id, String judul) {
+        BukuReadModel buku = new BukuReadModel();
+        buku.setId(id);
+        buku.setJudul(judul);
+        return buku;
+    }
+
+    private static String cursor(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,146 @@
+package com.perpustakaan.service_buku.event;
+
+import com.perpustakaan.service_buku.entity.query.ProjectionTombstone;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProjectionBatchTest {
+
+    record Dokumen(String id, Long version) {
+    }
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+    private final BulkOperations tombstones = mock(BulkOperations.class);
+    private final ProjectionBatch<Dokumen> batch = new ProjectionBatch<>(Dokumen.class, Dokumen::version);
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.getCollectionName(Dokumen.class)).thenReturn("dokumen");
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Dokumen.class)).thenReturn(bulk);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProjectionTombstone.class)).thenReturn(tombstones);
+    }
+
+    @Test
+    void replaceVersiTertinggiMenang() {
+        batch.replace("a", new Dokumen("a", 2L));
+        batch.replace("a", new Dokumen("a", 1L));
+
+        assertThat(batch.pendingReplacement("a").version()).isEqualTo(2L);
+
+        batch.replace("a", new Dokumen("a", 3L));
+
+        assertThat(batch.pendingReplacement("a").version()).isEqualTo(3L);
+    }
+
+    @Test
+    void replaceMenggantikanUpdateTertunda() {
+        batch.update("a", new Update().set("judul", "Laskar Pelangi"), 1L);
+        batch.replace("a", new Dokumen("a", 2L));
+
+        assertThat(batch.replacements()).containsOnlyKeys("a");
+        assertThat(batch.invalidatedIds()).isEmpty();
+    }
+
+    @Test
+    void replaceDanUpdateSetelahDeleteDiabaikan() {
+        batch.replace("a", new Dokumen("a", 1L));
+        batch.delete("a");
+        batch.replace("a", new Dokumen("a", 5L));
+        batch.update("a", new Update().set("judul", "Ronggeng Dukuh Paruk"), 6L);
+
+        assertThat(batch.pendingReplacement("a")).isNull();
+        assertThat(batch.replacements()).isEmpty();
+        assertThat(batch.invalidatedIds()).containsExactly("a");
+        assertThat(batch.size()).isEqualTo(1);
+    }
+
+    @Test
+    void updateDigabungDanYangUsangDiabaikan() {
+        batch.update("a", new Update().set("judul", "Laskar Pelangi"), 1L);
+        batch.update("a", new Update().set("penerbit", "Bentang"), 3L);
+        batch.update("a", new Update().set("judul", "Bumi Manusia"), 2L);
+
+        batch.flush(mongoTemplate);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).updateOne(any(Query.class), update.capture());
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertThat(set).containsEntry("judul", "Laskar Pelangi")
+                .containsEntry("penerbit", "Bentang")
+                .containsEntry("version", 3L);
+    }
+
+    @Test
+    void flushUpdateParsialBukanUpsert() {
+        batch.update("a", new Update().set("judul", "Laskar Pelangi"), 4L);
+
+        batch.flush(mongoTemplate);
+
+        ArgumentCaptor<Query> filter = ArgumentCaptor.forClass(Query.class);
+        verify(bulk).updateOne(filter.capture(), any(Update.class));
+        verify(bulk, never()).upsert(any(Query.class), any(Update.class));
+        // Filter versi: hanya dokumen dengan versi lebih kecil (atau tanpa versi) yang ditulis
+        assertThat(filter.getValue().getQueryObject().toJson()).contains("\"$lt\": 4");
+    }
+
+    @Test
+    void flushMenulisTombstoneSebelumMenghapus() {
+        batch.delete("a");
+
+        batch.flush(mongoTemplate);
+
+        InOrder urutan = inOrder(tombstones, bulk);
+        urutan.verify(tombstones).upsert(any(Query.class), any(Update.class));
+        urutan.verify(tombstones).execute();
+        urutan.verify(bulk).remove(any(Query.class));
+        urutan.verify(bulk).execute();
+    }
+
+    @Test
+    void flushMenghapusLagiReplacementYangSudahPunyaTombstone() {
+        batch.replace("a", new Dokumen("a", 7L));
+        batch.replace("b", new Dokumen("b", 1L));
+        when(mongoTemplate.find(any(Query.class), eq(ProjectionTombstone.class)))
+                .thenReturn(List.of(new ProjectionTombstone(ProjectionTombstone.idOf("dokumen", "a"), Instant.now())));
+
+        batch.flush(mongoTemplate);
+
+        verify(bulk).replaceOne(any(Query.class), eq(new Dokumen("a", 7L)), any(FindAndReplaceOptions.class));
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(Dokumen.class));
+        assertThat(removed.getValue().getQueryObject().toJson()).contains("\"a\"").doesNotContain("\"b\"");
+        assertThat(batch.replacements()).containsOnlyKeys("b");
+        assertThat(batch.invalidatedIds()).containsExactly("a");
+    }
+
+    @Test
+    void flushTanpaReplacementTidakMembacaTombstone() {
+        batch.update("a", new Update().set("judul", "Laskar Pelangi"), 1L);
+
+        batch.flush(mongoTemplate);
+
+        verify(mongoTemplate, never()).find(any(Query.class), eq(ProjectionTombstone.class));
+        verify(mongoTemplate, never()).bulkOps(BulkOperations.BulkMode.UNORDERED, ProjectionTombstone.class);
+    }
+}
@@ -0,0 +1,19 @@
+package com.perpustakaan.service_peminjaman.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+/**
+ * LocalDate di Read Model disimpan sebagai BSON Date lewat codec java.time bawaan driver (UTC tengah
+ * malam), bukan konversi Spring yang memakai zona waktu JVM. Nilai yang sama selalu menjadi instant
+ * yang sama, jadi range dan sort di index tanggal konsisten antar instance.
+ */
+@Configuration
+public class MongoConversionConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return MongoCustomConversions.create(adapter -> adapter.useNativeDriverJavaTimeCodecs());
+    }
+}
@@ -0,0 +1,54 @@
+package com.perpustakaan.service_peminjaman.config;
+
+import com.perpustakaan.service_peminjaman.entity.query.PeminjamanReadModel;
+import com.perpustakaan.service_peminjaman.entity.query.ProjectionTombstone;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Index sekunder read model untuk query meja sirkulasi: pinjaman per anggota, per buku, dan yang terlambat.
+ * Field equality (status) di depan field range/sort (tanggalKembali). Dibuat di background setelah
+ * aplikasi siap supaya startup tidak menunggu MongoDB.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ReadModelIndexConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadModelIndexConfig.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        CompletableFuture.runAsync(() -> {
+            IndexOperations indexOps = mongoTemplate.indexOps(PeminjamanReadModel.class);
+            indexOps.ensureIndex(new Index().on("anggotaId", Sort.Direction.ASC).on("status", Sort.Direction.ASC).named("anggotaId_status"));
+            indexOps.ensureIndex(new Index().on("bukuId", Sort.Direction.ASC).on("status", Sort.Direction.ASC).named("bukuId_status"));
+            // _id ikut di index supaya keyset OverdueScanner (tanggalKembali, _id) tidak sort di memori;
+            // menggantikan index status_tanggalKembali yang lama
+            indexOps.ensureIndex(new Index().on("status", Sort.Direction.ASC).on("tanggalKembali", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC).named("status_tanggalKembali_id"));
+            if (indexOps.getIndexInfo().stream().anyMatch(index -> "status_tanggalKembali".equals(index.getName()))) {
+                indexOps.dropIndex("status_tanggalKembali");
+            }
+            // TTL: tombstone hanya perlu hidup selama event usang masih mungkin di-redeliver
+            mongoTemplate.indexOps(ProjectionTombstone.class).ensureIndex(new Index().on("deletedAt", Sort.Direction.ASC)
+                    .expire(Duration.ofDays(7)).named("deletedAt_ttl"));
+            logger.info("INDEX READY: peminjaman_read (anggotaId/bukuId/status)");
+        }).exceptionally(e -> {
+            logger.warn("INDEX ERROR: Gagal membuat index peminjaman_read, akan dicoba lagi saat restart: {}", e.getMessage());
+            return null;
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package com.perpustakaan.service_peminjaman.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Response export streaming: NDJSON (satu dokumen per baris) atau CSV dengan header.
+ * Dokumen ditulis satu per satu dari cursor MongoDB ke output stream. Tulis ke socket yang
+ * penuh ikut menahan cursor (backpressure), jadi memori tetap sebesar satu batch cursor.
+ */
+final class ExportStreams {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportStreams.class);
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            // Kolom CSV mengikuti urutan field read model (id dulu), sama seperti NDJSON
+            .disable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private ExportStreams() {
+    }
+
+    static boolean isSupported(String format) {
+        return "ndjson".equals(format) || "csv".equals(format);
+    }
+
+    /** Cursor dibuka saat body mulai ditulis dan selalu ditutup, termasuk saat client memutus koneksi. */
+    static <T> ResponseEntity<StreamingResponseBody> stream(String format, String name, Class<T> type,
+                                                           ObjectMapper objectMapper, Supplier<Stream<T>> rows) {
+        boolean csv = "csv".equals(format);
+        ObjectWriter writer = (csv
+                ? CSV_MAPPER.writer(CSV_MAPPER.schemaFor(type).withHeader())
+                : objectMapper.writerFor(type).withRootValueSeparator("\n"))
+                // Flush diserahkan ke buffer response, bukan setiap dokumen; output stream
+                // response tetap milik Spring dan tidak ditutup oleh SequenceWriter
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        StreamingResponseBody body = out -> {
+            long count = 0;
+            try (Stream<T> stream = rows.get(); SequenceWriter sequence = writer.writeValues(out)) {
+                Iterator<T> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    sequence.write(iterator.next());
+                    count++;
+                }
+            }
+            if (!csv && count > 0) {
+                out.write('\n');
+            }
+            logger.info("EXPORT SELESAI: {} baris {} ({})", count, name, format);
+        };
+
+        String filename = name + "-export." + format;
+        return ResponseEntity.ok()
+                .contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
@@ -3,11 +3,14 @@ package com.perpustakaan.service_peminjaman.controller;
 import com.perpustakaan.service_peminjaman.cqrs.command.*;
 import com.perpustakaan.service_peminjaman.cqrs.handler.*;
 import com.perpustakaan.service_peminjaman.cqrs.query.*;
+import com.perpustakaan.service_peminjaman.dto.CursorPage;
 import com.perpustakaan.service_peminjaman.dto.PeminjamanRequest;
 import com.perpustakaan.service_peminjaman.entity.command.PeminjamanWriteModel;
 import com.perpustakaan.service_peminjaman.entity.query.PeminjamanReadModel;
+import com.perpustakaan.service_peminjaman.exception.DuplicateActiveLoanException;
 import com.perpustakaan.service_peminjaman.vo.ResponseTemplateVO;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -15,11 +18,18 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/peminjaman")
@@ -31,6 +41,7 @@ public class PeminjamanController {
 
     private final PeminjamanCommandHandler commandHandler;
     private final PeminjamanQueryHandler queryHandler;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @Operation(summary = "Buat Peminjaman Baru", description = "Mencatat transaksi peminjaman buku.")
@@ -47,7 +58,7 @@ public class PeminjamanController {
             );
             
             PeminjamanWriteModel saved = commandHandler.handle(command);
-            return new ResponseEntity<>(saved, HttpStatus.CREATED);
+            return ConsistencyTokens.withToken(HttpStatus.CREATED, saved, saved.getVersion());
         } catch (IllegalArgumentException e) {
             logger.warn("API BAD REQUEST: {}", e.getMessage());
             return ResponseEntity.badRequest().build(); // Atau return error message object
@@ -55,29 +66,121 @@ public class PeminjamanController {
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Detail Peminjaman", description = "Mengambil data peminjaman beserta detail Anggota dan Buku (via RestTemplate).")
-    public ResponseEntity<ResponseTemplateVO> getPeminjaman(@PathVariable("id") UUID id) {
-        logger.debug("API REQUEST: Get Peminjaman ID [{}]", id);
+    @Operation(summary = "Detail Peminjaman", description = "Mengambil data peminjaman beserta detail Anggota dan Buku (via RestTemplate). minVersion (header X-Consistency-Token dari response create/update) menunggu sebentar sampai Read Model menyusul; 503 jika belum.")
+    public ResponseEntity<ResponseTemplateVO> getPeminjaman(
+            @PathVariable("id") UUID id,
+            @RequestParam(required = false) Long minVersion) {
+        logger.debug("API REQUEST: Get Peminjaman ID [{}], minVersion: {}", id, minVersion);
         
-        GetPeminjamanById query = new GetPeminjamanById(id.toString());
+        GetPeminjamanById query = new GetPeminjamanById(id.toString(), minVersion);
         ResponseTemplateVO response = queryHandler.handle(query);
         
+        if (ConsistencyTokens.isBehind(response != null ? response.getPeminjaman().getVersion() : null, minVersion)) {
+            logger.warn("API RESPONSE: Peminjaman ID [{}] belum mencapai versi {} di Read Model.", id, minVersion);
+            return ConsistencyTokens.notYetProjected();
+        }
         if (response != null) {
-            return ResponseEntity.ok(response);
+            // Detail Anggota/Buku ikut menentukan body, jadi ikut masuk ke ETag
+            return ETags.list(response, List.of(response), PeminjamanController::fingerprint);
         }
         logger.warn("API RESPONSE: Peminjaman ID [{}] tidak ditemukan.", id);
         return ResponseEntity.notFound().build();
     }
 
+    @GetMapping("/{id}/summary")
+    @Operation(summary = "Ringkasan Peminjaman", description = "Hanya dokumen peminjaman dari Read Model, tanpa detail Anggota dan Buku. Untuk panggilan antar service yang tidak butuh enrichment.")
+    public ResponseEntity<PeminjamanReadModel> getPeminjamanSummary(@PathVariable("id") UUID id) {
+        logger.debug("API REQUEST: Get Peminjaman Summary ID [{}]", id);
+        PeminjamanReadModel peminjaman = queryHandler.handle(new GetPeminjamanSummary(id.toString()));
+        if (peminjaman == null) {
+            logger.warn("API RESPONSE: Peminjaman ID [{}] tidak ditemukan.", id);
+            return ResponseEntity.notFound().build();
+        }
+        return ETags.list(peminjaman, List.of(peminjaman), PeminjamanController::fingerprint);
+    }
+
     @GetMapping
-    @Operation(summary = "List Peminjaman", description = "Daftar semua transaksi dengan pagination.")
-    public ResponseEntity<Page<PeminjamanReadModel>> getAllPeminjaman(
+    @Operation(summary = "List Peminjaman", description = "Daftar semua transaksi dengan pagination. Gunakan expand=anggota,buku untuk menyertakan detail Anggota dan Buku, atau parameter after (boleh kosong untuk halaman pertama) untuk keyset pagination tanpa total count.")
+    public ResponseEntity<?> getAllPeminjaman(
             @RequestParam(defaultValue = "0") Integer page,
-            @RequestParam(defaultValue = "10") Integer size) {
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String expand,
+            @RequestParam(required = false) String after) {
         
-        logger.debug("API REQUEST: Get All Peminjaman - Page: {}, Size: {}", page, size);
+        if (after != null) {
+            logger.debug("API REQUEST: Get All Peminjaman (cursor) - After: [{}], Size: {}", after, size);
+            try {
+                CursorPage<PeminjamanReadModel> cursorPage = queryHandler.handle(new GetPeminjamanCursor(after, size));
+                return ETags.list(cursorPage, cursorPage.getItems(), PeminjamanController::fingerprint, cursorPage.getNextCursor());
+            } catch (IllegalArgumentException e) {
+                logger.warn("API BAD REQUEST: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        logger.debug("API REQUEST: Get All Peminjaman - Page: {}, Size: {}, Expand: {}", page, size, expand);
+        if (expand != null && !expand.isBlank()) {
+            Set<String> fields = Arrays.stream(expand.split(","))
+                .map(String::trim)
+                .map(String::toLowerCase)
+                .collect(Collectors.toSet());
+            GetAllPeminjamanDetail query = new GetAllPeminjamanDetail(
+                page, size, fields.contains("anggota"), fields.contains("buku"));
+            Page<ResponseTemplateVO> detailPage = queryHandler.handle(query);
+            return ETags.list(detailPage, detailPage.getContent(), PeminjamanController::fingerprint,
+                    detailPage.getNumber(), detailPage.getSize(), detailPage.getTotalElements());
+        }
         GetAllPeminjaman query = new GetAllPeminjaman(page, size);
-        return ResponseEntity.ok(queryHandler.handle(query));
+        Page<PeminjamanReadModel> peminjamanPage = queryHandler.handle(query);
+        return ETags.list(peminjamanPage, peminjamanPage.getContent(), PeminjamanController::fingerprint,
+                peminjamanPage.getNumber(), peminjamanPage.getSize(), peminjamanPage.getTotalElements());
+    }
+
+    @GetMapping("/anggota/{anggotaId}")
+    @Operation(summary = "Peminjaman per Anggota", description = "Transaksi milik satu anggota dengan status tertentu (default DIPINJAM = pinjaman aktif). Dibatasi limit, maksimum perpustakaan.query.max-limit.")
+    public ResponseEntity<List<PeminjamanReadModel>> getByAnggota(
+            @PathVariable("anggotaId") UUID anggotaId,
+            @RequestParam(defaultValue = "DIPINJAM") String status,
+            @RequestParam(defaultValue = "50") Integer limit) {
+        logger.debug("API REQUEST: Get Peminjaman by Anggota [{}] - Status: {}, Limit: {}", anggotaId, status, limit);
+        List<PeminjamanReadModel> items = queryHandler.handle(new GetPeminjamanByAnggota(anggotaId.toString(), status, limit));
+        return ETags.list(items, items, PeminjamanController::fingerprint, anggotaId, status, limit);
+    }
+
+    @GetMapping("/buku/{bukuId}")
+    @Operation(summary = "Peminjaman per Buku", description = "Siapa yang sedang memegang buku ini (status default DIPINJAM). Dibatasi limit, maksimum perpustakaan.query.max-limit.")
+    public ResponseEntity<List<PeminjamanReadModel>> getByBuku(
+            @PathVariable("bukuId") UUID bukuId,
+            @RequestParam(defaultValue = "DIPINJAM") String status,
+            @RequestParam(defaultValue = "50") Integer limit) {
+        logger.debug("API REQUEST: Get Peminjaman by Buku [{}] - Status: {}, Limit: {}", bukuId, status, limit);
+        List<PeminjamanReadModel> items = queryHandler.handle(new GetPeminjamanByBuku(bukuId.toString(), status, limit));
+        return ETags.list(items, items, PeminjamanController::fingerprint, bukuId, status, limit);
+    }
+
+    @GetMapping("/overdue")
+    @Operation(summary = "Peminjaman Terlambat", description = "Transaksi DIPINJAM yang tanggalKembali-nya sudah lewat, paling lama terlambat lebih dulu. Dibatasi limit, maksimum perpustakaan.query.max-limit.")
+    public ResponseEntity<List<PeminjamanReadModel>> getOverdue(@RequestParam(defaultValue = "50") Integer limit) {
+        LocalDate today = LocalDate.now();
+        logger.debug("API REQUEST: Get Peminjaman Overdue - Per: {}, Limit: {}", today, limit);
+        List<PeminjamanReadModel> items = queryHandler.handle(new GetPeminjamanOverdue(today, limit));
+        return ETags.list(items, items, PeminjamanController::fingerprint, today, limit);
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export Peminjaman", description = "Seluruh transaksi sebagai NDJSON (default) atau CSV (format=csv), di-stream langsung dari cursor Read Model tanpa pagination. Filter opsional: from/to (tanggalPinjam, yyyy-MM-dd, inklusif) dan status.")
+    public ResponseEntity<StreamingResponseBody> exportPeminjaman(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String status) {
+        logger.info("API REQUEST: Export Peminjaman - Format: {}, From: {}, To: {}, Status: {}", format, from, to, status);
+        if (!ExportStreams.isSupported(format) || (from != null && to != null && from.isAfter(to))) {
+            logger.warn("API BAD REQUEST: Parameter export tidak valid (format {}, from {}, to {}).", format, from, to);
+            return ResponseEntity.badRequest().build();
+        }
+        ExportPeminjaman query = new ExportPeminjaman(from, to, status);
+        return ExportStreams.stream(format, "peminjaman", PeminjamanReadModel.class, objectMapper,
+                () -> queryHandler.handle(query));
     }
 
     @PutMapping("/{id}")
@@ -98,7 +201,10 @@ public class PeminjamanController {
 
         try {
             PeminjamanWriteModel updated = commandHandler.handle(command);
-            return ResponseEntity.ok(updated);
+            return ConsistencyTokens.withToken(HttpStatus.OK, updated, updated.getVersion());
+        } catch (DuplicateActiveLoanException e) {
+            logger.warn("API BAD REQUEST: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
@@ -125,9 +231,20 @@ public class PeminjamanController {
         logger.info("API REQUEST: Patch Status ID [{}] -> [{}]", id, status);
         try {
             PeminjamanWriteModel updated = commandHandler.handleUpdateStatus(id, status);
-            return ResponseEntity.ok(updated);
+            return ConsistencyTokens.withToken(HttpStatus.OK, updated, updated.getVersion());
+        } catch (DuplicateActiveLoanException e) {
+            logger.warn("API BAD REQUEST: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
     }
+
+    private static String fingerprint(PeminjamanReadModel peminjaman) {
+        return ETags.fingerprint(peminjaman.getId(), peminjaman.getVersion());
+    }
+
+    private static String fingerprint(ResponseTemplateVO detail) {
+        return fingerprint(detail.getPeminjaman()) + ":" + detail.getAnggota() + ":" + detail.getBuku();
+    }
 }
\ No newline at end of file
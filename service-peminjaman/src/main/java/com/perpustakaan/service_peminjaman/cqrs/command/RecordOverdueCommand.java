@@ -0,0 +1,17 @@
+package com.perpustakaan.service_peminjaman.cqrs.command;
+
+import com.perpustakaan.service_peminjaman.event.PeminjamanOverdueEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecordOverdueCommand {
+    private LocalDate asOf;
+    private List<PeminjamanOverdueEvent.Item> items; // satu batch OverdueScanner
+}
@@ -1,5 +1,6 @@
 package com.perpustakaan.service_peminjaman.cqrs.command;
 
+import java.time.LocalDate;
 import java.util.UUID;
 
 import lombok.AllArgsConstructor;
@@ -13,7 +14,7 @@ public class UpdatePeminjamanCommand {
     private UUID id;
     private UUID anggotaId;
     private UUID bukuId;
-    private String tanggalPinjam;
-    private String tanggalKembali;
+    private LocalDate tanggalPinjam;
+    private LocalDate tanggalKembali;
     private String status;
 }
\ No newline at end of file
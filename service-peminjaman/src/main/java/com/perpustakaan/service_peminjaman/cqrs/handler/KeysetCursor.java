@@ -0,0 +1,72 @@
+package com.perpustakaan.service_peminjaman.cqrs.handler;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.perpustakaan.service_peminjaman.dto.CursorPage;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination di atas read model MongoDB, urut menurut _id.
+ * Posisi disimpan di cursor opaque (id terakhir) sehingga halaman berikutnya cukup seek
+ * lewat index _id tanpa skip dan tanpa count().
+ */
+final class KeysetCursor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String ID = "id";
+
+    private KeysetCursor() {
+    }
+
+    /** Id terakhir dari halaman sebelumnya, atau null untuk halaman pertama. */
+    static String decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            Map<String, Object> raw = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), new TypeReference<>() {});
+            if (!(raw.get(ID) instanceof String id)) {
+                throw new IllegalArgumentException("Cursor tidak valid");
+            }
+            return id;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor tidak valid: " + cursor);
+        }
+    }
+
+    static Query seek(String afterId, int size, int maxSize) {
+        if (size < 1 || size > maxSize) {
+            throw new IllegalArgumentException("Size cursor harus 1.." + maxSize);
+        }
+        Query query = new Query().limit(size + 1).with(Sort.by(Sort.Order.asc(ID)));
+        if (afterId != null) {
+            query.addCriteria(Criteria.where(ID).gt(afterId));
+        }
+        return query;
+    }
+
+    static <T> CursorPage<T> page(List<T> rows, int size, Function<T, String> idOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, rows.size());
+        }
+        List<T> items = new ArrayList<>(rows.subList(0, size));
+        return new CursorPage<>(items, encode(idOf.apply(items.get(size - 1))), items.size());
+    }
+
+    private static String encode(String id) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(Map.of(ID, id)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Gagal membuat cursor", e);
+        }
+    }
+}
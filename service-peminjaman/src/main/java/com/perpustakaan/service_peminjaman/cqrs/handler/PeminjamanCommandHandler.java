@@ -3,16 +3,19 @@ package com.perpustakaan.service_peminjaman.cqrs.handler;
 import com.perpustakaan.service_peminjaman.cqrs.command.*;
 import com.perpustakaan.service_peminjaman.entity.command.PeminjamanWriteModel;
 import com.perpustakaan.service_peminjaman.event.*;
+import com.perpustakaan.service_peminjaman.exception.DuplicateActiveLoanException;
 import com.perpustakaan.service_peminjaman.repository.command.PeminjamanRepository;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Locale;
 import java.util.UUID;
 
 @Component
@@ -22,38 +25,25 @@ public class PeminjamanCommandHandler {
     private static final Logger logger = LoggerFactory.getLogger(PeminjamanCommandHandler.class);
 
     private final PeminjamanRepository peminjamanRepository;
-    private final RabbitTemplate rabbitTemplate;
-
-    @Value("${perpustakaan.rabbitmq.exchange}")
-    private String exchange;
-
-    @Value("${perpustakaan.rabbitmq.routing-key}")
-    private String routingKey;
+    private final OutboxWriter outboxWriter;
 
     @Transactional
     public PeminjamanWriteModel handle(CreatePeminjamanCommand command) {
         logger.info("PROSES CREATE: Peminjaman baru. Anggota: [{}], Buku: [{}]", 
             command.getAnggotaId(), command.getBukuId());
 
-        // 1. Validasi Logika Bisnis: Tidak boleh meminjam buku yang sama jika status masih DIPINJAM
-        if (peminjamanRepository.existsByAnggotaIdAndBukuIdAndStatus(
-                command.getAnggotaId(), command.getBukuId(), "DIPINJAM")) {
-            logger.warn("GAGAL CREATE: Anggota [{}] sedang meminjam buku [{}] dan belum dikembalikan.", 
-                command.getAnggotaId(), command.getBukuId());
-            throw new IllegalArgumentException("Anggota ini sedang meminjam buku yang sama.");
+        // 1. Validasi Tanggal (Sederhana)
+        // Aturan "tidak boleh meminjam buku yang sama jika status masih DIPINJAM" dijaga unique
+        // constraint active_loan_key saat insert (lihat saveGuarded), bukan dengan cek-lalu-insert.
+        LocalDate pinjam = command.getTanggalPinjam();
+        LocalDate kembali = command.getTanggalKembali();
+        if (pinjam == null || kembali == null) {
+            logger.warn("GAGAL CREATE: Tanggal pinjam/kembali kosong.");
+            throw new IllegalArgumentException("Tanggal pinjam dan tanggal kembali wajib diisi.");
         }
-
-        // 2. Validasi Tanggal (Sederhana)
-        try {
-            LocalDate pinjam = LocalDate.parse(command.getTanggalPinjam());
-            LocalDate kembali = LocalDate.parse(command.getTanggalKembali());
-            if (kembali.isBefore(pinjam)) {
-                logger.warn("GAGAL CREATE: Tanggal kembali [{}] lebih kecil dari tanggal pinjam [{}].", kembali, pinjam);
-                throw new IllegalArgumentException("Tanggal kembali tidak boleh sebelum tanggal pinjam.");
-            }
-        } catch (Exception e) {
-            logger.error("GAGAL CREATE: Format tanggal salah.", e);
-            throw new IllegalArgumentException("Format tanggal tidak valid.");
+        if (kembali.isBefore(pinjam)) {
+            logger.warn("GAGAL CREATE: Tanggal kembali [{}] lebih kecil dari tanggal pinjam [{}].", kembali, pinjam);
+            throw new IllegalArgumentException("Tanggal kembali tidak boleh sebelum tanggal pinjam.");
         }
 
         PeminjamanWriteModel peminjaman = new PeminjamanWriteModel();
@@ -63,7 +53,9 @@ public class PeminjamanCommandHandler {
         peminjaman.setTanggalKembali(command.getTanggalKembali());
         peminjaman.setStatus(command.getStatus());
 
-        PeminjamanWriteModel saved = peminjamanRepository.save(peminjaman);
+        peminjaman.setUpdatedAt(Instant.now());
+        // saveAndFlush supaya @Version sudah naik saat event dibuat
+        PeminjamanWriteModel saved = saveGuarded(peminjaman);
         logger.info("SUKSES CREATE: Peminjaman disimpan (Write DB). ID Transaksi: [{}]", saved.getId());
         
         publishCreatedEvent(saved);
@@ -87,7 +79,9 @@ public class PeminjamanCommandHandler {
         peminjaman.setTanggalKembali(command.getTanggalKembali());
         peminjaman.setStatus(command.getStatus());
 
-        PeminjamanWriteModel updated = peminjamanRepository.save(peminjaman);
+        peminjaman.setUpdatedAt(Instant.now());
+        // saveAndFlush supaya @Version sudah naik saat event dibuat
+        PeminjamanWriteModel updated = saveGuarded(peminjaman);
         logger.info("SUKSES UPDATE: Data peminjaman ID [{}] diperbarui.", updated.getId());
         
         publishUpdatedEvent(updated);
@@ -103,7 +97,9 @@ public class PeminjamanCommandHandler {
 
         peminjaman.setStatus(status);
 
-        PeminjamanWriteModel updated = peminjamanRepository.save(peminjaman);
+        peminjaman.setUpdatedAt(Instant.now());
+        // saveAndFlush supaya @Version sudah naik saat event dibuat
+        PeminjamanWriteModel updated = saveGuarded(peminjaman);
         logger.info("SUKSES PATCH: Status berubah menjadi [{}]", status);
         
         publishUpdatedEvent(updated);
@@ -125,45 +121,75 @@ public class PeminjamanCommandHandler {
         publishDeletedEvent(command.getId());
     }
 
-    // --- Private Loggers for Events ---
+    /**
+     * Mencatat satu batch OverdueScanner sebagai satu PeminjamanOverdueEvent di outbox. Write model
+     * tidak berubah: keterlambatan dihitung dari tanggal, bukan status yang disimpan.
+     */
+    @Transactional
+    public void handle(RecordOverdueCommand command) {
+        PeminjamanOverdueEvent event = new PeminjamanOverdueEvent(command.getAsOf(), command.getItems());
+        outboxWriter.append(command.getItems().get(0).getId(), event);
+        logger.info("EVENT QUEUED: PeminjamanOverdueEvent ({} peminjaman, per {}) dicatat ke outbox",
+            command.getItems().size(), command.getAsOf());
+    }
 
-    private void publishCreatedEvent(PeminjamanWriteModel peminjaman) {
+    // saveAndFlush: pelanggaran unique constraint pinjaman aktif diterjemahkan ke error bisnis.
+    // Dua request bersamaan untuk (anggota, buku) yang sama: yang kedua ditolak database, tanpa jendela race.
+    private PeminjamanWriteModel saveGuarded(PeminjamanWriteModel peminjaman) {
         try {
-            PeminjamanCreatedEvent event = new PeminjamanCreatedEvent(
-                peminjaman.getId(),
-                peminjaman.getAnggotaId(),
-                peminjaman.getBukuId(),
-                peminjaman.getTanggalPinjam(),
-                peminjaman.getStatus()
-            );
-            rabbitTemplate.convertAndSend(exchange, routingKey, event);
-            logger.info("EVENT PUBLISHED: PeminjamanCreatedEvent dikirim ID [{}]", peminjaman.getId());
-        } catch (Exception e) {
-            logger.error("EVENT ERROR: Gagal publish Create Event: {}", e.getMessage());
+            return peminjamanRepository.saveAndFlush(peminjaman);
+        } catch (DataIntegrityViolationException e) {
+            if (!isActiveLoanViolation(e)) {
+                throw e;
+            }
+            logger.warn("GAGAL SIMPAN: Anggota [{}] sedang meminjam buku [{}] dan belum dikembalikan.",
+                peminjaman.getAnggotaId(), peminjaman.getBukuId());
+            throw new DuplicateActiveLoanException("Anggota ini sedang meminjam buku yang sama.");
         }
     }
 
+    private static boolean isActiveLoanViolation(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+            && violation.getConstraintName() != null
+            && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(PeminjamanWriteModel.ACTIVE_LOAN_CONSTRAINT);
+    }
+
+    // --- Private Loggers for Events ---
+    // Event dicatat ke outbox dalam transaksi yang sama; OutboxRelay yang mengirim ke RabbitMQ.
+
+    private void publishCreatedEvent(PeminjamanWriteModel peminjaman) {
+        PeminjamanCreatedEvent event = new PeminjamanCreatedEvent(
+            peminjaman.getId(),
+            peminjaman.getAnggotaId(),
+            peminjaman.getBukuId(),
+            peminjaman.getTanggalPinjam(),
+            peminjaman.getTanggalKembali(),
+            peminjaman.getStatus(),
+            peminjaman.getVersion(),
+            peminjaman.getUpdatedAt()
+        );
+        outboxWriter.append(peminjaman.getId(), event);
+        logger.info("EVENT QUEUED: PeminjamanCreatedEvent dicatat ke outbox ID [{}]", peminjaman.getId());
+    }
+
     private void publishUpdatedEvent(PeminjamanWriteModel peminjaman) {
-        try {
-            PeminjamanUpdatedEvent event = new PeminjamanUpdatedEvent(
-                peminjaman.getId(),
-                peminjaman.getStatus(),
-                peminjaman.getTanggalKembali()
-            );
-            rabbitTemplate.convertAndSend(exchange, routingKey, event);
-            logger.info("EVENT PUBLISHED: PeminjamanUpdatedEvent dikirim ID [{}]", peminjaman.getId());
-        } catch (Exception e) {
-            logger.error("EVENT ERROR: Gagal publish Update Event: {}", e.getMessage());
-        }
+        PeminjamanUpdatedEvent event = new PeminjamanUpdatedEvent(
+            peminjaman.getId(),
+            peminjaman.getAnggotaId(),
+            peminjaman.getBukuId(),
+            peminjaman.getTanggalPinjam(),
+            peminjaman.getTanggalKembali(),
+            peminjaman.getStatus(),
+            peminjaman.getVersion(),
+            peminjaman.getUpdatedAt()
+        );
+        outboxWriter.append(peminjaman.getId(), event);
+        logger.info("EVENT QUEUED: PeminjamanUpdatedEvent dicatat ke outbox ID [{}]", peminjaman.getId());
     }
 
     private void publishDeletedEvent(UUID id) {
-        try {
-            PeminjamanDeletedEvent event = new PeminjamanDeletedEvent(id);
-            rabbitTemplate.convertAndSend(exchange, routingKey, event);
-            logger.info("EVENT PUBLISHED: PeminjamanDeletedEvent dikirim ID [{}]", id);
-        } catch (Exception e) {
-            logger.error("EVENT ERROR: Gagal publish Delete Event: {}", e.getMessage());
-        }
+        PeminjamanDeletedEvent event = new PeminjamanDeletedEvent(id);
+        outboxWriter.append(id, event);
+        logger.info("EVENT QUEUED: PeminjamanDeletedEvent dicatat ke outbox ID [{}]", id);
     }
 }
\ No newline at end of file
@@ -1,27 +1,56 @@
 package com.perpustakaan.service_peminjaman.cqrs.handler;
 
 import com.perpustakaan.service_peminjaman.cqrs.query.*;
+import com.perpustakaan.service_peminjaman.dto.CursorPage;
+import com.perpustakaan.service_peminjaman.entity.query.AnggotaSnapshot;
+import com.perpustakaan.service_peminjaman.entity.query.BukuSnapshot;
 import com.perpustakaan.service_peminjaman.entity.query.PeminjamanReadModel;
+import com.perpustakaan.service_peminjaman.event.ProjectionProgress;
+import com.perpustakaan.service_peminjaman.repository.query.AnggotaSnapshotRepository;
+import com.perpustakaan.service_peminjaman.repository.query.BukuSnapshotRepository;
 import com.perpustakaan.service_peminjaman.repository.query.PeminjamanQueryRepository;
+import com.perpustakaan.service_peminjaman.resilience.DownstreamGuard;
 import com.perpustakaan.service_peminjaman.vo.*;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cloud.client.ServiceInstance;
-import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Component
 public class PeminjamanQueryHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(PeminjamanQueryHandler.class);
 
+    // Field yang dibaca query index sekunder (updatedAt tidak dibutuhkan daftar sirkulasi)
+    private static final String[] SECONDARY_FIELDS = {"anggotaId", "bukuId", "tanggalPinjam", "tanggalKembali", "status", "version"};
+
     @Autowired
     private PeminjamanQueryRepository peminjamanRepository;
 
@@ -29,55 +58,91 @@ public class PeminjamanQueryHandler {
     private RestTemplate restTemplate;
 
     @Autowired
-    private DiscoveryClient discoveryClient;
+    private DownstreamGuard downstreamGuard;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AnggotaSnapshotRepository anggotaSnapshotRepository;
+
+    @Autowired
+    private BukuSnapshotRepository bukuSnapshotRepository;
+
+    @Autowired
+    private ProjectionProgress projectionProgress;
+
+    @Value("${perpustakaan.enrichment.remote-fallback:true}")
+    private boolean remoteFallback;
+
+    @Value("${perpustakaan.export.cursor-batch-size:1000}")
+    private int exportBatchSize;
+
+    @Value("${perpustakaan.query.cursor-max-size:200}")
+    private int maxCursorSize;
+
+    @Value("${perpustakaan.query.max-limit:200}")
+    private int maxLimit;
+
+    // Satu findById di Read Model; dipakai service lain yang hanya butuh field peminjaman (mis. denda).
+    public PeminjamanReadModel handle(GetPeminjamanSummary query) {
+        logger.debug("Handling query GetPeminjamanSummary for ID: {}", query.getId());
+        return peminjamanRepository.findById(query.getId()).orElse(null);
+    }
 
     public ResponseTemplateVO handle(GetPeminjamanById query) {
         logger.info("Handling query GetPeminjamanById for ID: {}", query.getId());
         String idString = query.getId().toString();
-        Optional<PeminjamanReadModel> peminjamanOpt = peminjamanRepository.findById(idString);
-        
-        if (peminjamanOpt.isEmpty()) {
+
+        if (query.getMinVersion() != null) {
+            // Yang ditunggu hanya dokumen peminjaman (murah); $lookup dijalankan sekali setelahnya
+            projectionProgress.awaitVersion(() -> peminjamanRepository.findById(idString).orElse(null),
+                PeminjamanReadModel::getVersion, query.getMinVersion());
+        }
+
+        // Satu round trip MongoDB: peminjaman + snapshot Anggota & Buku via $lookup.
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("_id").is(idString)),
+            Aggregation.lookup("anggota_snapshot", "anggotaId", "_id", "anggota"),
+            Aggregation.lookup("buku_snapshot", "bukuId", "_id", "buku"),
+            Aggregation.limit(1)
+        );
+        Document result = mongoTemplate
+            .aggregate(aggregation, PeminjamanReadModel.class, Document.class)
+            .getUniqueMappedResult();
+
+        if (result == null) {
             // LOG 2: Mencatat jika data tidak ditemukan di Mongo
             logger.warn("Peminjaman dengan ID {} tidak ditemukan di database MongoDB", query.getId());
             return null;
         }
 
-        PeminjamanReadModel peminjaman = peminjamanOpt.get();
+        MongoConverter converter = mongoTemplate.getConverter();
+        PeminjamanReadModel peminjaman = converter.read(PeminjamanReadModel.class, result);
+        AnggotaSnapshot anggotaSnapshot = firstJoined(result, "anggota", AnggotaSnapshot.class);
+        BukuSnapshot bukuSnapshot = firstJoined(result, "buku", BukuSnapshot.class);
+
         ResponseTemplateVO vo = new ResponseTemplateVO();
         vo.setPeminjaman(peminjaman);
 
-        try {
-            logger.debug("Memulai proses fetch detail ke service eksternal untuk Anggota ID: {} dan Buku ID: {}", 
-                peminjaman.getAnggotaId(), peminjaman.getBukuId());
+        vo.setAnggota(anggotaSnapshot != null ? anggotaSnapshot.toVo() : null);
+        vo.setBuku(bukuSnapshot != null ? bukuSnapshot.toVo() : null);
 
-            String anggotaUrl = getServiceUrl("service-anggota");
-            String bukuUrl = getServiceUrl("service-buku");
-
-            if (anggotaUrl != null) {
-                logger.debug("Fetching Anggota dari: {}/api/anggota/{}", anggotaUrl, peminjaman.getAnggotaId());
-                Anggota anggota = restTemplate.getForObject(
-                    anggotaUrl + "/api/anggota/" + peminjaman.getAnggotaId(), 
-                    Anggota.class
-                );
-                vo.setAnggota(anggota);
-            } else {
-                logger.error("Service URL untuk service-anggota tidak ditemukan di Eureka!");
-            }
+        if (remoteFallback && (anggotaSnapshot == null || bukuSnapshot == null)) {
+            logger.debug("Snapshot belum lengkap, fallback ke service eksternal untuk Anggota ID: {} dan Buku ID: {}", 
+                peminjaman.getAnggotaId(), peminjaman.getBukuId());
 
-            if (bukuUrl != null) {
-                logger.debug("Fetching Buku dari: {}/api/buku/{}", bukuUrl, peminjaman.getBukuId());
-                Buku buku = restTemplate.getForObject(
-                    bukuUrl + "/api/buku/" + peminjaman.getBukuId(), 
-                    Buku.class
-                );
-                vo.setBuku(buku);   
-            } else {
-                logger.error("Service URL untuk service-buku tidak ditemukan di Eureka!");
-            }
+            // Data yang belum ada di snapshot diambil paralel, masing-masing lewat DownstreamGuard.
+            // Jika salah satu gagal/terlambat/ditolak breaker, field tersebut dibiarkan null (partial response).
+            CompletableFuture<Anggota> anggotaFuture = anggotaSnapshot != null
+                ? CompletableFuture.completedFuture(vo.getAnggota())
+                : fetchAsync("service-anggota", "/api/anggota/" + peminjaman.getAnggotaId(), Anggota.class);
+            CompletableFuture<Buku> bukuFuture = bukuSnapshot != null
+                ? CompletableFuture.completedFuture(vo.getBuku())
+                : fetchAsync("service-buku", "/api/buku/" + peminjaman.getBukuId(), Buku.class);
 
-        } catch (Exception e) {
-            // LOG 3: Mencatat error detail (stacktrace) jika terjadi kegagalan sistem
-            logger.error("Terjadi kesalahan sistem saat menghubungi microservice lain: {}", e.getMessage(), e);
+            vo.setAnggota(anggotaFuture.join());
+            vo.setBuku(bukuFuture.join());
         }
 
         logger.info("Berhasil mengembalikan data ResponseTemplateVO untuk Peminjaman ID: {}", query.getId());
@@ -92,14 +157,171 @@ public class PeminjamanQueryHandler {
         return result;
     }
 
-    private String getServiceUrl(String serviceName) {
-        List<ServiceInstance> instances = discoveryClient.getInstances(serviceName);
-        if (instances != null && !instances.isEmpty()) {
-            String uri = instances.get(0).getUri().toString();
-            logger.debug("Eureka Discovery: Service {} ditemukan di URI {}", serviceName, uri);
-            return uri;
+    public CursorPage<PeminjamanReadModel> handle(GetPeminjamanCursor query) {
+        String afterId = KeysetCursor.decode(query.getAfter());
+        logger.debug("Handling GetPeminjamanCursor - size: {}, afterId: {}", query.getSize(), afterId);
+        List<PeminjamanReadModel> rows = mongoTemplate.find(
+            KeysetCursor.seek(afterId, query.getSize(), maxCursorSize), PeminjamanReadModel.class);
+        return KeysetCursor.page(rows, query.getSize(), PeminjamanReadModel::getId);
+    }
+
+    // Index (anggotaId, status)
+    public List<PeminjamanReadModel> handle(GetPeminjamanByAnggota query) {
+        logger.debug("Handling GetPeminjamanByAnggota - anggotaId: {}, status: {}, limit: {}",
+            query.getAnggotaId(), query.getStatus(), query.getLimit());
+        return findBySecondaryKey(Criteria.where("anggotaId").is(query.getAnggotaId()).and("status").is(query.getStatus()),
+            null, query.getLimit());
+    }
+
+    // Index (bukuId, status)
+    public List<PeminjamanReadModel> handle(GetPeminjamanByBuku query) {
+        logger.debug("Handling GetPeminjamanByBuku - bukuId: {}, status: {}, limit: {}",
+            query.getBukuId(), query.getStatus(), query.getLimit());
+        return findBySecondaryKey(Criteria.where("bukuId").is(query.getBukuId()).and("status").is(query.getStatus()),
+            null, query.getLimit());
+    }
+
+    // Index (status, tanggalKembali, _id): equality lalu range, urutan hasil langsung dari index
+    public List<PeminjamanReadModel> handle(GetPeminjamanOverdue query) {
+        logger.debug("Handling GetPeminjamanOverdue - asOf: {}, limit: {}", query.getAsOf(), query.getLimit());
+        return findBySecondaryKey(
+            Criteria.where("status").is("DIPINJAM").and("tanggalKembali").lt(query.getAsOf()),
+            Sort.by(Sort.Direction.ASC, "tanggalKembali"), query.getLimit());
+    }
+
+    /**
+     * Cursor MongoDB untuk export, tanpa halaman dan count. Urut _id supaya tidak ada sort di
+     * memori server; dokumen diambil per cursor-batch-size saat Stream dikonsumsi.
+     * Pemanggil wajib menutup Stream (menutup cursor).
+     */
+    public Stream<PeminjamanReadModel> handle(ExportPeminjaman query) {
+        logger.info("Handling ExportPeminjaman - from: {}, to: {}, status: {}",
+            query.getFrom(), query.getTo(), query.getStatus());
+        Criteria criteria = new Criteria();
+        if (query.getStatus() != null) {
+            criteria.and("status").is(query.getStatus());
+        }
+        if (query.getFrom() != null || query.getTo() != null) {
+            Criteria tanggalPinjam = criteria.and("tanggalPinjam");
+            if (query.getFrom() != null) {
+                tanggalPinjam.gte(query.getFrom());
+            }
+            if (query.getTo() != null) {
+                tanggalPinjam.lte(query.getTo());
+            }
+        }
+        Query mongoQuery = Query.query(criteria)
+            .with(Sort.by(Sort.Direction.ASC, "id"))
+            .cursorBatchSize(exportBatchSize);
+        return mongoTemplate.stream(mongoQuery, PeminjamanReadModel.class);
+    }
+
+    public Page<ResponseTemplateVO> handle(GetAllPeminjamanDetail query) {
+        logger.info("Handling GetAllPeminjamanDetail - Page: {}, Size: {}, expand anggota: {}, buku: {}", 
+            query.getPage(), query.getSize(), query.isExpandAnggota(), query.isExpandBuku());
+        PageRequest pageRequest = PageRequest.of(query.getPage(), query.getSize());
+        Page<PeminjamanReadModel> page = peminjamanRepository.findAll(pageRequest);
+
+        // ID unik per halaman: snapshot lokal dulu, sisanya satu panggilan batch per service.
+        Set<String> anggotaIds = query.isExpandAnggota() ? distinct(page, PeminjamanReadModel::getAnggotaId) : Set.of();
+        Set<String> bukuIds = query.isExpandBuku() ? distinct(page, PeminjamanReadModel::getBukuId) : Set.of();
+
+        Map<String, Anggota> anggotaById = new HashMap<>();
+        anggotaSnapshotRepository.findAllById(anggotaIds).forEach(a -> anggotaById.put(a.getId(), a.toVo()));
+        Map<String, Buku> bukuById = new HashMap<>();
+        bukuSnapshotRepository.findAllById(bukuIds).forEach(b -> bukuById.put(b.getId(), b.toVo()));
+
+        if (remoteFallback) {
+            Set<String> missingAnggota = missing(anggotaIds, anggotaById);
+            Set<String> missingBuku = missing(bukuIds, bukuById);
+            CompletableFuture<List<Anggota>> anggotaFuture = fetchBatchAsync(
+                "service-anggota", "/api/anggota/batch", missingAnggota,
+                new ParameterizedTypeReference<BatchResponse<Anggota>>() {});
+            CompletableFuture<List<Buku>> bukuFuture = fetchBatchAsync(
+                "service-buku", "/api/buku/batch", missingBuku,
+                new ParameterizedTypeReference<BatchResponse<Buku>>() {});
+            anggotaFuture.join().forEach(a -> anggotaById.put(a.getId(), a));
+            bukuFuture.join().forEach(b -> bukuById.put(b.getId(), b));
+        }
+
+        return page.map(p -> new ResponseTemplateVO(p, anggotaById.get(p.getAnggotaId()), bukuById.get(p.getBukuId())));
+    }
+
+    private List<PeminjamanReadModel> findBySecondaryKey(Criteria criteria, Sort sort, Integer limit) {
+        Query mongoQuery = Query.query(criteria).limit(Math.min(limit != null && limit > 0 ? limit : maxLimit, maxLimit));
+        mongoQuery.fields().include(SECONDARY_FIELDS);
+        if (sort != null) {
+            mongoQuery.with(sort);
+        }
+        return mongoTemplate.find(mongoQuery, PeminjamanReadModel.class);
+    }
+
+    private Set<String> distinct(Page<PeminjamanReadModel> page, Function<PeminjamanReadModel, String> key) {
+        Set<String> ids = new LinkedHashSet<>();
+        page.forEach(p -> {
+            String id = key.apply(p);
+            if (id != null) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    private Set<String> missing(Set<String> ids, Map<String, ?> found) {
+        Set<String> missing = new LinkedHashSet<>(ids);
+        missing.removeAll(found.keySet());
+        return missing;
+    }
+
+    private <T> CompletableFuture<T> fetchAsync(String serviceName, String path, Class<T> type) {
+        return callAsync(serviceName, type.getSimpleName(), baseUrl -> {
+            logger.debug("Fetching {} dari: {}{}", type.getSimpleName(), baseUrl, path);
+            return restTemplate.getForObject(baseUrl + path, type);
+        });
+    }
+
+    private <T> CompletableFuture<List<T>> fetchBatchAsync(String serviceName, String path, Set<String> ids,
+                                                            ParameterizedTypeReference<BatchResponse<T>> type) {
+        if (ids.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        return callAsync(serviceName, "batch " + path, baseUrl -> {
+            logger.debug("Fetching {} ID dari: {}{}", ids.size(), baseUrl, path);
+            BatchResponse<T> result = restTemplate.exchange(
+                baseUrl + path, HttpMethod.POST, new HttpEntity<>(ids), type).getBody();
+            if (result == null) {
+                return List.<T>of();
+            }
+            if (result.getMissing() != null && !result.getMissing().isEmpty()) {
+                logger.warn("{} ID tidak ditemukan di {}: {}", result.getMissing().size(), serviceName, result.getMissing());
+            }
+            return result.getItems() != null ? result.getItems() : List.<T>of();
+        }).thenApply(result -> result != null ? result : List.of());
+    }
+
+    private <T> CompletableFuture<T> callAsync(String serviceName, String description, Function<String, T> call) {
+        // RestTemplate @LoadBalanced: host "http://<service>" dipilih per request oleh load balancer
+        return downstreamGuard.supplyAsync(serviceName, () -> call.apply("http://" + serviceName))
+            .exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof TimeoutException) {
+                    logger.warn("Fetch {} dari {} melebihi budget time limiter, dikembalikan tanpa data ini.",
+                        description, serviceName);
+                } else if (cause instanceof CallNotPermittedException || cause instanceof BulkheadFullException) {
+                    logger.warn("Fetch {} dari {} ditolak ({}), dikembalikan tanpa data ini.",
+                        description, serviceName, cause.getMessage());
+                } else {
+                    logger.error("Terjadi kesalahan sistem saat menghubungi {}: {}", serviceName, cause.getMessage(), cause);
+                }
+                return null;
+            });
+    }
+
+    private <T> T firstJoined(Document result, String field, Class<T> type) {
+        List<Document> joined = result.getList(field, Document.class);
+        if (joined == null || joined.isEmpty()) {
+            return null;
         }
-        logger.error("Eureka Discovery: Service {} TIDAK ditemukan!", serviceName);
-        return null;
+        return mongoTemplate.getConverter().read(type, joined.get(0));
     }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.perpustakaan.service_peminjaman.cqrs.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExportPeminjaman {
+    private LocalDate from;   // tanggalPinjam >= from (opsional)
+    private LocalDate to;     // tanggalPinjam <= to (opsional)
+    private String status;    // opsional
+}
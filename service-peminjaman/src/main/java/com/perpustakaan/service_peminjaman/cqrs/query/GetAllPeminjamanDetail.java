@@ -0,0 +1,15 @@
+package com.perpustakaan.service_peminjaman.cqrs.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GetAllPeminjamanDetail {
+    private Integer page = 0;
+    private Integer size = 10;
+    private boolean expandAnggota;
+    private boolean expandBuku;
+}
@@ -0,0 +1,14 @@
+package com.perpustakaan.service_peminjaman.cqrs.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GetPeminjamanByBuku {
+    private String bukuId;
+    private String status = "DIPINJAM";
+    private Integer limit = 50;
+}
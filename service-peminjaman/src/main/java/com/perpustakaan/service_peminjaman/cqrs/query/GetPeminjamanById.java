@@ -9,4 +9,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class GetPeminjamanById {
     private String id;
+    // Versi minimal (token dari response command); null = baca apa adanya
+    private Long minVersion;
+
+    public GetPeminjamanById(String id) {
+        this(id, null);
+    }
 }
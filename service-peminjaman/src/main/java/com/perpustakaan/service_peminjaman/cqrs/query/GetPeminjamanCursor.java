@@ -0,0 +1,13 @@
+package com.perpustakaan.service_peminjaman.cqrs.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GetPeminjamanCursor {
+    private String after; // cursor dari halaman sebelumnya, kosong = halaman pertama
+    private Integer size = 10;
+}
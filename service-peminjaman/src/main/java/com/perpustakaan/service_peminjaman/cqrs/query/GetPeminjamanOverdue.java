@@ -0,0 +1,15 @@
+package com.perpustakaan.service_peminjaman.cqrs.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GetPeminjamanOverdue {
+    private LocalDate asOf; // status DIPINJAM dengan tanggalKembali sebelum tanggal ini
+    private Integer limit = 50;
+}
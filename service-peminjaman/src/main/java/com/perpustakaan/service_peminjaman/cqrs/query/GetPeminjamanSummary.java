@@ -0,0 +1,13 @@
+package com.perpustakaan.service_peminjaman.cqrs.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Dokumen Read Model peminjaman saja, tanpa $lookup snapshot maupun enrichment ke service lain. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GetPeminjamanSummary {
+    private String id;
+}
@@ -6,6 +6,8 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import lombok.Data;
 
+import java.time.LocalDate;
+
 @Data
 @Schema(description = "Data payload untuk transaksi peminjaman buku")
 public class PeminjamanRequest {
@@ -24,15 +26,14 @@ public class PeminjamanRequest {
     )
     private String bukuId;
 
-    @NotBlank(message = "Tanggal pinjam wajib diisi")
-    @Pattern(regexp = "^\\d{4}-\\d{2}-\\d{2}$", message = "Format tanggal harus yyyy-MM-dd")
+    // Format yyyy-MM-dd di-parse Jackson; format salah ditolak 400 oleh GlobalExceptionHandler
+    @NotNull(message = "Tanggal pinjam wajib diisi")
     @Schema(description = "Tanggal mulai peminjaman", example = "2024-01-20")
-    private String tanggalPinjam;
+    private LocalDate tanggalPinjam;
 
-    @NotBlank(message = "Tanggal kembali wajib diisi")
-    @Pattern(regexp = "^\\d{4}-\\d{2}-\\d{2}$", message = "Format tanggal harus yyyy-MM-dd")
+    @NotNull(message = "Tanggal kembali wajib diisi")
     @Schema(description = "Rencana tanggal pengembalian", example = "2024-01-27")
-    private String tanggalKembali;
+    private LocalDate tanggalKembali;
 
     @NotBlank(message = "Status awal wajib diisi")
     @Pattern(regexp = "^(DIPINJAM|DIKEMBALIKAN)$", message = "Status harus DIPINJAM atau DIKEMBALIKAN")
@@ -1,18 +1,28 @@
 package com.perpustakaan.service_peminjaman.entity.command;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.UUID;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "peminjaman")
+@Table(name = "peminjaman", uniqueConstraints = @UniqueConstraint(
+        name = PeminjamanWriteModel.ACTIVE_LOAN_CONSTRAINT, columnNames = "active_loan_key"))
 public class PeminjamanWriteModel {
+
+    public static final String ACTIVE_LOAN_CONSTRAINT = "uk_peminjaman_active_loan";
+    private static final String STATUS_DIPINJAM = "DIPINJAM";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -24,11 +34,35 @@ public class PeminjamanWriteModel {
     private UUID bukuId;
 
     @Column(nullable = false)
-    private String tanggalPinjam;
+    private LocalDate tanggalPinjam;
 
     @Column(nullable = false)
-    private String tanggalKembali;
+    private LocalDate tanggalKembali;
 
+    // Ubah hanya lewat entity (save/saveAndFlush): activeLoanKey diturunkan dari status di @PrePersist/@PreUpdate.
+    // Bulk JPQL/native update melewati callback itu dan membuat unique constraint pinjaman aktif tidak akurat.
     @Column(nullable = false)
     private String status;
-}
\ No newline at end of file
+
+    // Dinaikkan JPA di setiap update; ikut dikirim di event sebagai versi Read Model
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    // "anggotaId:bukuId" selama status DIPINJAM, null setelahnya. Unique constraint di kolom ini menjaga
+    // satu pinjaman aktif per (anggota, buku) lewat index; NULL tidak saling bentrok, jadi riwayat pinjaman
+    // yang sudah selesai tetap boleh banyak. Setara partial unique index, tapi juga berjalan di H2.
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "active_loan_key", length = 73)
+    private String activeLoanKey;
+
+    @PrePersist
+    @PreUpdate
+    void syncActiveLoanKey() {
+        activeLoanKey = STATUS_DIPINJAM.equals(status) ? anggotaId + ":" + bukuId : null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.perpustakaan.service_peminjaman.entity.query;
+
+import com.perpustakaan.service_peminjaman.vo.Anggota;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Salinan lokal data anggota (dari anggota-exchange) untuk membangun detail peminjaman
+ * tanpa memanggil service-anggota.
+ */
+@Document(collection = "anggota_snapshot")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnggotaSnapshot {
+
+    @Id
+    private String id;
+
+    private String nomorAnggota;
+    private String nama;
+    private String alamat;
+    private String email;
+
+    // Versi write model di service asal, mencegah event usang menimpa snapshot
+    private Long version;
+
+    public Anggota toVo() {
+        return new Anggota(id, nomorAnggota, nama, alamat, email);
+    }
+}
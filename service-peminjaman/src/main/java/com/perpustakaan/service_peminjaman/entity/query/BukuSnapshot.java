@@ -0,0 +1,35 @@
+package com.perpustakaan.service_peminjaman.entity.query;
+
+import com.perpustakaan.service_peminjaman.vo.Buku;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Salinan lokal data buku (dari buku-exchange) untuk membangun detail peminjaman
+ * tanpa memanggil service-buku.
+ */
+@Document(collection = "buku_snapshot")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BukuSnapshot {
+
+    @Id
+    private String id;
+
+    private String kodeBuku;
+    private String judul;
+    private String pengarang;
+    private String penerbit;
+    private Integer tahunTerbit;
+
+    // Versi write model di service asal, mencegah event usang menimpa snapshot
+    private Long version;
+
+    public Buku toVo() {
+        return new Buku(id, kodeBuku, judul, pengarang, penerbit, tahunTerbit != null ? tahunTerbit : 0);
+    }
+}
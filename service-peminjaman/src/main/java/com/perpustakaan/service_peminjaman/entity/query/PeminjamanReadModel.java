@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+import java.time.LocalDate;
 
 @Document(collection = "peminjaman_read")
 @Data
@@ -15,7 +17,12 @@ public class PeminjamanReadModel {
     private String id;
     private String anggotaId;
     private String bukuId;
-    private String tanggalPinjam;
-    private String tanggalKembali;
+    // BSON Date (UTC tengah malam), lihat MongoConversionConfig
+    private LocalDate tanggalPinjam;
+    private LocalDate tanggalKembali;
     private String status;
-}
\ No newline at end of file
+
+    // Versi write model terakhir yang diproyeksikan; dasar ETag / Last-Modified
+    private Long version;
+    private Instant updatedAt;
+}
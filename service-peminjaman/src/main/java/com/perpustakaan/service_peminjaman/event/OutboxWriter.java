@@ -0,0 +1,43 @@
+package com.perpustakaan.service_peminjaman.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.perpustakaan.service_peminjaman.entity.command.OutboxEvent;
+import com.perpustakaan.service_peminjaman.repository.command.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Mencatat event ke tabel outbox di dalam transaksi command yang sedang berjalan.
+ * Pengiriman ke broker dilakukan terpisah oleh {@link OutboxRelay}.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(UUID aggregateId, Object event) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setAggregateId(aggregateId.toString());
+        outboxEvent.setEventType(event.getClass().getName());
+        outboxEvent.setPayload(serialize(event));
+        outboxEvent.setCreatedAt(LocalDateTime.now());
+        outboxRepository.save(outboxEvent);
+    }
+
+    private String serialize(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Gagal serialisasi event " + event.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.UUID;
 
 @Data
@@ -13,6 +15,9 @@ public class PeminjamanCreatedEvent implements Serializable {
     private UUID id;
     private UUID anggotaId;
     private UUID bukuId;
-    private String tanggalPinjam;
+    private LocalDate tanggalPinjam;
+    private LocalDate tanggalKembali;
     private String status;
-}
\ No newline at end of file
+    private Long version;
+    private Instant updatedAt;
+}
@@ -1,65 +1,120 @@
 package com.perpustakaan.service_peminjaman.event;
 
 import com.perpustakaan.service_peminjaman.entity.query.PeminjamanReadModel;
-import com.perpustakaan.service_peminjaman.repository.query.PeminjamanQueryRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.annotation.RabbitHandler;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
 @Component
-@RabbitListener(queues = "${perpustakaan.rabbitmq.queue}")
 @RequiredArgsConstructor
 public class PeminjamanEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(PeminjamanEventListener.class);
-    private final PeminjamanQueryRepository queryRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MessageConverter messageConverter;
+    private final ProjectionProgress projectionProgress;
 
-    @RabbitHandler
-    public void handleCreatedEvent(PeminjamanCreatedEvent event) {
-        String idString = event.getId().toString();
-        logger.info("RabbitMQ Listener: Sync Create Peminjaman ID [{}] ke MongoDB", idString);
-        
-        PeminjamanReadModel model = new PeminjamanReadModel();
-        model.setId(idString);
-        // Konversi UUID -> String
-        model.setAnggotaId(event.getAnggotaId().toString());
-        model.setBukuId(event.getBukuId().toString());
-        model.setTanggalPinjam(event.getTanggalPinjam());
-        model.setTanggalKembali(null); // Default null saat created (bisa disesuaikan jika field ada di event)
-        model.setStatus(event.getStatus()); 
-        
-        queryRepository.save(model);
-        logger.debug("RabbitMQ Listener: Data tersimpan di Read DB.");
+    /**
+     * Menerima event dalam batch (lihat projectionBatchContainerFactory), menggabungkan
+     * event per ID peminjaman, lalu menerapkannya ke Read Model dengan satu bulkWrite.
+     */
+    @RabbitListener(queues = "${perpustakaan.rabbitmq.queue}", containerFactory = "projectionBatchContainerFactory")
+    public void handleBatch(List<Message> messages) {
+        ProjectionBatch<PeminjamanReadModel> batch = new ProjectionBatch<>(PeminjamanReadModel.class, PeminjamanReadModel::getVersion);
+
+        for (Message message : messages) {
+            Object event;
+            try {
+                event = messageConverter.fromMessage(message);
+            } catch (MessageConversionException e) {
+                logger.error("RabbitMQ Listener: Gagal membaca event, dilewati: {}", e.getMessage());
+                continue;
+            }
+
+            if (event instanceof PeminjamanCreatedEvent created) {
+                applyCreated(batch, created);
+            } else if (event instanceof PeminjamanUpdatedEvent updated) {
+                applyUpdated(batch, updated);
+            } else if (event instanceof PeminjamanDeletedEvent deleted) {
+                logger.debug("RabbitMQ Listener: Sync Delete Peminjaman ID [{}]", deleted.getId());
+                batch.delete(deleted.getId().toString());
+            } else if (event instanceof PeminjamanOverdueEvent overdue) {
+                // Untuk consumer lain (notifikasi/tagihan); Read Model tidak berubah
+                logger.debug("RabbitMQ Listener: PeminjamanOverdueEvent ({} peminjaman) dilewati", overdue.getItems().size());
+            } else {
+                logger.warn("RabbitMQ Listener: Tipe event tidak dikenal: {}", event.getClass().getName());
+            }
+        }
+
+        batch.flush(mongoTemplate);
+        projectionProgress.applied("peminjaman", messages);
+        logger.info("RabbitMQ Listener: Sync {} event ke MongoDB ({} dokumen Peminjaman)", messages.size(), batch.size());
     }
 
-    @RabbitHandler
-    public void handleUpdatedEvent(PeminjamanUpdatedEvent event) {
+    private void applyCreated(ProjectionBatch<PeminjamanReadModel> batch, PeminjamanCreatedEvent event) {
         String idString = event.getId().toString();
-        logger.info("RabbitMQ Listener: Sync Update Peminjaman ID [{}] ke MongoDB", idString);
-
-        PeminjamanReadModel model = queryRepository.findById(idString)
-            .orElse(new PeminjamanReadModel());
-        
-        // Update field yang relevan
-        model.setId(idString); 
-        model.setStatus(event.getStatus());
-        model.setTanggalKembali(event.getTanggalKembali());
-        
-        queryRepository.save(model);
+        logger.debug("RabbitMQ Listener: Sync Create Peminjaman ID [{}]", idString);
+        batch.replace(idString, toReadModel(idString, event.getAnggotaId(), event.getBukuId(), event.getTanggalPinjam(),
+                event.getTanggalKembali(), event.getStatus(), event.getVersion(), event.getUpdatedAt()));
     }
 
-    @RabbitHandler
-    public void handleDeletedEvent(PeminjamanDeletedEvent event) {
+    private void applyUpdated(ProjectionBatch<PeminjamanReadModel> batch, PeminjamanUpdatedEvent event) {
         String idString = event.getId().toString();
-        logger.info("RabbitMQ Listener: Sync Delete Peminjaman ID [{}]", idString);
-        
-        if (queryRepository.existsById(idString)) {
-            queryRepository.deleteById(idString);
+        logger.debug("RabbitMQ Listener: Sync Update Peminjaman ID [{}]", idString);
+
+        if (event.getAnggotaId() != null) {
+            batch.replace(idString, toReadModel(idString, event.getAnggotaId(), event.getBukuId(), event.getTanggalPinjam(),
+                    event.getTanggalKembali(), event.getStatus(), event.getVersion(), event.getUpdatedAt()));
+            return;
+        }
+
+        // Event format lama (hanya status & tanggalKembali) yang masih antre saat deploy: digabung ke
+        // dokumen tertunda, atau $set ke dokumen yang sudah ada. Id yang sudah dihapus di batch ini
+        // diabaikan oleh ProjectionBatch, bukan dibuat ulang sebagai dokumen tanpa anggotaId/bukuId.
+        PeminjamanReadModel pending = batch.pendingReplacement(idString);
+        if (pending != null) {
+            // Event usang (redelivery) tidak boleh menimpa dokumen tertunda yang lebih baru
+            if (event.getVersion() != null && pending.getVersion() != null
+                    && event.getVersion() < pending.getVersion()) {
+                return;
+            }
+            pending.setStatus(event.getStatus());
+            pending.setTanggalKembali(event.getTanggalKembali());
+            pending.setVersion(event.getVersion());
+            pending.setUpdatedAt(event.getUpdatedAt());
         } else {
-            logger.warn("RabbitMQ Listener: ID [{}] tidak ditemukan di MongoDB.", idString);
+            batch.update(idString, new Update()
+                    .set("status", event.getStatus())
+                    .set("tanggalKembali", event.getTanggalKembali())
+                    .set("updatedAt", event.getUpdatedAt()), event.getVersion());
         }
     }
-}
\ No newline at end of file
+
+    private PeminjamanReadModel toReadModel(String id, UUID anggotaId, UUID bukuId, LocalDate tanggalPinjam,
+                                            LocalDate tanggalKembali, String status, Long version, Instant updatedAt) {
+        PeminjamanReadModel model = new PeminjamanReadModel();
+        model.setId(id);
+        // Konversi UUID -> String
+        model.setAnggotaId(anggotaId.toString());
+        model.setBukuId(bukuId.toString());
+        model.setTanggalPinjam(tanggalPinjam);
+        // Tanpa tanggalKembali pinjaman baru tidak terlihat oleh query /overdue dan OverdueScanner
+        model.setTanggalKembali(tanggalKembali);
+        model.setStatus(status);
+        model.setVersion(version);
+        model.setUpdatedAt(updatedAt);
+        return model;
+    }
+}
@@ -0,0 +1,34 @@
+package com.perpustakaan.service_peminjaman.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Satu event untuk satu batch OverdueScanner: pinjaman DIPINJAM yang melewati tanggalKembali per
+ * tanggal asOf, dengan hari terlambat dan denda berjalan. Dikirim ulang setiap hari selama pinjaman
+ * belum kembali; (id, asOf) cukup sebagai kunci idempotensi di sisi consumer.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PeminjamanOverdueEvent implements Serializable {
+    private LocalDate asOf;
+    private List<Item> items;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item implements Serializable {
+        private UUID id;
+        private UUID anggotaId;
+        private UUID bukuId;
+        private LocalDate tanggalKembali;
+        private int terlambat;
+        private double denda;
+    }
+}
@@ -4,13 +4,22 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.UUID;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class PeminjamanUpdatedEvent implements Serializable {
+    // State penuh, bukan hanya field yang berubah: Updated yang diproyeksikan sebelum Created
+    // tetap menghasilkan dokumen lengkap, dan Created yang datang belakangan ditolak filter versi.
     private UUID id;
+    private UUID anggotaId;
+    private UUID bukuId;
+    private LocalDate tanggalPinjam;
+    private LocalDate tanggalKembali;
     private String status;
-    private String tanggalKembali;
-}
\ No newline at end of file
+    private Long version;
+    private Instant updatedAt;
+}
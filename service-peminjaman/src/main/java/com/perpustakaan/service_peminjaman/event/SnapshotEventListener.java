@@ -0,0 +1,122 @@
+package com.perpustakaan.service_peminjaman.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.perpustakaan.service_peminjaman.entity.query.AnggotaSnapshot;
+import com.perpustakaan.service_peminjaman.entity.query.BukuSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Menjaga snapshot lokal Anggota & Buku dari event milik service-anggota dan service-buku.
+ * Kelas event sumber tidak ada di service ini, jadi payload dibaca langsung ke bentuk snapshot:
+ * Created/Updated membawa state lengkap, Deleted hanya membawa id, Imported (bulk import)
+ * membawa daftar items dengan satu version untuk seluruh chunk.
+ */
+@Component
+@RequiredArgsConstructor
+public class SnapshotEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotEventListener.class);
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProjectionProgress projectionProgress;
+
+    @RabbitListener(queues = "${perpustakaan.snapshot.anggota.queue}", containerFactory = "projectionBatchContainerFactory")
+    public void handleAnggotaBatch(List<Message> messages) {
+        ProjectionBatch<AnggotaSnapshot> batch = new ProjectionBatch<>(AnggotaSnapshot.class, AnggotaSnapshot::getVersion);
+        for (Message message : messages) {
+            if (isImportedEvent(message)) {
+                readImported(message, AnggotaSnapshot.class, AnggotaSnapshot::setVersion)
+                        .forEach(snapshot -> batch.replace(snapshot.getId(), snapshot));
+                continue;
+            }
+            AnggotaSnapshot snapshot = read(message, AnggotaSnapshot.class);
+            if (snapshot == null || snapshot.getId() == null) {
+                continue;
+            }
+            if (isDeletedEvent(message)) {
+                batch.delete(snapshot.getId());
+            } else {
+                batch.replace(snapshot.getId(), snapshot);
+            }
+        }
+        batch.flush(mongoTemplate);
+        projectionProgress.applied("snapshot-anggota", messages);
+        logger.debug("RabbitMQ Listener: Snapshot Anggota diperbarui ({} dokumen)", batch.size());
+    }
+
+    @RabbitListener(queues = "${perpustakaan.snapshot.buku.queue}", containerFactory = "projectionBatchContainerFactory")
+    public void handleBukuBatch(List<Message> messages) {
+        ProjectionBatch<BukuSnapshot> batch = new ProjectionBatch<>(BukuSnapshot.class, BukuSnapshot::getVersion);
+        for (Message message : messages) {
+            if (isImportedEvent(message)) {
+                readImported(message, BukuSnapshot.class, BukuSnapshot::setVersion)
+                        .forEach(snapshot -> batch.replace(snapshot.getId(), snapshot));
+                continue;
+            }
+            BukuSnapshot snapshot = read(message, BukuSnapshot.class);
+            if (snapshot == null || snapshot.getId() == null) {
+                continue;
+            }
+            if (isDeletedEvent(message)) {
+                batch.delete(snapshot.getId());
+            } else {
+                batch.replace(snapshot.getId(), snapshot);
+            }
+        }
+        batch.flush(mongoTemplate);
+        projectionProgress.applied("snapshot-buku", messages);
+        logger.debug("RabbitMQ Listener: Snapshot Buku diperbarui ({} dokumen)", batch.size());
+    }
+
+    private boolean isDeletedEvent(Message message) {
+        return eventTypeEndsWith(message, "DeletedEvent");
+    }
+
+    private boolean isImportedEvent(Message message) {
+        return eventTypeEndsWith(message, "ImportedEvent");
+    }
+
+    private boolean eventTypeEndsWith(Message message, String suffix) {
+        Object typeId = message.getMessageProperties().getHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME);
+        return typeId != null && typeId.toString().endsWith(suffix);
+    }
+
+    private <T> List<T> readImported(Message message, Class<T> type, BiConsumer<T, Long> versionSetter) {
+        try {
+            JsonNode event = objectMapper.readTree(message.getBody());
+            Long version = event.path("version").isNumber() ? event.path("version").asLong() : null;
+            List<T> snapshots = new ArrayList<>();
+            for (JsonNode item : event.path("items")) {
+                T snapshot = objectMapper.treeToValue(item, type);
+                versionSetter.accept(snapshot, version);
+                snapshots.add(snapshot);
+            }
+            return snapshots;
+        } catch (IOException e) {
+            logger.error("RabbitMQ Listener: Gagal membaca event import {}, dilewati: {}", type.getSimpleName(), e.getMessage());
+            return List.of();
+        }
+    }
+
+    private <T> T read(Message message, Class<T> type) {
+        try {
+            return objectMapper.readValue(message.getBody(), type);
+        } catch (IOException e) {
+            logger.error("RabbitMQ Listener: Gagal membaca event snapshot {}, dilewati: {}", type.getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+}
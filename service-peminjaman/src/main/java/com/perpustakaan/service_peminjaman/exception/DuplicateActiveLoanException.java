@@ -0,0 +1,12 @@
+package com.perpustakaan.service_peminjaman.exception;
+
+/**
+ * Anggota masih punya pinjaman aktif (DIPINJAM) untuk buku yang sama. Turunan IllegalArgumentException
+ * supaya tetap dijawab 400 oleh handler yang sudah ada.
+ */
+public class DuplicateActiveLoanException extends IllegalArgumentException {
+
+    public DuplicateActiveLoanException(String message) {
+        super(message);
+    }
+}
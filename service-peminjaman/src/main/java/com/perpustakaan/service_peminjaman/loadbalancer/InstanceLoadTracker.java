@@ -0,0 +1,118 @@
+package com.perpustakaan.service_peminjaman.loadbalancer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Statistik per instance untuk load balancer antar service: jumlah request yang sedang berjalan
+ * (dipakai least-outstanding / power-of-two) dan karantina instance yang gagal berturut-turut
+ * (IOException atau 5xx). Diisi lewat callback LoadBalancerLifecycle dari BlockingLoadBalancerClient.
+ */
+@Component
+public class InstanceLoadTracker implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstanceLoadTracker.class);
+
+    private final Map<String, InstanceState> states = new ConcurrentHashMap<>();
+    private final int failureThreshold;
+    private final Duration quarantine;
+    private final Counter quarantined;
+
+    public InstanceLoadTracker(MeterRegistry meterRegistry,
+                               @Value("${perpustakaan.loadbalancer.failure-threshold:3}") int failureThreshold,
+                               @Value("${perpustakaan.loadbalancer.quarantine-seconds:30}") long quarantineSeconds) {
+        this.failureThreshold = failureThreshold;
+        this.quarantine = Duration.ofSeconds(quarantineSeconds);
+        this.quarantined = Counter.builder("loadbalancer.instance.quarantined")
+                .description("Instance dikeluarkan sementara dari load balancer karena gagal berturut-turut")
+                .register(meterRegistry);
+    }
+
+    int outstanding(ServiceInstance instance) {
+        InstanceState state = states.get(key(instance));
+        return state != null ? state.outstanding.get() : 0;
+    }
+
+    boolean isQuarantined(ServiceInstance instance) {
+        InstanceState state = states.get(key(instance));
+        return state != null && state.quarantinedUntil > System.currentTimeMillis();
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse != null && lbResponse.hasServer()) {
+            state(lbResponse.getServer()).outstanding.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        ServiceInstance instance = lbResponse.getServer();
+        InstanceState state = state(instance);
+        state.outstanding.updateAndGet(value -> Math.max(0, value - 1));
+
+        if (!isFailure(completionContext)) {
+            state.consecutiveFailures.set(0);
+            return;
+        }
+        if (state.consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            state.consecutiveFailures.set(0);
+            state.quarantinedUntil = System.currentTimeMillis() + quarantine.toMillis();
+            quarantined.increment();
+            logger.warn("LOAD BALANCER: Instance {} ({}) dikarantina {} s setelah {} kegagalan berturut-turut",
+                    key(instance), instance.getServiceId(), quarantine.toSeconds(), failureThreshold);
+        }
+    }
+
+    private static boolean isFailure(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        return completionContext.getClientResponse() instanceof ResponseData response
+                && response.getHttpStatus() != null
+                && response.getHttpStatus().is5xxServerError();
+    }
+
+    private InstanceState state(ServiceInstance instance) {
+        return states.computeIfAbsent(key(instance), key -> new InstanceState());
+    }
+
+    // instanceId tidak selalu diisi (mis. simple discovery), host:port selalu ada
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static final class InstanceState {
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile long quarantinedUntil;
+    }
+}
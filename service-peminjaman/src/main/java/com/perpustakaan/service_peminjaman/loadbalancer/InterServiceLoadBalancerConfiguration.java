@@ -0,0 +1,46 @@
+package com.perpustakaan.service_peminjaman.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Konfigurasi per service tujuan (child context Spring Cloud LoadBalancer), dipasang lewat
+ * {@code @LoadBalancerClients(defaultConfiguration = ...)}. Sengaja tanpa {@code @Configuration}
+ * supaya tidak ikut component scan ke context utama.
+ *
+ * Daftar instance: discovery (Eureka, hanya instance UP) -> cache (spring.cloud.loadbalancer.cache.ttl)
+ * -> saring karantina. Strategi: perpustakaan.loadbalancer.strategy = round-robin | least-outstanding | power-of-two.
+ */
+public class InterServiceLoadBalancerConfiguration {
+
+    @Bean
+    public ServiceInstanceListSupplier serviceInstanceListSupplier(ConfigurableApplicationContext context,
+                                                                   InstanceLoadTracker tracker) {
+        return ServiceInstanceListSupplier.builder()
+                .withDiscoveryClient()
+                .withCaching()
+                .with((ctx, delegate) -> new QuarantineServiceInstanceListSupplier(delegate, tracker))
+                .build(context);
+    }
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> reactorServiceInstanceLoadBalancer(
+            Environment environment, LoadBalancerClientFactory loadBalancerClientFactory, InstanceLoadTracker tracker,
+            @Value("${perpustakaan.loadbalancer.strategy:power-of-two}") String strategy) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        var suppliers = loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class);
+        return switch (strategy) {
+            case "round-robin" -> new RoundRobinLoadBalancer(suppliers, serviceId);
+            case "least-outstanding" -> new LeastLoadedLoadBalancer(suppliers, serviceId, tracker, false);
+            case "power-of-two" -> new LeastLoadedLoadBalancer(suppliers, serviceId, tracker, true);
+            default -> throw new IllegalArgumentException("perpustakaan.loadbalancer.strategy tidak dikenal: " + strategy);
+        };
+    }
+}
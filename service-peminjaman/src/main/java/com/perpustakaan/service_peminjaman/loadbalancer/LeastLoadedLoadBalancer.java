@@ -0,0 +1,94 @@
+package com.perpustakaan.service_peminjaman.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Memilih instance dengan request berjalan paling sedikit (menurut {@link InstanceLoadTracker}).
+ * Mode power-of-two membandingkan dua instance acak saja: hampir sebaik least-outstanding,
+ * tetapi pemanggil yang bersamaan tidak menyerbu instance yang sama.
+ */
+public class LeastLoadedLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeastLoadedLoadBalancer.class);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> suppliers;
+    private final String serviceId;
+    private final InstanceLoadTracker tracker;
+    private final boolean powerOfTwo;
+
+    public LeastLoadedLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> suppliers, String serviceId,
+                                   InstanceLoadTracker tracker, boolean powerOfTwo) {
+        this.suppliers = suppliers;
+        this.serviceId = serviceId;
+        this.tracker = tracker;
+        this.powerOfTwo = powerOfTwo;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = suppliers.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> select(supplier, instances));
+    }
+
+    private Response<ServiceInstance> select(ServiceInstanceListSupplier supplier, List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            logger.warn("LOAD BALANCER: Tidak ada instance tersedia untuk {}", serviceId);
+            return new EmptyResponse();
+        }
+        ServiceInstance chosen;
+        if (instances.size() == 1) {
+            chosen = instances.get(0);
+        } else if (powerOfTwo) {
+            chosen = pickTwo(instances);
+        } else {
+            chosen = leastOutstanding(instances);
+        }
+        if (supplier instanceof SelectedInstanceCallback callback) {
+            callback.selectedServiceInstance(chosen);
+        }
+        return new DefaultResponse(chosen);
+    }
+
+    private ServiceInstance pickTwo(List<ServiceInstance> instances) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return tracker.outstanding(b) < tracker.outstanding(a) ? b : a;
+    }
+
+    private ServiceInstance leastOutstanding(List<ServiceInstance> instances) {
+        // Mulai dari posisi acak supaya instance dengan beban sama mendapat giliran merata
+        int offset = ThreadLocalRandom.current().nextInt(instances.size());
+        ServiceInstance best = null;
+        int bestLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < instances.size(); i++) {
+            ServiceInstance candidate = instances.get((offset + i) % instances.size());
+            int load = tracker.outstanding(candidate);
+            if (load < bestLoad) {
+                best = candidate;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,166 @@
+package com.perpustakaan.service_peminjaman.overdue;
+
+import com.perpustakaan.service_peminjaman.cqrs.command.RecordOverdueCommand;
+import com.perpustakaan.service_peminjaman.cqrs.handler.PeminjamanCommandHandler;
+import com.perpustakaan.service_peminjaman.denda.DendaCalculator;
+import com.perpustakaan.service_peminjaman.entity.query.PeminjamanReadModel;
+import com.perpustakaan.service_peminjaman.event.PeminjamanOverdueEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scan pinjaman terlambat (status DIPINJAM, tanggalKembali sebelum hari ini) di Read Model lewat index
+ * (status, tanggalKembali, _id). Keterlambatan hanya berubah per hari, jadi satu putaran per tanggal.
+ * Putaran berjalan inkremental: setiap tick hanya satu batch keyset (tanggalKembali, _id) dan posisi
+ * disimpan untuk tick berikutnya, sehingga laju scan paling tinggi batch-size per batch-interval-ms
+ * dan thread scheduler (juga dipakai OutboxRelay) tidak pernah tertahan lama. Setiap batch menjadi
+ * satu PeminjamanOverdueEvent di outbox, berisi hari terlambat dan denda berjalan (DendaCalculator).
+ *
+ * Posisi scan ada di memori: setelah restart putaran hari itu diulang dari awal, dan event ganda
+ * untuk (id, asOf) yang sama harus diabaikan consumer. Tidak ada koordinasi antar replica, jadi
+ * nonaktif secara default: set perpustakaan.overdue.enabled=true hanya di satu instance.
+ */
+@Component
+@ConditionalOnProperty(name = "perpustakaan.overdue.enabled", havingValue = "true")
+public class OverdueScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueScanner.class);
+    private static final String STATUS_DIPINJAM = "DIPINJAM";
+
+    private final MongoTemplate mongoTemplate;
+    private final PeminjamanCommandHandler commandHandler;
+    private final DendaCalculator dendaCalculator;
+    private final int batchSize;
+    private final Counter loans;
+    private final Timer batchDuration;
+    private final Timer scanDuration;
+
+    // Hanya diakses thread scheduler
+    private LocalDate asOf;
+    private LocalDate lastTanggalKembali;
+    private String lastId;
+    private boolean selesai;
+    private long scanStartNanos;
+    private long scanLoans;
+
+    public OverdueScanner(MongoTemplate mongoTemplate, PeminjamanCommandHandler commandHandler,
+                          DendaCalculator dendaCalculator, MeterRegistry meterRegistry,
+                          @Value("${perpustakaan.overdue.batch-size:200}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.commandHandler = commandHandler;
+        this.dendaCalculator = dendaCalculator;
+        this.batchSize = batchSize;
+        this.loans = Counter.builder("overdue.scan.loans")
+                .description("Pinjaman terlambat yang diproses OverdueScanner")
+                .register(meterRegistry);
+        this.batchDuration = Timer.builder("overdue.scan.batch")
+                .description("Satu batch OverdueScanner: query Read Model sampai event tercatat di outbox")
+                .register(meterRegistry);
+        this.scanDuration = Timer.builder("overdue.scan.duration")
+                .description("Satu putaran OverdueScanner dari batch pertama sampai terakhir")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${perpustakaan.overdue.batch-interval-ms:1000}",
+               initialDelayString = "${perpustakaan.overdue.initial-delay-ms:30000}")
+    public void scan() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(asOf)) {
+            startScan(today);
+        } else if (selesai) {
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        List<PeminjamanReadModel> batch;
+        try {
+            batch = nextBatch();
+            List<PeminjamanOverdueEvent.Item> items = batch.stream().map(this::toItem).filter(Objects::nonNull).toList();
+            if (!items.isEmpty()) {
+                commandHandler.handle(new RecordOverdueCommand(asOf, items));
+            }
+        } catch (RuntimeException e) {
+            // Posisi tidak maju, batch yang sama dicoba lagi pada tick berikutnya
+            logger.error("OVERDUE SCAN ERROR: Gagal memproses batch per {}, akan dicoba ulang: {}", asOf, e.getMessage());
+            return;
+        }
+        batchDuration.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+
+        loans.increment(batch.size());
+        scanLoans += batch.size();
+        if (!batch.isEmpty()) {
+            PeminjamanReadModel last = batch.get(batch.size() - 1);
+            lastTanggalKembali = last.getTanggalKembali();
+            lastId = last.getId();
+        }
+        if (batch.size() < batchSize) {
+            selesai = true;
+            long durationNanos = System.nanoTime() - scanStartNanos;
+            scanDuration.record(durationNanos, TimeUnit.NANOSECONDS);
+            logger.info("OVERDUE SCAN SELESAI: {} peminjaman terlambat per {} ({} ms)",
+                scanLoans, asOf, TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        }
+    }
+
+    private void startScan(LocalDate today) {
+        if (asOf != null && !selesai) {
+            logger.warn("OVERDUE SCAN: Putaran per {} belum selesai ({} peminjaman), diganti putaran per {}",
+                asOf, scanLoans, today);
+        }
+        asOf = today;
+        lastTanggalKembali = null;
+        lastId = null;
+        selesai = false;
+        scanStartNanos = System.nanoTime();
+        scanLoans = 0;
+        logger.info("OVERDUE SCAN: Memulai putaran per {}, batch {} peminjaman", today, batchSize);
+    }
+
+    private List<PeminjamanReadModel> nextBatch() {
+        Criteria criteria = Criteria.where("status").is(STATUS_DIPINJAM).and("tanggalKembali").lt(asOf);
+        if (lastId != null) {
+            criteria.orOperator(
+                Criteria.where("tanggalKembali").gt(lastTanggalKembali),
+                Criteria.where("tanggalKembali").is(lastTanggalKembali).and("id").gt(lastId));
+        }
+        Query query = Query.query(criteria)
+            .with(Sort.by(Sort.Order.asc("tanggalKembali"), Sort.Order.asc("id")))
+            .limit(batchSize);
+        query.fields().include("anggotaId", "bukuId", "tanggalKembali");
+        return mongoTemplate.find(query, PeminjamanReadModel.class);
+    }
+
+    // Dokumen rusak dilewati supaya tidak menahan seluruh putaran di batch yang sama
+    private PeminjamanOverdueEvent.Item toItem(PeminjamanReadModel peminjaman) {
+        try {
+            int terlambat = dendaCalculator.hariTerlambat(peminjaman.getTanggalKembali(), asOf);
+            return new PeminjamanOverdueEvent.Item(
+                UUID.fromString(peminjaman.getId()),
+                UUID.fromString(peminjaman.getAnggotaId()),
+                UUID.fromString(peminjaman.getBukuId()),
+                peminjaman.getTanggalKembali(),
+                terlambat,
+                dendaCalculator.denda(terlambat));
+        } catch (IllegalArgumentException e) {
+            logger.warn("OVERDUE SCAN: Peminjaman ID [{}] dilewati, data tidak valid: {}", peminjaman.getId(), e.getMessage());
+            return null;
+        }
+    }
+}
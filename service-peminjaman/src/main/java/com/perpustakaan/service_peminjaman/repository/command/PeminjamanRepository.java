@@ -7,7 +7,8 @@ import org.springframework.stereotype.Repository;
 
 import com.perpustakaan.service_peminjaman.entity.command.PeminjamanWriteModel;
 
+// Jangan tambahkan @Modifying update untuk status/anggotaId/bukuId: active_loan_key hanya dijaga
+// callback entity (lihat PeminjamanWriteModel), bukan oleh database.
 @Repository
 public interface PeminjamanRepository extends JpaRepository<PeminjamanWriteModel, UUID> {
-    boolean existsByAnggotaIdAndBukuIdAndStatus(UUID anggotaId, UUID bukuId, String status);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.perpustakaan.service_peminjaman.repository.query;
+
+import com.perpustakaan.service_peminjaman.entity.query.AnggotaSnapshot;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AnggotaSnapshotRepository extends MongoRepository<AnggotaSnapshot, String> {
+}
@@ -0,0 +1,9 @@
+package com.perpustakaan.service_peminjaman.repository.query;
+
+import com.perpustakaan.service_peminjaman.entity.query.BukuSnapshot;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BukuSnapshotRepository extends MongoRepository<BukuSnapshot, String> {
+}
@@ -0,0 +1,90 @@
+package com.perpustakaan.service_peminjaman.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Pelindung panggilan ke service lain: satu circuit breaker, bulkhead (semaphore) dan time limiter
+ * per service tujuan, dengan nama instance = nama service (resilience4j.*.instances.service-xxx).
+ *
+ * Urutan dari luar: circuit breaker -> time limiter -> bulkhead. Izin bulkhead baru dilepas saat
+ * panggilan HTTP benar-benar selesai (bukan saat time limiter menyerah), jadi downstream yang lambat
+ * hanya bisa menahan max-concurrent-calls virtual thread. Timeout dihitung sebagai kegagalan oleh
+ * circuit breaker. Future yang dikembalikan gagal dengan CallNotPermittedException, BulkheadFullException,
+ * TimeoutException atau error HTTP; fallback ditentukan pemanggil.
+ */
+@Component
+public class DownstreamGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(DownstreamGuard.class);
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final TimeLimiterRegistry timeLimiterRegistry;
+    private final ExecutorService enrichmentExecutor;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("downstream-timeout").daemon().factory());
+
+    public DownstreamGuard(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry,
+                           TimeLimiterRegistry timeLimiterRegistry, ExecutorService enrichmentExecutor,
+                           MeterRegistry meterRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.timeLimiterRegistry = timeLimiterRegistry;
+        this.enrichmentExecutor = enrichmentExecutor;
+        this.meterRegistry = meterRegistry;
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(this::observeTransitions);
+        circuitBreakerRegistry.getEventPublisher().onEntryAdded(event -> observeTransitions(event.getAddedEntry()));
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(String downstream, Supplier<T> call) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(downstream);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(downstream);
+        TimeLimiter timeLimiter = timeLimiterRegistry.timeLimiter(downstream);
+
+        Supplier<CompletionStage<T>> guarded = Bulkhead.decorateCompletionStage(bulkhead,
+                () -> CompletableFuture.supplyAsync(call, enrichmentExecutor));
+        guarded = timeLimiter.decorateCompletionStage(timeoutScheduler, guarded);
+        guarded = CircuitBreaker.decorateCompletionStage(circuitBreaker, guarded);
+        return guarded.get().toCompletableFuture();
+    }
+
+    // Metrik resilience4j_circuitbreaker_state hanya menunjukkan state saat scrape; transisi singkat
+    // (OPEN -> HALF_OPEN -> CLOSED di antara dua scrape) tetap terlihat lewat counter ini.
+    private void observeTransitions(CircuitBreaker circuitBreaker) {
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            Counter.builder("downstream.circuitbreaker.transitions")
+                    .description("Perubahan state circuit breaker panggilan antar service")
+                    .tag("name", event.getCircuitBreakerName())
+                    .tag("from", event.getStateTransition().getFromState().name())
+                    .tag("to", event.getStateTransition().getToState().name())
+                    .register(meterRegistry)
+                    .increment();
+            logger.warn("CIRCUIT BREAKER {}: {} -> {}", event.getCircuitBreakerName(),
+                    event.getStateTransition().getFromState(), event.getStateTransition().getToState());
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timeoutScheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,15 @@
+package com.perpustakaan.service_peminjaman.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchResponse<T> {
+    private List<T> items;
+    private List<String> missing;
+}
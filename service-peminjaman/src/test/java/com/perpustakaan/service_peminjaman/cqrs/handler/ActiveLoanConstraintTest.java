@@ -0,0 +1,131 @@
+package com.perpustakaan.service_peminjaman.cqrs.handler;
+
+import com.perpustakaan.service_peminjaman.cqrs.command.CreatePeminjamanCommand;
+import com.perpustakaan.service_peminjaman.entity.command.PeminjamanWriteModel;
+import com.perpustakaan.service_peminjaman.event.OutboxWriter;
+import com.perpustakaan.service_peminjaman.exception.DuplicateActiveLoanException;
+import com.perpustakaan.service_peminjaman.repository.command.OutboxEventRepository;
+import com.perpustakaan.service_peminjaman.repository.command.PeminjamanRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unique constraint active_loan_key diuji lewat database sungguhan (H2): create bersamaan untuk
+ * (anggota, buku) yang sama hanya boleh menghasilkan satu baris DIPINJAM.
+ */
+@DataJpaTest
+// Tanpa transaksi test: setiap command harus commit sendiri supaya thread lain melihat hasilnya
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ActiveLoanConstraintTest {
+
+    private static final int CONCURRENT_REQUESTS = 8;
+
+    // Konfigurasi sendiri: ServicePeminjamanApplication juga mengaktifkan repository MongoDB
+    @Configuration
+    @EntityScan(basePackageClasses = PeminjamanWriteModel.class)
+    @EnableJpaRepositories(basePackageClasses = PeminjamanRepository.class)
+    @ImportAutoConfiguration(JacksonAutoConfiguration.class)
+    @Import({PeminjamanCommandHandler.class, OutboxWriter.class})
+    static class Config {
+    }
+
+    @Autowired
+    private PeminjamanCommandHandler handler;
+
+    @Autowired
+    private PeminjamanRepository peminjamanRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+        peminjamanRepository.deleteAll();
+    }
+
+    @Test
+    void createBersamaanHanyaSatuYangBerhasil() throws Exception {
+        UUID anggotaId = UUID.randomUUID();
+        UUID bukuId = UUID.randomUUID();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<PeminjamanWriteModel>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS)) {
+            Callable<PeminjamanWriteModel> create = () -> {
+                start.await();
+                return handler.handle(pinjam(anggotaId, bukuId));
+            };
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                results.add(executor.submit(create));
+            }
+            start.countDown();
+        }
+
+        int berhasil = 0;
+        int ditolak = 0;
+        for (Future<PeminjamanWriteModel> result : results) {
+            try {
+                result.get();
+                berhasil++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(DuplicateActiveLoanException.class);
+                ditolak++;
+            }
+        }
+        assertThat(berhasil).isEqualTo(1);
+        assertThat(ditolak).isEqualTo(CONCURRENT_REQUESTS - 1);
+        assertThat(peminjamanRepository.findAll())
+                .filteredOn(p -> "DIPINJAM".equals(p.getStatus()))
+                .hasSize(1);
+        // Transaksi yang ditolak tidak meninggalkan event di outbox
+        assertThat(outboxEventRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void pinjamanSelesaiTidakMenghalangiPinjamanBaru() {
+        UUID anggotaId = UUID.randomUUID();
+        UUID bukuId = UUID.randomUUID();
+        PeminjamanWriteModel pertama = handler.handle(pinjam(anggotaId, bukuId));
+
+        assertThatThrownBy(() -> handler.handle(pinjam(anggotaId, bukuId)))
+                .isInstanceOf(DuplicateActiveLoanException.class);
+
+        handler.handleUpdateStatus(pertama.getId(), "DIKEMBALIKAN");
+        handler.handle(pinjam(anggotaId, bukuId));
+
+        // Pinjaman pertama tidak bisa diaktifkan lagi selama pinjaman kedua masih DIPINJAM
+        assertThatThrownBy(() -> handler.handleUpdateStatus(pertama.getId(), "DIPINJAM"))
+                .isInstanceOf(DuplicateActiveLoanException.class);
+        assertThat(peminjamanRepository.count()).isEqualTo(2);
+    }
+
+    private static CreatePeminjamanCommand pinjam(UUID anggotaId, UUID bukuId) {
+        LocalDate hariIni = LocalDate.of(2024, 5, 1);
+        return new CreatePeminjamanCommand(anggotaId, bukuId, hariIni, hariIni.plusDays(7), "DIPINJAM");
+    }
+}
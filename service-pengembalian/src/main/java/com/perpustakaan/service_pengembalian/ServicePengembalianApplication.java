@@ -4,12 +4,16 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.context.annotation.Bean;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @SpringBootApplication
 @EnableDiscoveryClient
+@EnableScheduling
 @EnableJpaRepositories(basePackages = "com.perpustakaan.service_pengembalian.repository.command")
 @EnableMongoRepositories(basePackages = "com.perpustakaan.service_pengembalian.repository.query")
 public class ServicePengembalianApplication {
@@ -18,8 +22,9 @@ public class ServicePengembalianApplication {
 		SpringApplication.run(ServicePengembalianApplication.class, args);
 	}
 
-	@Bean
-	public RestTemplate restTemplate() {
-		return new RestTemplate();
+	// Virtual thread per task: panggilan ke service-peminjaman hanya menunggu I/O.
+	@Bean(destroyMethod = "close")
+	public ExecutorService enrichmentExecutor() {
+		return Executors.newVirtualThreadPerTaskExecutor();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.perpustakaan.service_pengembalian.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.perpustakaan.service_pengembalian.vo.Peminjaman;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Data peminjaman terakhir yang berhasil diambil dari service-peminjaman (Caffeine). Bukan cache
+ * read-through: hanya dibaca saat panggilan gagal atau ditolak circuit breaker, supaya detail
+ * pengembalian tetap bisa menyertakan data peminjaman (mungkin sedikit usang).
+ */
+@Component
+public class PeminjamanFallbackCache {
+
+    private final Cache<String, Peminjaman> byId;
+
+    public PeminjamanFallbackCache(MeterRegistry meterRegistry,
+                                   @Value("${perpustakaan.cache.peminjaman-fallback.max-size:10000}") long maxSize,
+                                   @Value("${perpustakaan.cache.peminjaman-fallback.ttl-seconds:3600}") long ttlSeconds) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "peminjaman.fallback");
+    }
+
+    public void put(String id, Peminjaman peminjaman) {
+        byId.put(id, peminjaman);
+    }
+
+    public Peminjaman getIfPresent(String id) {
+        return byId.getIfPresent(id);
+    }
+}
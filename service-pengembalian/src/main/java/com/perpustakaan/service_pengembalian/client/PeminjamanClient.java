@@ -0,0 +1,48 @@
+package com.perpustakaan.service_pengembalian.client;
+
+import com.perpustakaan.service_pengembalian.cache.PeminjamanFallbackCache;
+import com.perpustakaan.service_pengembalian.resilience.DownstreamGuard;
+import com.perpustakaan.service_pengembalian.vo.Peminjaman;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * GET /api/peminjaman/{id}/summary ke service-peminjaman lewat DownstreamGuard: hanya dokumen Read Model,
+ * tanpa $lookup dan enrichment Anggota/Buku, jadi service-buku yang lambat tidak ikut menunda denda.
+ * Hasil yang berhasil diambil disimpan ke PeminjamanFallbackCache; fallback saat gagal ditentukan pemanggil.
+ */
+@Component
+@RequiredArgsConstructor
+public class PeminjamanClient {
+
+    private final RestTemplate restTemplate;
+    private final DownstreamGuard downstreamGuard;
+    private final PeminjamanFallbackCache peminjamanFallbackCache;
+
+    /** Melempar error HTTP / CallNotPermittedException / TimeoutException apa adanya (tanpa CompletionException). */
+    public Peminjaman fetch(String peminjamanId) {
+        Peminjaman peminjaman;
+        try {
+            peminjaman = downstreamGuard.supplyAsync("service-peminjaman", () -> restTemplate.getForObject(
+                "http://service-peminjaman/api/peminjaman/" + peminjamanId + "/summary",
+                Peminjaman.class
+            )).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        if (peminjaman != null) {
+            peminjamanFallbackCache.put(peminjamanId, peminjaman);
+        }
+        return peminjaman;
+    }
+
+    public Peminjaman cached(String peminjamanId) {
+        return peminjamanFallbackCache.getIfPresent(peminjamanId);
+    }
+}
@@ -0,0 +1,87 @@
+package com.perpustakaan.service_pengembalian.config;
+
+import com.perpustakaan.service_pengembalian.loadbalancer.InterServiceLoadBalancerConfiguration;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * HTTP client antar service: satu connection pool (keep-alive) dengan batas total dan per target,
+ * timeout connect / response, dan batas tunggu slot pool. Downstream yang lambat hanya menghabiskan
+ * slot untuk route-nya sendiri, lalu pemanggil berikutnya gagal cepat setelah pool-acquire-timeout.
+ *
+ * Metrik: httpcomponents_httpclient_pool_* (saturasi pool) dan http_client_requests_seconds
+ * (latensi per URI, dari RestTemplateBuilder).
+ *
+ * RestTemplate ini @LoadBalanced: URL memakai nama service (http://service-xxx/...), instance dipilih
+ * oleh Spring Cloud LoadBalancer dengan konfigurasi {@link InterServiceLoadBalancerConfiguration}.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = InterServiceLoadBalancerConfiguration.class)
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager interServiceConnectionManager(
+            @Value("${perpustakaan.http-client.max-total:200}") int maxTotal,
+            @Value("${perpustakaan.http-client.max-per-route:50}") int maxPerRoute,
+            @Value("${perpustakaan.http-client.connect-timeout-ms:1000}") long connectTimeoutMs,
+            @Value("${perpustakaan.http-client.response-timeout-ms:3000}") long responseTimeoutMs,
+            @Value("${perpustakaan.http-client.time-to-live-seconds:300}") long timeToLiveSeconds) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                        .setTimeToLive(TimeValue.ofSeconds(timeToLiveSeconds))
+                        // Koneksi idle divalidasi dulu sebelum dipakai ulang (instance bisa sudah restart)
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(5))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient interServiceHttpClient(
+            PoolingHttpClientConnectionManager interServiceConnectionManager,
+            @Value("${perpustakaan.http-client.response-timeout-ms:3000}") long responseTimeoutMs,
+            @Value("${perpustakaan.http-client.pool-acquire-timeout-ms:500}") long poolAcquireTimeoutMs,
+            @Value("${perpustakaan.http-client.idle-evict-seconds:30}") long idleEvictSeconds) {
+        return HttpClients.custom()
+                .setConnectionManager(interServiceConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolAcquireTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictSeconds))
+                .build();
+    }
+
+    @Bean
+    @LoadBalanced
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient interServiceHttpClient) {
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(interServiceHttpClient))
+                .build();
+    }
+
+    @Bean
+    public MeterBinder interServicePoolMetrics(PoolingHttpClientConnectionManager interServiceConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(interServiceConnectionManager, "inter-service");
+    }
+}
@@ -0,0 +1,56 @@
+package com.perpustakaan.service_pengembalian.config;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Field;
+import com.mongodb.client.model.Filters;
+import com.perpustakaan.service_pengembalian.entity.query.PengembalianReadModel;
+import lombok.RequiredArgsConstructor;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Migrasi satu kali dokumen Read Model lama yang menyimpan tanggalDikembalikan sebagai
+ * String "yyyy-MM-dd" menjadi BSON Date (UTC, sama dengan MongoConversionConfig). Dijalankan di server
+ * dengan update pipeline $dateFromString, hanya menyentuh dokumen yang field-nya masih bertipe string,
+ * jadi aman diulang di setiap startup. String yang tidak bisa di-parse dibiarkan apa adanya.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ReadModelDateMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadModelDateMigration.class);
+
+    private static final List<String> DATE_FIELDS = List.of("tanggalDikembalikan");
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateDates() {
+        CompletableFuture.runAsync(() -> {
+            MongoCollection<Document> collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(PengembalianReadModel.class));
+            for (String field : DATE_FIELDS) {
+                Document toDate = new Document("$dateFromString", new Document("dateString", "$" + field)
+                        .append("format", "%Y-%m-%d")
+                        .append("onError", "$" + field));
+                long modified = collection.updateMany(Filters.type(field, BsonType.STRING),
+                        List.of(Aggregates.set(new Field<>(field, toDate)))).getModifiedCount();
+                if (modified > 0) {
+                    logger.info("MIGRASI TANGGAL: {} dokumen pengembalian_read, field {} diubah ke Date", modified, field);
+                }
+            }
+        }).exceptionally(e -> {
+            logger.warn("MIGRASI TANGGAL ERROR: Gagal migrasi pengembalian_read, akan dicoba lagi saat restart: {}", e.getMessage());
+            return null;
+        });
+    }
+}
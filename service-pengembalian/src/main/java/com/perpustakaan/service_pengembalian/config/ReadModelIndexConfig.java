@@ -0,0 +1,41 @@
+package com.perpustakaan.service_pengembalian.config;
+
+import com.perpustakaan.service_pengembalian.entity.query.ProjectionTombstone;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * TTL index untuk tombstone projection.
+ * Dibuat di background setelah aplikasi siap supaya startup tidak menunggu MongoDB.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ReadModelIndexConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadModelIndexConfig.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        CompletableFuture.runAsync(() -> {
+            // TTL: tombstone hanya perlu hidup selama event usang masih mungkin di-redeliver
+            mongoTemplate.indexOps(ProjectionTombstone.class).ensureIndex(new Index().on("deletedAt", Sort.Direction.ASC)
+                    .expire(Duration.ofDays(7)).named("deletedAt_ttl"));
+            logger.info("INDEX READY: projection_tombstones (TTL)");
+        }).exceptionally(e -> {
+            logger.warn("INDEX ERROR: Gagal membuat index projection_tombstones, akan dicoba lagi saat restart: {}", e.getMessage());
+            return null;
+        });
+    }
+}
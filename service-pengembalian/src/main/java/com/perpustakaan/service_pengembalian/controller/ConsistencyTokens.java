@@ -0,0 +1,34 @@
+package com.perpustakaan.service_pengembalian.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Token read-your-writes: command mengembalikan versi Write Model di header X-Consistency-Token,
+ * client mengirimnya kembali sebagai ?minVersion= pada GET detail. Jika projection belum menyusul
+ * dalam batas tunggu (perpustakaan.consistency.max-wait-ms), dijawab 503 + Retry-After, bukan data lama.
+ */
+final class ConsistencyTokens {
+
+    static final String HEADER = "X-Consistency-Token";
+
+    private ConsistencyTokens() {
+    }
+
+    static <T> ResponseEntity<T> withToken(HttpStatus status, T body, Long version) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+        if (version != null) {
+            builder.header(HEADER, String.valueOf(version));
+        }
+        return builder.body(body);
+    }
+
+    static boolean isBehind(Long version, Long minVersion) {
+        return minVersion != null && (version == null || version < minVersion);
+    }
+
+    static <T> ResponseEntity<T> notYetProjected() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+}
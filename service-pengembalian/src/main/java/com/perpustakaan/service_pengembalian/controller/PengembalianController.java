@@ -3,19 +3,26 @@ package com.perpustakaan.service_pengembalian.controller;
 import com.perpustakaan.service_pengembalian.cqrs.command.*;
 import com.perpustakaan.service_pengembalian.cqrs.handler.*;
 import com.perpustakaan.service_pengembalian.cqrs.query.*;
+import com.perpustakaan.service_pengembalian.denda.DendaResolver;
+import com.perpustakaan.service_pengembalian.dto.CursorPage;
 import com.perpustakaan.service_pengembalian.dto.PengembalianRequest;
 import com.perpustakaan.service_pengembalian.entity.command.Pengembalian;
 import com.perpustakaan.service_pengembalian.entity.query.PengembalianReadModel;
 import com.perpustakaan.service_pengembalian.vo.ResponseTemplateVO;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -26,41 +33,78 @@ public class PengembalianController {
 
     private final PengembalianCommandHandler commandHandler;
     private final PengembalianQueryHandler queryHandler;
+    private final DendaResolver dendaResolver;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @Operation(summary = "Create Pengembalian")
     public ResponseEntity<Pengembalian> createPengembalian(@Valid @RequestBody PengembalianRequest request) {
+        UUID peminjamanId = UUID.fromString(request.getPeminjamanId()); // Convert String request to UUID
+        // Panggilan ke service-peminjaman di luar transaksi command
+        DendaResolver.Hasil denda = dendaResolver.hitung(peminjamanId, request.getTanggalDikembalikan());
         CreatePengembalianCommand command = new CreatePengembalianCommand(
-            UUID.fromString(request.getPeminjamanId()), // Convert String request to UUID
+            peminjamanId,
             request.getTanggalDikembalikan(),
-            request.getTerlambat(),
-            request.getDenda()
+            denda.terlambat(),
+            denda.denda()
         );
         Pengembalian saved = commandHandler.handle(command);
-        return new ResponseEntity<>(saved, HttpStatus.CREATED);
+        return ConsistencyTokens.withToken(HttpStatus.CREATED, saved, saved.getVersion());
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get Pengembalian By ID")
-    public ResponseEntity<ResponseTemplateVO> getPengembalian(@PathVariable("id") UUID id) {
+    public ResponseEntity<ResponseTemplateVO> getPengembalian(
+            @PathVariable("id") UUID id,
+            @RequestParam(required = false) Long minVersion) {
         // Query menggunakan String ID (MongoDB)
-        GetPengembalianByIdQuery query = new GetPengembalianByIdQuery(id.toString());
+        GetPengembalianByIdQuery query = new GetPengembalianByIdQuery(id.toString(), minVersion);
         ResponseTemplateVO response = queryHandler.handle(query);
         
+        if (ConsistencyTokens.isBehind(response != null ? response.getPengembalian().getVersion() : null, minVersion)) {
+            return ConsistencyTokens.notYetProjected();
+        }
         if (response != null) {
-            return ResponseEntity.ok(response);
+            // Data Peminjaman ikut menentukan body, jadi ikut masuk ke ETag
+            return ETags.list(response, List.of(response), PengembalianController::fingerprint);
         }
         return ResponseEntity.notFound().build();
     }
 
     @GetMapping
-    @Operation(summary = "Get All Pengembalian")
-    public ResponseEntity<Page<PengembalianReadModel>> getAllPengembalian(
+    @Operation(summary = "Get All Pengembalian", description = "Pass after (empty for the first page) for keyset pagination without a total count.")
+    public ResponseEntity<?> getAllPengembalian(
             @RequestParam(defaultValue = "0") Integer page,
-            @RequestParam(defaultValue = "10") Integer size) {
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String after) {
         
+        if (after != null) {
+            try {
+                CursorPage<PengembalianReadModel> cursorPage = queryHandler.handle(new GetPengembalianCursorQuery(after, size));
+                return ETags.list(cursorPage, cursorPage.getItems(), PengembalianController::fingerprint, cursorPage.getNextCursor());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
         GetAllPengembalianQuery query = new GetAllPengembalianQuery(page, size);
-        return ResponseEntity.ok(queryHandler.handle(query));
+        Page<PengembalianReadModel> pengembalianPage = queryHandler.handle(query);
+        return ETags.list(pengembalianPage, pengembalianPage.getContent(), PengembalianController::fingerprint,
+                pengembalianPage.getNumber(), pengembalianPage.getSize(), pengembalianPage.getTotalElements());
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export Pengembalian", description = "Streams every return as NDJSON (default) or CSV (format=csv) straight from a Read Model cursor, without pagination. Optional filters: from/to (tanggalDikembalikan, yyyy-MM-dd, inclusive) and terlambat (true/false).")
+    public ResponseEntity<StreamingResponseBody> exportPengembalian(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Boolean terlambat) {
+        if (!ExportStreams.isSupported(format) || (from != null && to != null && from.isAfter(to))) {
+            return ResponseEntity.badRequest().build();
+        }
+        ExportPengembalianQuery query = new ExportPengembalianQuery(from, to, terlambat);
+        return ExportStreams.stream(format, "pengembalian", PengembalianReadModel.class, objectMapper,
+                () -> queryHandler.handle(query));
     }
 
     @PutMapping("/{id}")
@@ -69,17 +113,19 @@ public class PengembalianController {
             @PathVariable("id") UUID id, 
             @Valid @RequestBody PengembalianRequest request) {
         
-        UpdatePengembalianCommand command = new UpdatePengembalianCommand(
-            id,
-            UUID.fromString(request.getPeminjamanId()),
-            request.getTanggalDikembalikan(),
-            request.getTerlambat(),
-            request.getDenda()
-        );
-
+        UUID peminjamanId = UUID.fromString(request.getPeminjamanId());
         try {
+            // Panggilan ke service-peminjaman di luar transaksi command
+            DendaResolver.Hasil denda = dendaResolver.hitung(peminjamanId, request.getTanggalDikembalikan());
+            UpdatePengembalianCommand command = new UpdatePengembalianCommand(
+                id,
+                peminjamanId,
+                request.getTanggalDikembalikan(),
+                denda.terlambat(),
+                denda.denda()
+            );
             Pengembalian updated = commandHandler.handle(command);
-            return ResponseEntity.ok(updated);
+            return ConsistencyTokens.withToken(HttpStatus.OK, updated, updated.getVersion());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
@@ -96,4 +142,12 @@ public class PengembalianController {
             return ResponseEntity.notFound().build();
         }
     }
-}
\ No newline at end of file
+
+    private static String fingerprint(PengembalianReadModel pengembalian) {
+        return ETags.fingerprint(pengembalian.getId(), pengembalian.getVersion());
+    }
+
+    private static String fingerprint(ResponseTemplateVO detail) {
+        return fingerprint(detail.getPengembalian()) + ":" + detail.getPeminjaman();
+    }
+}
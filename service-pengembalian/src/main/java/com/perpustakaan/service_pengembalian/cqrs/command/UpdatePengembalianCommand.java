@@ -1,5 +1,6 @@
 package com.perpustakaan.service_pengembalian.cqrs.command;
 
+import java.time.LocalDate;
 import java.util.UUID;
 
 import lombok.AllArgsConstructor;
@@ -12,7 +13,8 @@ import lombok.NoArgsConstructor;
 public class UpdatePengembalianCommand {
     private UUID id;
     private UUID peminjamanId;
-    private String tanggalDikembalikan;
+    private LocalDate tanggalDikembalikan;
+    // Dihitung DendaResolver dari tanggalKembali peminjaman sebelum command dibuat, bukan dari client
     private int terlambat;
     private double denda;
 }
\ No newline at end of file
@@ -7,11 +7,10 @@ import com.perpustakaan.service_pengembalian.repository.command.PengembalianRepo
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Component
@@ -21,13 +20,7 @@ public class PengembalianCommandHandler {
     private static final Logger logger = LoggerFactory.getLogger(PengembalianCommandHandler.class);
     
     private final PengembalianRepository pengembalianRepository;
-    private final RabbitTemplate rabbitTemplate;
-
-    @Value("${perpustakaan.rabbitmq.exchange}")
-    private String exchange;
-
-    @Value("${perpustakaan.rabbitmq.routing-key}")
-    private String routingKey;
+    private final OutboxWriter outboxWriter;
 
     @Transactional
     public Pengembalian handle(CreatePengembalianCommand command) {
@@ -39,7 +32,9 @@ public class PengembalianCommandHandler {
         pengembalian.setTerlambat(command.getTerlambat());
         pengembalian.setDenda(command.getDenda());
 
-        Pengembalian saved = pengembalianRepository.save(pengembalian);
+        pengembalian.setUpdatedAt(Instant.now());
+        // saveAndFlush supaya @Version sudah naik saat event dibuat
+        Pengembalian saved = pengembalianRepository.saveAndFlush(pengembalian);
         
         publishCreatedEvent(saved);
         return saved;
@@ -57,7 +52,9 @@ public class PengembalianCommandHandler {
         existing.setTerlambat(command.getTerlambat());
         existing.setDenda(command.getDenda());
 
-        Pengembalian updated = pengembalianRepository.save(existing);
+        existing.setUpdatedAt(Instant.now());
+        // saveAndFlush supaya @Version sudah naik saat event dibuat
+        Pengembalian updated = pengembalianRepository.saveAndFlush(existing);
         
         publishUpdatedEvent(updated);
         return updated;
@@ -75,15 +72,18 @@ public class PengembalianCommandHandler {
         publishDeletedEvent(command.getId());
     }
 
+    // Event dicatat ke outbox dalam transaksi yang sama; OutboxRelay yang mengirim ke RabbitMQ.
     private void publishCreatedEvent(Pengembalian p) {
         PengembalianCreatedEvent event = new PengembalianCreatedEvent(
             p.getId(), 
             p.getPeminjamanId(), 
             p.getTanggalDikembalikan(), 
             p.getTerlambat(), // Pass field ini
-            p.getDenda()
+            p.getDenda(),
+            p.getVersion(),
+            p.getUpdatedAt()
         );
-        rabbitTemplate.convertAndSend(exchange, routingKey, event);
+        outboxWriter.append(p.getId(), event);
     }
 
     private void publishUpdatedEvent(Pengembalian p) {
@@ -92,13 +92,15 @@ public class PengembalianCommandHandler {
             p.getPeminjamanId(),
             p.getTanggalDikembalikan(), 
             p.getTerlambat(), // Pass field ini
-            p.getDenda()
+            p.getDenda(),
+            p.getVersion(),
+            p.getUpdatedAt()
         );
-        rabbitTemplate.convertAndSend(exchange, routingKey, event);
+        outboxWriter.append(p.getId(), event);
     }
 
     private void publishDeletedEvent(UUID id) {
         PengembalianDeletedEvent event = new PengembalianDeletedEvent(id);
-        rabbitTemplate.convertAndSend(exchange, routingKey, event);
+        outboxWriter.append(id, event);
     }
 }
\ No newline at end of file
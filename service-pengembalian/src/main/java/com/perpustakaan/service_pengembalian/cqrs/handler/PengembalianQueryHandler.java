@@ -1,22 +1,28 @@
 package com.perpustakaan.service_pengembalian.cqrs.handler;
 
+import com.perpustakaan.service_pengembalian.client.PeminjamanClient;
 import com.perpustakaan.service_pengembalian.cqrs.query.*;
+import com.perpustakaan.service_pengembalian.dto.CursorPage;
 import com.perpustakaan.service_pengembalian.entity.query.PengembalianReadModel;
+import com.perpustakaan.service_pengembalian.event.ProjectionProgress;
 import com.perpustakaan.service_pengembalian.repository.query.PengembalianQueryRepository;
 import com.perpustakaan.service_pengembalian.vo.Peminjaman;
 import com.perpustakaan.service_pengembalian.vo.ResponseTemplateVO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cloud.client.ServiceInstance;
-import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Component
 public class PengembalianQueryHandler {
@@ -27,13 +33,26 @@ public class PengembalianQueryHandler {
     private PengembalianQueryRepository pengembalianRepository; // Mongo Read Repo
 
     @Autowired
-    private RestTemplate restTemplate;
+    private MongoTemplate mongoTemplate;
 
     @Autowired
-    private DiscoveryClient discoveryClient;
+    private ProjectionProgress projectionProgress;
+
+    @Autowired
+    private PeminjamanClient peminjamanClient;
+
+    @Value("${perpustakaan.query.cursor-max-size:200}")
+    private int maxCursorSize;
+
+    @Value("${perpustakaan.export.cursor-batch-size:1000}")
+    private int exportBatchSize;
 
     public ResponseTemplateVO handle(GetPengembalianByIdQuery query) {
-        Optional<PengembalianReadModel> pengembalianOpt = pengembalianRepository.findById(query.getId());
+        Optional<PengembalianReadModel> pengembalianOpt = query.getMinVersion() == null
+            ? pengembalianRepository.findById(query.getId())
+            : Optional.ofNullable(projectionProgress.awaitVersion(
+                () -> pengembalianRepository.findById(query.getId()).orElse(null),
+                PengembalianReadModel::getVersion, query.getMinVersion()));
         if (pengembalianOpt.isEmpty()) {
             return null;
         }
@@ -41,20 +60,7 @@ public class PengembalianQueryHandler {
         PengembalianReadModel pengembalian = pengembalianOpt.get();
         ResponseTemplateVO vo = new ResponseTemplateVO();
         vo.setPengembalian(pengembalian);
-
-        try {
-            String peminjamanUrl = getServiceUrl("service-peminjaman");
-            if (peminjamanUrl != null) {
-                Peminjaman peminjaman = restTemplate.getForObject(
-                    peminjamanUrl + "/api/peminjaman/" + pengembalian.getPeminjamanId(),
-                    Peminjaman.class
-                );
-                vo.setPeminjaman(peminjaman);
-            }
-        } catch (Exception e) {
-            logger.warn("Gagal mengambil data Peminjaman: {}", e.getMessage());
-        }
-
+        vo.setPeminjaman(fetchPeminjaman(pengembalian.getPeminjamanId()));
         return vo;
     }
 
@@ -63,11 +69,55 @@ public class PengembalianQueryHandler {
         return pengembalianRepository.findAll(pageRequest);
     }
 
-    private String getServiceUrl(String serviceName) {
-        List<ServiceInstance> instances = discoveryClient.getInstances(serviceName);
-        if (instances != null && !instances.isEmpty()) {
-            return instances.get(0).getUri().toString();
+    public CursorPage<PengembalianReadModel> handle(GetPengembalianCursorQuery query) {
+        String afterId = KeysetCursor.decode(query.getAfter());
+        logger.debug("Handling GetPengembalianCursorQuery - size: {}, afterId: {}", query.getSize(), afterId);
+        List<PengembalianReadModel> rows = mongoTemplate.find(
+            KeysetCursor.seek(afterId, query.getSize(), maxCursorSize), PengembalianReadModel.class);
+        return KeysetCursor.page(rows, query.getSize(), PengembalianReadModel::getId);
+    }
+
+    /**
+     * Cursor MongoDB untuk export, tanpa halaman dan count. Urut _id supaya tidak ada sort di
+     * memori server; dokumen diambil per cursor-batch-size saat Stream dikonsumsi.
+     * Pemanggil wajib menutup Stream (menutup cursor).
+     */
+    public Stream<PengembalianReadModel> handle(ExportPengembalianQuery query) {
+        logger.info("Handling ExportPengembalianQuery - from: {}, to: {}, terlambat: {}",
+            query.getFrom(), query.getTo(), query.getTerlambat());
+        Criteria criteria = new Criteria();
+        if (query.getTerlambat() != null) {
+            Criteria terlambat = criteria.and("terlambat");
+            if (query.getTerlambat()) {
+                terlambat.gt(0);
+            } else {
+                terlambat.lte(0);
+            }
+        }
+        if (query.getFrom() != null || query.getTo() != null) {
+            Criteria tanggalDikembalikan = criteria.and("tanggalDikembalikan");
+            if (query.getFrom() != null) {
+                tanggalDikembalikan.gte(query.getFrom());
+            }
+            if (query.getTo() != null) {
+                tanggalDikembalikan.lte(query.getTo());
+            }
+        }
+        Query mongoQuery = Query.query(criteria)
+            .with(Sort.by(Sort.Direction.ASC, "id"))
+            .cursorBatchSize(exportBatchSize);
+        return mongoTemplate.stream(mongoQuery, PengembalianReadModel.class);
+    }
+
+    // Circuit breaker / bulkhead / time limiter lewat PeminjamanClient; saat gagal dipakai data terakhir yang diketahui.
+    private Peminjaman fetchPeminjaman(String peminjamanId) {
+        try {
+            return peminjamanClient.fetch(peminjamanId);
+        } catch (Exception e) {
+            Peminjaman cached = peminjamanClient.cached(peminjamanId);
+            logger.warn("Gagal mengambil data Peminjaman ({}), {}", e.getMessage(),
+                cached != null ? "memakai data terakhir dari cache" : "dikembalikan tanpa data ini");
+            return cached;
         }
-        return null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.perpustakaan.service_pengembalian.cqrs.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExportPengembalianQuery {
+    private LocalDate from;     // tanggalDikembalikan >= from (opsional)
+    private LocalDate to;       // tanggalDikembalikan <= to (opsional)
+    private Boolean terlambat;  // true = terlambat > 0, false = tepat waktu (opsional)
+}
@@ -9,4 +9,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class GetPengembalianByIdQuery {
     private String id;
-}
\ No newline at end of file
+    // Versi minimal (token dari response command); null = baca apa adanya
+    private Long minVersion;
+
+    public GetPengembalianByIdQuery(String id) {
+        this(id, null);
+    }
+}
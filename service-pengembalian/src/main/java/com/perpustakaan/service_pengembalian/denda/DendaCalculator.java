@@ -0,0 +1,46 @@
+package com.perpustakaan.service_pengembalian.denda;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Tarif denda keterlambatan (perpustakaan.denda.*): hari di luar masa tenggang dikali tarif per hari,
+ * dibatasi maksimum. Dipakai saat pengembalian dicatat; OverdueScanner di service-peminjaman memakai
+ * tarif yang sama untuk denda berjalan pinjaman yang belum kembali.
+ */
+@Component
+public class DendaCalculator {
+
+    private final long tarifPerHari;
+    private final int masaTenggangHari;
+    private final long maksimum; // 0 = tanpa batas
+
+    public DendaCalculator(@Value("${perpustakaan.denda.tarif-per-hari:5000}") long tarifPerHari,
+                           @Value("${perpustakaan.denda.masa-tenggang-hari:0}") int masaTenggangHari,
+                           @Value("${perpustakaan.denda.maksimum:0}") long maksimum) {
+        this.tarifPerHari = tarifPerHari;
+        this.masaTenggangHari = masaTenggangHari;
+        this.maksimum = maksimum;
+    }
+
+    /**
+     * Jumlah hari tanggal melewati tanggalKembali, 0 jika belum lewat.
+     * Tanpa tanggalKembali keterlambatan tidak bisa dihitung, jadi ditolak (IllegalArgumentException).
+     */
+    public int hariTerlambat(LocalDate tanggalKembali, LocalDate tanggal) {
+        if (tanggalKembali == null || tanggal == null) {
+            throw new IllegalArgumentException("Tanggal kembali dan tanggal pembanding wajib diisi untuk menghitung denda.");
+        }
+        long hari = ChronoUnit.DAYS.between(tanggalKembali, tanggal);
+        return hari > 0 ? Math.toIntExact(hari) : 0;
+    }
+
+    public double denda(int hariTerlambat) {
+        long hariDikenakan = Math.max(0, hariTerlambat - masaTenggangHari);
+        long denda = hariDikenakan * tarifPerHari;
+        return maksimum > 0 ? Math.min(denda, maksimum) : denda;
+    }
+}
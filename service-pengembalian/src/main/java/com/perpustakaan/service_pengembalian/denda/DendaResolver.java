@@ -0,0 +1,66 @@
+package com.perpustakaan.service_pengembalian.denda;
+
+import com.perpustakaan.service_pengembalian.client.PeminjamanClient;
+import com.perpustakaan.service_pengembalian.vo.Peminjaman;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Menghitung terlambat dan denda pengembalian dari tanggalKembali peminjaman (service-peminjaman).
+ * Sengaja tanpa transaksi: dipanggil controller sebelum command, sehingga panggilan HTTP ke
+ * service-peminjaman tidak menahan koneksi H2 dan transaksi outbox tetap pendek.
+ */
+@Component
+@RequiredArgsConstructor
+public class DendaResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(DendaResolver.class);
+
+    private final PeminjamanClient peminjamanClient;
+    private final DendaCalculator dendaCalculator;
+
+    public record Hasil(int terlambat, double denda) {}
+
+    public Hasil hitung(UUID peminjamanId, LocalDate tanggalDikembalikan) {
+        if (tanggalDikembalikan == null) {
+            throw new IllegalArgumentException("Tanggal dikembalikan wajib diisi.");
+        }
+        Peminjaman peminjaman = peminjamanUntukDenda(peminjamanId.toString());
+        LocalDate jatuhTempo = peminjaman.getTanggalKembali();
+
+        int terlambat = dendaCalculator.hariTerlambat(jatuhTempo, tanggalDikembalikan);
+        double denda = dendaCalculator.denda(terlambat);
+        logger.info("Denda Peminjaman ID {}: terlambat {} hari (jatuh tempo {}), denda {}",
+            peminjamanId, terlambat, jatuhTempo, denda);
+        return new Hasil(terlambat, denda);
+    }
+
+    // tanggalKembali jarang berubah, jadi data terakhir dari cache masih layak saat service-peminjaman
+    // tidak bisa dihubungi; tanpa cache, pengembalian ditolak (503) daripada menyimpan denda yang salah.
+    private Peminjaman peminjamanUntukDenda(String peminjamanId) {
+        Peminjaman peminjaman;
+        try {
+            peminjaman = peminjamanClient.fetch(peminjamanId);
+        } catch (HttpClientErrorException.NotFound e) {
+            throw new IllegalArgumentException("Peminjaman not found: " + peminjamanId);
+        } catch (RuntimeException e) {
+            peminjaman = peminjamanClient.cached(peminjamanId);
+            if (peminjaman == null) {
+                throw new ResourceAccessException("Service peminjaman tidak tersedia untuk menghitung denda: " + e.getMessage());
+            }
+            logger.warn("Gagal mengambil Peminjaman ID {} ({}), denda dihitung dari data terakhir di cache",
+                peminjamanId, e.getMessage());
+        }
+        if (peminjaman == null) {
+            throw new IllegalArgumentException("Peminjaman not found: " + peminjamanId);
+        }
+        return peminjaman;
+    }
+}
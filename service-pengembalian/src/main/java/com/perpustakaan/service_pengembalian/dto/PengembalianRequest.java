@@ -1,11 +1,11 @@
 package com.perpustakaan.service_pengembalian.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
-import jakarta.validation.constraints.Min;
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
+import java.time.LocalDate;
+
 @Data
 public class PengembalianRequest {
     
@@ -13,15 +13,8 @@ public class PengembalianRequest {
     @Schema(description = "ID Peminjaman", example = "1")
     private String peminjamanId;
     
-    @NotBlank(message = "Tanggal dikembalikan tidak boleh kosong")
+    // Format yyyy-MM-dd di-parse Jackson; format salah ditolak 400 oleh GlobalExceptionHandler
+    @NotNull(message = "Tanggal dikembalikan tidak boleh kosong")
     @Schema(description = "Tanggal dikembalikan", example = "2023-10-10")
-    private String tanggalDikembalikan;
-    
-    @Min(value = 0, message = "Keterlambatan tidak boleh kurang dari 0")
-    @Schema(description = "Jumlah hari keterlambatan", example = "2")
-    private int terlambat;
-    
-    @Min(value = 0, message = "Denda tidak boleh kurang dari 0")
-    @Schema(description = "Jumlah denda", example = "5000.0")
-    private double denda;
+    private LocalDate tanggalDikembalikan;
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.perpustakaan.service_pengembalian.entity.command;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.UUID;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -19,7 +21,15 @@ public class Pengembalian {
     @Column(nullable = false)
     private UUID peminjamanId;
     
-    private String tanggalDikembalikan;
+    private LocalDate tanggalDikembalikan;
     private int terlambat;
     private double denda;
-}
\ No newline at end of file
+
+    // Dinaikkan JPA di setiap update; ikut dikirim di event sebagai versi Read Model
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+import java.time.LocalDate;
 
 @Document(collection = "pengembalian_read")
 @Data
@@ -14,7 +16,12 @@ public class PengembalianReadModel {
     @Id
     private String id;
     private String peminjamanId;
-    private String tanggalDikembalikan;
+    // BSON Date (UTC tengah malam), lihat MongoConversionConfig
+    private LocalDate tanggalDikembalikan;
     private int terlambat;
     private double denda;
-}
\ No newline at end of file
+
+    // Versi write model terakhir yang diproyeksikan; dasar ETag / Last-Modified
+    private Long version;
+    private Instant updatedAt;
+}
@@ -0,0 +1,97 @@
+package com.perpustakaan.service_pengembalian.event;
+
+import com.perpustakaan.service_pengembalian.entity.command.OutboxEvent;
+import com.perpustakaan.service_pengembalian.repository.command.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Mengirim isi tabel outbox ke RabbitMQ per batch. Satu batch dikirim dalam satu channel
+ * dan dikonfirmasi sekaligus (publisher confirms); baris baru dihapus setelah broker
+ * mengonfirmasi seluruh batch, sehingga kegagalan broker hanya menunda event, bukan menghilangkannya.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    /** Sequence per service: id baris outbox (IDENTITY, naik monoton). */
+    static final String SEQUENCE_HEADER = "x-outbox-sequence";
+
+    private final OutboxEventRepository outboxRepository;
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${perpustakaan.rabbitmq.exchange}")
+    private String exchange;
+
+    @Value("${perpustakaan.rabbitmq.routing-key}")
+    private String routingKey;
+
+    @Value("${perpustakaan.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${perpustakaan.outbox.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Scheduled(fixedDelayString = "${perpustakaan.outbox.relay-interval-ms:200}")
+    public void relay() {
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == batchSize);
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (OutboxEvent outboxEvent : batch) {
+                    operations.send(exchange, routingKey, toMessage(outboxEvent));
+                }
+                operations.waitForConfirmsOrDie(confirmTimeoutMs);
+                return null;
+            });
+        } catch (Exception e) {
+            logger.error("OUTBOX ERROR: Gagal relay {} event, akan dicoba ulang: {}", batch.size(), e.getMessage());
+            return 0;
+        }
+
+        outboxRepository.deleteAllByIdInBatch(batch.stream().map(OutboxEvent::getId).toList());
+        logger.info("OUTBOX RELAY: {} event dikirim dan dikonfirmasi broker.", batch.size());
+        return batch.size();
+    }
+
+    private Message toMessage(OutboxEvent outboxEvent) {
+        return MessageBuilder.withBody(outboxEvent.getPayload().getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                .setMessageId(outboxEvent.getId().toString())
+                .setHeader(SEQUENCE_HEADER, outboxEvent.getId())
+                // Waktu commit di Write Model, dasar pengukuran projection.lag
+                .setTimestamp(Date.from(outboxEvent.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant()))
+                .setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, outboxEvent.getEventType())
+                .build();
+    }
+}
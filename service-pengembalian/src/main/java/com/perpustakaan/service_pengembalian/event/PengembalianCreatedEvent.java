@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.UUID;
 
 @Data
@@ -12,7 +14,9 @@ import java.util.UUID;
 public class PengembalianCreatedEvent implements Serializable {
     private UUID id;
     private UUID peminjamanId;
-    private String tanggalDikembalikan;
+    private LocalDate tanggalDikembalikan;
     private int terlambat; // Tambahkan ini
     private double denda;
-}
\ No newline at end of file
+    private Long version;
+    private Instant updatedAt;
+}
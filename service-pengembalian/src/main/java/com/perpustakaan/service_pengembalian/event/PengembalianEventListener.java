@@ -1,66 +1,84 @@
 package com.perpustakaan.service_pengembalian.event;
 
 import com.perpustakaan.service_pengembalian.entity.query.PengembalianReadModel;
-import com.perpustakaan.service_pengembalian.repository.query.PengembalianQueryRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.annotation.RabbitHandler;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
 @Component
-@RabbitListener(queues = "${perpustakaan.rabbitmq.queue}")
 @RequiredArgsConstructor
 public class PengembalianEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(PengembalianEventListener.class);
-    private final PengembalianQueryRepository queryRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MessageConverter messageConverter;
+    private final ProjectionProgress projectionProgress;
 
-    @RabbitHandler
-    public void handleCreatedEvent(PengembalianCreatedEvent event) {
-        String idString = event.getId().toString();
-        logger.info("RabbitMQ Listener: Created Pengembalian to MongoDB: {}", idString);
-        
-        PengembalianReadModel model = new PengembalianReadModel();
-        model.setId(idString);
-        // FIX: Gunakan getPeminjamanId() dari event, bukan ID pengembalian
-        model.setPeminjamanId(event.getPeminjamanId().toString()); 
-        model.setTanggalDikembalikan(event.getTanggalDikembalikan());
-        model.setTerlambat(event.getTerlambat());
-        model.setDenda(event.getDenda());
-        
-        queryRepository.save(model);
-        logger.info("RabbitMQ Listener: Successfully synced ID {}", idString);
-    }
+    /**
+     * Menerima event dalam batch (lihat projectionBatchContainerFactory), menggabungkan
+     * event per ID pengembalian, lalu menerapkannya ke Read Model dengan satu bulkWrite.
+     */
+    @RabbitListener(queues = "${perpustakaan.rabbitmq.queue}", containerFactory = "projectionBatchContainerFactory")
+    public void handleBatch(List<Message> messages) {
+        ProjectionBatch<PengembalianReadModel> batch = new ProjectionBatch<>(PengembalianReadModel.class, PengembalianReadModel::getVersion);
 
-    @RabbitHandler
-    public void handleUpdatedEvent(PengembalianUpdatedEvent event) {
-        String idString = event.getId().toString();
-        logger.info("RabbitMQ Listener: Updated Pengembalian to MongoDB: {}", idString);
-        
-        PengembalianReadModel model = queryRepository.findById(idString)
-            .orElse(new PengembalianReadModel());
+        for (Message message : messages) {
+            Object event;
+            try {
+                event = messageConverter.fromMessage(message);
+            } catch (MessageConversionException e) {
+                logger.error("RabbitMQ Listener: Gagal membaca event, dilewati: {}", e.getMessage());
+                continue;
+            }
 
-        model.setId(idString); // Re-set ID
-        model.setPeminjamanId(event.getPeminjamanId().toString());
-        model.setTanggalDikembalikan(event.getTanggalDikembalikan());
-        model.setTerlambat(event.getTerlambat());
-        model.setDenda(event.getDenda());
-        
-        queryRepository.save(model);
-        logger.info("RabbitMQ Listener: Successfully synced ID {}", idString);
+            if (event instanceof PengembalianCreatedEvent created) {
+                String idString = created.getId().toString();
+                logger.debug("RabbitMQ Listener: Created Pengembalian {}", idString);
+                batch.replace(idString, toReadModel(idString, created.getPeminjamanId(),
+                        created.getTanggalDikembalikan(), created.getTerlambat(), created.getDenda(),
+                        created.getVersion(), created.getUpdatedAt()));
+            } else if (event instanceof PengembalianUpdatedEvent updated) {
+                String idString = updated.getId().toString();
+                logger.debug("RabbitMQ Listener: Updated Pengembalian {}", idString);
+                batch.replace(idString, toReadModel(idString, updated.getPeminjamanId(),
+                        updated.getTanggalDikembalikan(), updated.getTerlambat(), updated.getDenda(),
+                        updated.getVersion(), updated.getUpdatedAt()));
+            } else if (event instanceof PengembalianDeletedEvent deleted) {
+                String idString = deleted.getId().toString();
+                logger.debug("RabbitMQ Listener: Deleted Pengembalian {}", idString);
+                batch.delete(idString);
+            } else {
+                logger.warn("RabbitMQ Listener: Tipe event tidak dikenal: {}", event.getClass().getName());
+            }
+        }
+
+        batch.flush(mongoTemplate);
+        projectionProgress.applied("pengembalian", messages);
+        logger.info("RabbitMQ Listener: Synced {} event ke MongoDB ({} dokumen Pengembalian)", messages.size(), batch.size());
     }
 
-    @RabbitHandler
-    public void handleDeletedEvent(PengembalianDeletedEvent event) {
-        String idString = event.getId().toString();
-        logger.info("RabbitMQ Listener: Deleted Pengembalian from MongoDB: {}", idString);
-        
-        if (queryRepository.existsById(idString)) {
-            queryRepository.deleteById(idString);
-        } else {
-            logger.warn("RabbitMQ Listener: ID {} not found", idString);
-        }
+    private PengembalianReadModel toReadModel(String id, UUID peminjamanId, LocalDate tanggalDikembalikan,
+                                              int terlambat, double denda, Long version, Instant updatedAt) {
+        PengembalianReadModel model = new PengembalianReadModel();
+        model.setId(id);
+        // FIX: Gunakan peminjamanId dari event, bukan ID pengembalian
+        model.setPeminjamanId(peminjamanId.toString());
+        model.setTanggalDikembalikan(tanggalDikembalikan);
+        model.setTerlambat(terlambat);
+        model.setDenda(denda);
+        model.setVersion(version);
+        model.setUpdatedAt(updatedAt);
+        return model;
     }
-}
\ No newline at end of file
+}
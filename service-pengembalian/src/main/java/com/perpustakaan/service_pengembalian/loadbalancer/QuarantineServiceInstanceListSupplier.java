@@ -0,0 +1,35 @@
+package com.perpustakaan.service_pengembalian.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Menyaring instance yang sedang dikarantina {@link InstanceLoadTracker}. Dipasang di atas
+ * daftar yang di-cache, jadi karantina berlaku seketika tanpa menunggu cache discovery kedaluwarsa.
+ * Jika semua instance dikarantina, daftar asli dikembalikan (lebih baik mencoba daripada gagal pasti).
+ */
+class QuarantineServiceInstanceListSupplier extends DelegatingServiceInstanceListSupplier {
+
+    private final InstanceLoadTracker tracker;
+
+    QuarantineServiceInstanceListSupplier(ServiceInstanceListSupplier delegate, InstanceLoadTracker tracker) {
+        super(delegate);
+        this.tracker = tracker;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return delegate.get().map(this::withoutQuarantined);
+    }
+
+    private List<ServiceInstance> withoutQuarantined(List<ServiceInstance> instances) {
+        List<ServiceInstance> available = instances.stream()
+                .filter(instance -> !tracker.isQuarantined(instance))
+                .toList();
+        return available.isEmpty() ? instances : available;
+    }
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -11,7 +13,7 @@ public class Peminjaman {
     private String id;
     private String anggotaId;
     private String bukuId;
-    private String tanggalPinjam;
-    private String tanggalKembali;
+    private LocalDate tanggalPinjam;
+    private LocalDate tanggalKembali;
     private String status;
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.perpustakaan.service_pengembalian.cqrs.handler;
+
+import com.perpustakaan.service_pengembalian.dto.CursorPage;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    private static final int MAX_SIZE = 50;
+
+    @Test
+    void pageTerakhirTanpaCursor() {
+        CursorPage<String> page = KeysetCursor.page(List.of("a"), 2, Function.identity());
+
+        assertThat(page.getItems()).containsExactly("a");
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void cursorMembawaIdBarisTerakhir() {
+        CursorPage<String> page = KeysetCursor.page(List.of("a", "b", "c"), 2, Function.identity());
+
+        assertThat(page.getItems()).containsExactly("a", "b");
+        assertThat(page.getSize()).isEqualTo(2);
+        assertThat(KeysetCursor.decode(page.getNextCursor())).isEqualTo("b");
+    }
+
+    @Test
+    void decodeMenolakCursorRusak() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode(" ")).isNull();
+        assertThatThrownBy(() -> KeysetCursor.decode("bukan-base64!"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor("{\"s\":\"id\"}")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor("{\"id\":42}")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void decodeMenerimaCursorFormatLama() {
+        assertThat(KeysetCursor.decode(cursor("{\"s\":\"id\",\"v\":null,\"id\":\"b\"}"))).isEqualTo("b");
+    }
+
+    @Test
+    void seekUrutIdDanMulaiSetelahIdTerakhir() {
+        Query first = KeysetCursor.seek(null, 10, MAX_SIZE);
+        Query next = KeysetCursor.seek("b", 10, MAX_SIZE);
+
+        assertThat(first.getLimit()).isEqualTo(11);
+        assertThat(first.getSortObject()).isEqualTo(new Document("id", 1));
+        assertThat(first.getQueryObject()).isEmpty();
+        assertThat(next.getQueryObject().toJson()).isEqualTo("{\"id\": {\"$gt\": \"b\"}}");
+    }
+
+    @Test
+    void seekMenolakSizeDiLuarBatas() {
+        assertThatThrownBy(() -> KeysetCursor.seek(null, 0, MAX_SIZE))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.seek(null, MAX_SIZE + 1, MAX_SIZE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String cursor(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,53 @@
+package com.perpustakaan.service_pengembalian.denda;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DendaCalculatorTest {
+
+    private static final LocalDate JATUH_TEMPO = LocalDate.of(2024, 5, 8);
+
+    private final DendaCalculator calculator = new DendaCalculator(5000, 0, 0);
+
+    @Test
+    void tepatWaktuTidakKenaDenda() {
+        assertThat(calculator.hariTerlambat(JATUH_TEMPO, JATUH_TEMPO)).isZero();
+        assertThat(calculator.hariTerlambat(JATUH_TEMPO, JATUH_TEMPO.minusDays(3))).isZero();
+        assertThat(calculator.denda(0)).isZero();
+    }
+
+    @Test
+    void terlambatDikaliTarifPerHari() {
+        int terlambat = calculator.hariTerlambat(JATUH_TEMPO, LocalDate.of(2024, 5, 12));
+
+        assertThat(terlambat).isEqualTo(4);
+        assertThat(calculator.denda(terlambat)).isEqualTo(20000.0);
+    }
+
+    @Test
+    void masaTenggangTidakDihitung() {
+        DendaCalculator denganTenggang = new DendaCalculator(5000, 2, 0);
+
+        assertThat(denganTenggang.denda(2)).isZero();
+        assertThat(denganTenggang.denda(5)).isEqualTo(15000.0);
+    }
+
+    @Test
+    void dendaDibatasiMaksimum() {
+        DendaCalculator denganBatas = new DendaCalculator(5000, 0, 20000);
+
+        assertThat(denganBatas.denda(3)).isEqualTo(15000.0);
+        assertThat(denganBatas.denda(4)).isEqualTo(20000.0);
+        assertThat(denganBatas.denda(30)).isEqualTo(20000.0);
+    }
+
+    @Test
+    void tanpaTanggalKembaliDitolak() {
+        assertThatThrownBy(() -> calculator.hariTerlambat(null, JATUH_TEMPO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}